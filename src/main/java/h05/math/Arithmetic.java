@@ -0,0 +1,301 @@
+package h05.math;
+
+import h05.exception.Comparison;
+import h05.exception.WrongOperandException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * The promotion and dispatch matrix of the binary arithmetic operations of {@link MyNumber}. Both
+ * operands are classified by their {@link MyNumber#kind() kind} and the pair selects a kernel that
+ * works on the native representations directly instead of converting both operands to a common
+ * type first.
+ *
+ * @author Nhan Huynh
+ */
+final class Arithmetic {
+
+    /**
+     * The kind of {@link MyInteger}.
+     */
+    static final int INTEGER = 0;
+
+    /**
+     * The kind of {@link MyRational}.
+     */
+    static final int RATIONAL = 1;
+
+    /**
+     * The kind of {@link MyReal}.
+     */
+    static final int REAL = 2;
+
+    /**
+     * The number of kinds, i.e. the dimension of the dispatch matrix.
+     */
+    private static final int KINDS = 3;
+
+    /**
+     * The integer × integer entry of the dispatch matrix.
+     */
+    private static final int INTEGER_INTEGER = INTEGER * KINDS + INTEGER;
+
+    /**
+     * The integer × rational entry of the dispatch matrix.
+     */
+    private static final int INTEGER_RATIONAL = INTEGER * KINDS + RATIONAL;
+
+    /**
+     * The rational × integer entry of the dispatch matrix.
+     */
+    private static final int RATIONAL_INTEGER = RATIONAL * KINDS + INTEGER;
+
+    /**
+     * The rational × rational entry of the dispatch matrix.
+     */
+    private static final int RATIONAL_RATIONAL = RATIONAL * KINDS + RATIONAL;
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private Arithmetic() {
+    }
+
+    /**
+     * Returns the entry of the dispatch matrix for the given operands.
+     *
+     * @param a the left operand
+     * @param b the right operand
+     * @return the entry of the dispatch matrix
+     */
+    private static int dispatch(MyNumber a, MyNumber b) {
+        return a.kind() * KINDS + b.kind();
+    }
+
+    /**
+     * Returns the sum of the given numbers ({@code a + b}).
+     *
+     * @param a       the left operand
+     * @param b       the right operand
+     * @param context the numeric context of real results
+     * @return the sum of the given numbers
+     */
+    static MyNumber plus(MyNumber a, MyNumber b, NumericContext context) {
+        switch (dispatch(a, b)) {
+            case INTEGER_INTEGER:
+                return plus((MyInteger) a, (MyInteger) b);
+            case INTEGER_RATIONAL:
+                return rational(b.toRational().plus(a.toInteger()));
+            case RATIONAL_INTEGER:
+                return rational(a.toRational().plus(b.toInteger()));
+            case RATIONAL_RATIONAL:
+                return rational(a.toRational().plus(b.toRational()));
+            default:
+                return real(real(a, context).add(real(b, context)), context);
+        }
+    }
+
+    /**
+     * Returns the difference of the given numbers ({@code a - b}).
+     *
+     * @param a       the left operand
+     * @param b       the right operand
+     * @param context the numeric context of real results
+     * @return the difference of the given numbers
+     */
+    static MyNumber minus(MyNumber a, MyNumber b, NumericContext context) {
+        switch (dispatch(a, b)) {
+            case INTEGER_INTEGER:
+                return minus((MyInteger) a, (MyInteger) b);
+            case INTEGER_RATIONAL:
+                return rational(b.toRational().negate().plus(a.toInteger()));
+            case RATIONAL_INTEGER:
+                return rational(a.toRational().plus(b.toInteger().negate()));
+            case RATIONAL_RATIONAL:
+                return rational(a.toRational().plus(b.toRational().negate()));
+            default:
+                return real(real(a, context).subtract(real(b, context)), context);
+        }
+    }
+
+    /**
+     * Returns the product of the given numbers ({@code a * b}).
+     *
+     * @param a       the left operand
+     * @param b       the right operand
+     * @param context the numeric context of real results
+     * @return the product of the given numbers
+     */
+    static MyNumber times(MyNumber a, MyNumber b, NumericContext context) {
+        switch (dispatch(a, b)) {
+            case INTEGER_INTEGER:
+                return times((MyInteger) a, (MyInteger) b);
+            case INTEGER_RATIONAL:
+                return rational(b.toRational().times(a.toInteger()));
+            case RATIONAL_INTEGER:
+                return rational(a.toRational().times(b.toInteger()));
+            case RATIONAL_RATIONAL:
+                return rational(a.toRational().times(b.toRational()));
+            default:
+                return real(real(a, context).multiply(real(b, context)), context);
+        }
+    }
+
+    /**
+     * Returns the quotient of the given numbers ({@code a / b}).
+     *
+     * @param a       the left operand
+     * @param b       the right operand
+     * @param context the numeric context of real results
+     * @return the quotient of the given numbers
+     * @throws WrongOperandException if {@code b} is 0
+     */
+    static MyNumber divide(MyNumber a, MyNumber b, NumericContext context) {
+        if (b.isZero()) {
+            throw new WrongOperandException(b, Comparison.DIFFERENT_FROM, MyInteger.ZERO);
+        }
+        switch (dispatch(a, b)) {
+            case INTEGER_INTEGER:
+                return divide((MyInteger) a, (MyInteger) b);
+            case INTEGER_RATIONAL:
+                return rational(b.toRational().reciprocal().times(a.toInteger()));
+            case RATIONAL_INTEGER:
+                return rational(a.toRational().times(new Rational(BigInteger.ONE, b.toInteger())));
+            case RATIONAL_RATIONAL:
+                return rational(a.toRational().times(b.toRational().reciprocal()));
+            default:
+                BigDecimal quotient = real(a, context)
+                    .divide(real(b, context), context.getScale(), context.getRoundingMode());
+                return real(quotient, context);
+        }
+    }
+
+    /**
+     * Returns the sum of the given integers.
+     *
+     * @param a the left operand
+     * @param b the right operand
+     * @return the sum of the given integers
+     */
+    private static MyNumber plus(MyInteger a, MyInteger b) {
+        if (a.isSmall() && b.isSmall()) {
+            try {
+                return MyInteger.valueOf(Math.addExact(a.longValue(), b.longValue()));
+            } catch (ArithmeticException e) {
+                // Overflow, fall back to arbitrary precision
+            }
+        }
+        return MyInteger.valueOf(a.toInteger().add(b.toInteger()));
+    }
+
+    /**
+     * Returns the difference of the given integers.
+     *
+     * @param a the left operand
+     * @param b the right operand
+     * @return the difference of the given integers
+     */
+    private static MyNumber minus(MyInteger a, MyInteger b) {
+        if (a.isSmall() && b.isSmall()) {
+            try {
+                return MyInteger.valueOf(Math.subtractExact(a.longValue(), b.longValue()));
+            } catch (ArithmeticException e) {
+                // Overflow, fall back to arbitrary precision
+            }
+        }
+        return MyInteger.valueOf(a.toInteger().subtract(b.toInteger()));
+    }
+
+    /**
+     * Returns the product of the given integers.
+     *
+     * @param a the left operand
+     * @param b the right operand
+     * @return the product of the given integers
+     */
+    private static MyNumber times(MyInteger a, MyInteger b) {
+        if (a.isSmall() && b.isSmall()) {
+            try {
+                return MyInteger.valueOf(Math.multiplyExact(a.longValue(), b.longValue()));
+            } catch (ArithmeticException e) {
+                // Overflow, fall back to arbitrary precision
+            }
+        }
+        return MyInteger.valueOf(a.toInteger().multiply(b.toInteger()));
+    }
+
+    /**
+     * Returns the quotient of the given integers, which is an integer if {@code b} divides {@code
+     * a} and a rational number otherwise.
+     *
+     * @param a the left operand
+     * @param b the non-zero right operand
+     * @return the quotient of the given integers
+     */
+    private static MyNumber divide(MyInteger a, MyInteger b) {
+        if (a.isSmall() && b.isSmall() && !(a.longValue() == Long.MIN_VALUE && b.longValue() == -1)) {
+            if (a.longValue() % b.longValue() == 0) {
+                return MyInteger.valueOf(a.longValue() / b.longValue());
+            }
+        }
+        return rational(new Rational(a.toInteger(), b.toInteger()));
+    }
+
+    /**
+     * Returns the given number as a real number for the real kernels. Integers are converted
+     * exactly, rational numbers are rounded to the scale of the given context.
+     *
+     * @param x       the number to convert
+     * @param context the numeric context of real results
+     * @return the given number as a real number
+     */
+    private static BigDecimal real(MyNumber x, NumericContext context) {
+        switch (x.kind()) {
+            case INTEGER:
+                MyInteger integer = (MyInteger) x;
+                return integer.isSmall()
+                    ? BigDecimal.valueOf(integer.longValue())
+                    : new BigDecimal(integer.toInteger());
+            case RATIONAL:
+                return x.toReal(context);
+            default:
+                return x.toReal();
+        }
+    }
+
+    /**
+     * Returns the given real result as a number of the given numeric context, collapsing it to an
+     * integer if it has no fractional part and the context requests it.
+     *
+     * @param real    the real result
+     * @param context the numeric context of real results
+     * @return the real result as a number
+     */
+    static MyNumber real(BigDecimal real, NumericContext context) {
+        BigDecimal scaled = real.setScale(context.getScale(), context.getRoundingMode());
+
+        if (context.isCollapseToInteger()) {
+            BigDecimal stripped = scaled.stripTrailingZeros();
+            if (stripped.scale() <= 0) {
+                return MyInteger.valueOf(stripped.toBigIntegerExact());
+            }
+        }
+
+        return new MyReal(scaled, context);
+    }
+
+    /**
+     * Returns the given rational result as a number, collapsing it to an integer if its denominator
+     * is 1. Common values are served from the caches of {@link MyInteger} and {@link MyRational}.
+     *
+     * @param rational the rational result
+     * @return the rational result as a number
+     */
+    static MyNumber rational(Rational rational) {
+        if (rational.isInteger()) {
+            return MyInteger.valueOf(rational.getNumerator());
+        }
+        return MyRational.valueOf(rational);
+    }
+}
@@ -0,0 +1,335 @@
+package h05.math;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Arbitrary precision implementations of the transcendental functions used by {@link MyNumber}.
+ * All functions honour the precision and rounding mode of the given {@link MathContext} and use
+ * a logarithmic number of steps for the range reduction of their argument.
+ *
+ * <p>The series of the functions may need many steps for high precisions. They stop with a
+ * {@link CancellationException} as soon as the current thread is interrupted, so an evaluation
+ * which is no longer awaited does not keep running.
+ *
+ * @author Nhan Huynh
+ */
+public final class BigMath {
+
+    /**
+     * The number of additional digits used for intermediate results.
+     */
+    private static final int GUARD_DIGITS = 10;
+
+    /**
+     * log2(10), used to estimate the binary magnitude of a decimal number.
+     */
+    private static final double LOG2_10 = Math.log(10) / Math.log(2);
+
+    /**
+     * The most precise value of ln(2) computed so far.
+     */
+    private static volatile Constant ln2 = new Constant(BigInteger.ZERO, 0);
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private BigMath() {
+    }
+
+    /**
+     * Returns a math context with the given number of additional digits.
+     *
+     * @param mc     the math context to extend
+     * @param digits the number of additional digits
+     * @return the extended math context
+     */
+    private static MathContext extend(MathContext mc, int digits) {
+        return new MathContext(mc.getPrecision() + digits, mc.getRoundingMode());
+    }
+
+    /**
+     * Returns {@code true} if the given number has no fractional part.
+     *
+     * @param x the number to check
+     * @return {@code true} if the given number has no fractional part
+     */
+    public static boolean isInteger(BigDecimal x) {
+        return x.signum() == 0 || x.scale() <= 0 || x.stripTrailingZeros().scale() <= 0;
+    }
+
+    /**
+     * Returns the square root of {@code x} using Newton's iteration.
+     *
+     * @param x  the number to take the square root of
+     * @param mc the math context of the result
+     * @return the square root of {@code x}
+     * @throws ArithmeticException if {@code x} is negative
+     */
+    public static BigDecimal sqrt(BigDecimal x, MathContext mc) {
+        if (x.signum() < 0) {
+            throw new ArithmeticException("Square root of negative number");
+        }
+        return x.sqrt(mc);
+    }
+
+    /**
+     * Returns Euler's number raised to the power of {@code x}.
+     *
+     * <p>The argument is halved {@code k} times until it is small enough for the Taylor series to
+     * converge quickly, and the result is squared {@code k} times afterwards. The series is
+     * evaluated in binary fixed point arithmetic.
+     *
+     * @param x  the exponent
+     * @param mc the math context of the result
+     * @return e<sup>x</sup>
+     * @throws CancellationException if the current thread is interrupted
+     */
+    public static BigDecimal exp(BigDecimal x, MathContext mc) {
+        if (x.signum() == 0) {
+            return BigDecimal.ONE;
+        }
+        if (x.signum() < 0) {
+            BigDecimal inverse = exp(x.negate(), extend(mc, GUARD_DIGITS));
+            return BigDecimal.ONE.divide(inverse, mc);
+        }
+        // Reduce to r = x / 2^k < 2^-8, every squaring doubles the relative error
+        int k = Math.max(0, magnitude(x) + 8);
+        int bits = bits(mc) + k;
+        BigInteger one = BigInteger.ONE.shiftLeft(bits);
+        BigInteger r = toFixed(x, bits - k);
+
+        BigInteger sum = one;
+        BigInteger term = one;
+        for (int i = 1; term.signum() != 0; i++) {
+            checkInterrupted();
+            term = term.multiply(r).shiftRight(bits).divide(BigInteger.valueOf(i));
+            sum = sum.add(term);
+        }
+        for (int i = 0; i < k; i++) {
+            checkInterrupted();
+            sum = sum.multiply(sum).shiftRight(bits);
+        }
+        return fromFixed(sum, bits, mc);
+    }
+
+    /**
+     * Returns the natural logarithm of {@code x}.
+     *
+     * <p>The argument is written as {@code m * 2^k} with {@code m} close to 1, so that {@code ln(x) =
+     * k * ln(2) + ln(m)} where {@code ln(m) = 2 * atanh((m - 1) / (m + 1))} is evaluated by its
+     * rapidly converging series in binary fixed point arithmetic.
+     *
+     * @param x  the number to take the logarithm of
+     * @param mc the math context of the result
+     * @return the natural logarithm of {@code x}
+     * @throws ArithmeticException   if {@code x} is not positive
+     * @throws CancellationException if the current thread is interrupted
+     */
+    public static BigDecimal ln(BigDecimal x, MathContext mc) {
+        if (x.signum() <= 0) {
+            throw new ArithmeticException("Logarithm of non-positive number");
+        }
+        if (x.compareTo(BigDecimal.ONE) == 0) {
+            return BigDecimal.ZERO;
+        }
+        int k = magnitude(x);
+        // k * ln(2) loses log2(k) bits, results close to 0 need additional fractional bits
+        int bits = bits(mc) + 32 - Integer.numberOfLeadingZeros(Math.abs(k));
+        BigInteger one = BigInteger.ONE.shiftLeft(bits);
+        BigInteger m = toFixed(x, bits - k);
+        // The magnitude is only an estimate, move m into [0.75, 1.5)
+        BigInteger upper = one.add(one.shiftRight(1));
+        BigInteger lower = one.subtract(one.shiftRight(2));
+        while (m.compareTo(upper) >= 0) {
+            m = m.shiftRight(1);
+            k++;
+        }
+        while (m.compareTo(lower) < 0) {
+            m = m.shiftLeft(1);
+            k--;
+        }
+        BigInteger result = atanhSeries(m.subtract(one).shiftLeft(bits).divide(m.add(one)), bits);
+        if (k != 0) {
+            result = result.add(ln2(bits).multiply(BigInteger.valueOf(k)));
+        }
+        return fromFixed(result, bits, mc);
+    }
+
+    /**
+     * Returns the logarithm of {@code x} with base {@code base}.
+     *
+     * @param x    the number to take the logarithm of
+     * @param base the base of the logarithm
+     * @param mc   the math context of the result
+     * @return the logarithm of {@code x} with base {@code base}
+     * @throws ArithmeticException   if {@code x} or {@code base} is not positive or the base is 1
+     * @throws CancellationException if the current thread is interrupted
+     */
+    public static BigDecimal log(BigDecimal x, BigDecimal base, MathContext mc) {
+        MathContext work = extend(mc, GUARD_DIGITS);
+        BigDecimal denominator = ln(base, work);
+        if (denominator.signum() == 0) {
+            throw new ArithmeticException("Logarithm with base 1");
+        }
+        return ln(x, work).divide(denominator, mc);
+    }
+
+    /**
+     * Returns {@code x} raised to the power of {@code y}. Integer exponents are computed by repeated
+     * squaring, all others as {@code exp(y * ln(x))}.
+     *
+     * @param x  the base
+     * @param y  the exponent
+     * @param mc the math context of the result
+     * @return x<sup>y</sup>
+     * @throws ArithmeticException   if {@code x} is zero and {@code y} is negative or if {@code x}
+     *                               is negative and {@code y} is not an integer
+     * @throws CancellationException if the current thread is interrupted
+     */
+    public static BigDecimal pow(BigDecimal x, BigDecimal y, MathContext mc) {
+        if (y.signum() == 0) {
+            return BigDecimal.ONE;
+        }
+        if (x.signum() == 0) {
+            if (y.signum() < 0) {
+                throw new ArithmeticException("Division by zero");
+            }
+            return BigDecimal.ZERO;
+        }
+        if (isInteger(y) && y.abs().compareTo(BigDecimal.valueOf(999_999_999)) <= 0) {
+            // BigDecimal.pow squares repeatedly and handles negative exponents via the reciprocal
+            return x.pow(y.intValueExact(), mc);
+        }
+        if (x.signum() < 0) {
+            throw new ArithmeticException("Non-integer power of negative number");
+        }
+        // The absolute error of y * ln(x) becomes the relative error of the result
+        int extra = (int) Math.ceil(Math.max(0, magnitude(y)) / LOG2_10) + 3;
+        MathContext work = extend(mc, GUARD_DIGITS + extra);
+        return exp(y.multiply(ln(x, work), work), mc);
+    }
+
+    /**
+     * Throws a {@link CancellationException} if the current thread is interrupted. The interrupt
+     * status of the thread is kept.
+     *
+     * @throws CancellationException if the current thread is interrupted
+     */
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Computation interrupted");
+        }
+    }
+
+    /**
+     * Returns an estimate of the binary logarithm of the absolute value of {@code x}, exact up to
+     * one.
+     *
+     * @param x the non-zero number to estimate
+     * @return an estimate of log2(|x|)
+     */
+    private static int magnitude(BigDecimal x) {
+        return (int) Math.round(x.unscaledValue().abs().bitLength() - x.scale() * LOG2_10);
+    }
+
+    /**
+     * Returns the number of fractional bits needed to represent a result with the precision of the
+     * given math context in fixed point arithmetic, including guard digits.
+     *
+     * @param mc the math context of the result
+     * @return the number of fractional bits
+     */
+    private static int bits(MathContext mc) {
+        return (int) Math.ceil((mc.getPrecision() + GUARD_DIGITS) * LOG2_10);
+    }
+
+    /**
+     * Converts {@code x} to a binary fixed point number with the given number of fractional bits,
+     * i.e. returns {@code floor(x * 2^bits)}.
+     *
+     * @param x    the number to convert
+     * @param bits the number of fractional bits, may be negative
+     * @return the fixed point representation of {@code x}
+     */
+    private static BigInteger toFixed(BigDecimal x, int bits) {
+        BigInteger numerator = x.unscaledValue();
+        BigInteger denominator = BigInteger.ONE;
+        if (x.scale() > 0) {
+            denominator = BigInteger.TEN.pow(x.scale());
+        } else {
+            numerator = numerator.multiply(BigInteger.TEN.pow(-x.scale()));
+        }
+        if (bits >= 0) {
+            numerator = numerator.shiftLeft(bits);
+        } else {
+            denominator = denominator.shiftLeft(-bits);
+        }
+        return numerator.divide(denominator);
+    }
+
+    /**
+     * Converts a binary fixed point number with the given number of fractional bits back to a
+     * decimal number.
+     *
+     * @param x    the fixed point number
+     * @param bits the number of fractional bits
+     * @param mc   the math context of the result
+     * @return the decimal representation of {@code x}
+     */
+    private static BigDecimal fromFixed(BigInteger x, int bits, MathContext mc) {
+        return new BigDecimal(x).divide(new BigDecimal(BigInteger.ONE.shiftLeft(bits)), mc);
+    }
+
+    /**
+     * Returns {@code 2 * atanh(z) = 2 * (z + z^3/3 + z^5/5 + ...)} for a small {@code |z|} in fixed
+     * point arithmetic.
+     *
+     * @param z    the argument as a fixed point number
+     * @param bits the number of fractional bits
+     * @return 2 * atanh(z) as a fixed point number
+     */
+    private static BigInteger atanhSeries(BigInteger z, int bits) {
+        if (z.signum() < 0) {
+            // Shifting negative numbers rounds towards negative infinity, use atanh(-z) = -atanh(z)
+            return atanhSeries(z.negate(), bits).negate();
+        }
+        BigInteger zSquared = z.multiply(z).shiftRight(bits);
+        BigInteger power = z;
+        BigInteger sum = z;
+        for (int i = 3; power.signum() != 0; i += 2) {
+            checkInterrupted();
+            power = power.multiply(zSquared).shiftRight(bits);
+            sum = sum.add(power.divide(BigInteger.valueOf(i)));
+        }
+        return sum.shiftLeft(1);
+    }
+
+    /**
+     * Returns ln(2) computed as {@code 2 * atanh(1/3)} in fixed point arithmetic, cached for the
+     * highest precision requested so far.
+     *
+     * @param bits the number of fractional bits
+     * @return ln(2) as a fixed point number
+     */
+    private static BigInteger ln2(int bits) {
+        Constant cached = ln2;
+        if (cached.bits() < bits) {
+            BigInteger third = BigInteger.ONE.shiftLeft(bits).divide(BigInteger.valueOf(3));
+            cached = new Constant(atanhSeries(third, bits), bits);
+            ln2 = cached;
+        }
+        return cached.value().shiftRight(cached.bits() - bits);
+    }
+
+    /**
+     * A cached mathematical constant in fixed point arithmetic.
+     *
+     * @param value the value of the constant as a fixed point number
+     * @param bits  the number of fractional bits of the value
+     */
+    private record Constant(BigInteger value, int bits) {
+    }
+}
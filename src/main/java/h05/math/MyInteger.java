@@ -6,7 +6,6 @@ import org.jetbrains.annotations.Nullable;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.util.Comparator;
 import java.util.Objects;
 
 /**
@@ -16,20 +15,47 @@ import java.util.Objects;
  */
 public final class MyInteger extends MyNumber {
 
+    /**
+     * The smallest integer held by the {@link #CACHE}.
+     */
+    private static final int CACHE_LOW = -128;
+
+    /**
+     * The largest integer held by the {@link #CACHE}.
+     */
+    private static final int CACHE_HIGH = 1024;
+
+    /**
+     * The preallocated integers from {@link #CACHE_LOW} to {@link #CACHE_HIGH}.
+     */
+    private static final MyInteger[] CACHE = new MyInteger[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new MyInteger(CACHE_LOW + i);
+        }
+    }
+
     /**
      * The constant {@link MyNumber} 0 as a {@link MyInteger}.
      */
-    public static final MyNumber ZERO = new MyInteger(BigInteger.ZERO);
+    public static final MyNumber ZERO = valueOf(0);
 
     /**
      * The constant {@link MyNumber} 1 as a {@link MyInteger}.
      */
-    public static final MyNumber ONE = new MyInteger(BigInteger.ONE);
+    public static final MyNumber ONE = valueOf(1);
 
     /**
-     * The value of the integer.
+     * The value of the integer if it fits into a {@code long}. Only valid if {@link #big} is
+     * {@code null}.
      */
-    private final BigInteger value;
+    private final long small;
+
+    /**
+     * The value of the integer if it does not fit into a {@code long}, otherwise {@code null}.
+     */
+    private final @Nullable BigInteger big;
 
     /**
      * Constructs and initializes an integer with the specified value.
@@ -38,206 +64,167 @@ public final class MyInteger extends MyNumber {
      * @throws NullPointerException if the value is null
      */
     public MyInteger(BigInteger value) {
-        this.value = Objects.requireNonNull(value, "value null");
+        Objects.requireNonNull(value, "value null");
+        if (value.bitLength() < Long.SIZE) {
+            this.small = value.longValue();
+            this.big = null;
+        } else {
+            this.small = 0;
+            this.big = value;
+        }
     }
 
-    @Override
-    public BigInteger toInteger() {
-        return value;
+    /**
+     * Constructs and initializes an integer with the specified value.
+     *
+     * @param value the value of the integer
+     */
+    public MyInteger(long value) {
+        this.small = value;
+        this.big = null;
     }
 
-    @Override
-    public Rational toRational() {
-        return new Rational(value,BigInteger.ONE);
+    /**
+     * Returns an integer with the specified value. Small values are served from a preallocated
+     * cache instead of creating a new instance.
+     *
+     * @param value the value of the integer
+     * @return the integer with the specified value
+     */
+    public static MyInteger valueOf(long value) {
+        if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+            return CACHE[(int) value - CACHE_LOW];
+        }
+        return new MyInteger(value);
     }
 
-    @Override
-    public BigDecimal toReal() {
-        BigDecimal newValue = new BigDecimal(value);
-        BigDecimal a = BigDecimal.valueOf((long)Math.pow(10,MyReal.SCALE));
-        BigDecimal aStrich = BigDecimal.valueOf((long)Math.pow(10,MyReal.SCALE));
-        BigDecimal b = newValue.multiply(aStrich);
-        return b.divide(a,MyReal.SCALE,MyReal.ROUNDING_MODE);
+    /**
+     * Returns an integer with the specified value. Small values are served from a preallocated
+     * cache instead of creating a new instance.
+     *
+     * @param value the value of the integer
+     * @return the integer with the specified value
+     * @throws NullPointerException if the value is null
+     */
+    public static MyInteger valueOf(BigInteger value) {
+        if (value.bitLength() < Long.SIZE) {
+            return valueOf(value.longValue());
+        }
+        return new MyInteger(value);
     }
 
-    @Override
-    public boolean isZero() {
-        return this.equals(ZERO);
+    /**
+     * Returns {@code true} if the value of this integer is stored as a {@code long}.
+     *
+     * @return {@code true} if the value of this integer is stored as a {@code long}
+     */
+    boolean isSmall() {
+        return big == null;
     }
 
-    @Override
-    public int hashCode() {
-        return Objects.hash(value);
+    /**
+     * Returns the value of this integer as a {@code long}. Only valid if {@link #isSmall()}.
+     *
+     * @return the value of this integer as a {@code long}
+     */
+    long longValue() {
+        return small;
     }
 
     @Override
-    public boolean equals(@Nullable Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (!(o instanceof MyInteger number)) {
-            return false;
-        }
-        return value.equals(number.value);
+    int kind() {
+        return Arithmetic.INTEGER;
     }
 
     @Override
-    public MyNumber negate() {
-        return new MyInteger(value.negate());
+    public BigInteger toInteger() {
+        return big == null ? BigInteger.valueOf(small) : big;
     }
 
     @Override
-    public MyNumber plus(MyNumber other) {
-        if (other instanceof MyInteger) {
-            return new MyInteger(value.add((other.toInteger())));
-        }
-        if (other instanceof MyReal) {
-            return checkRealToInt(toReal().add(other.toReal()));
-        }
-        return checkRationalToInt(other.toRational().plus(value));
+    public Rational toRational() {
+        return new Rational(toInteger(), BigInteger.ONE);
     }
 
     @Override
-    public MyNumber minus() {
-        return new MyInteger(value.negate());
+    public BigDecimal toReal() {
+        return toReal(NumericContext.DEFAULT);
     }
 
     @Override
-    public MyNumber minus(MyNumber other) {
-        if (other instanceof MyInteger) {
-            return new MyInteger(value.add((other.toInteger().negate())));
-        }
-        if (other instanceof MyReal) {
-            return checkRealToInt(toReal().add(other.toReal().negate()));
-        }
-        return checkRationalToInt(other.toRational().negate().plus(value));
+    public BigDecimal toReal(NumericContext context) {
+        return new BigDecimal(toInteger()).setScale(context.getScale());
     }
 
     @Override
-    public MyNumber times(MyNumber other) {
-        if (other instanceof MyInteger) {
-            return new MyInteger(value.multiply(other.toInteger()));
-        }
-        if (other instanceof MyReal) {
-            return checkRealToInt(toReal().multiply(other.toReal()));
-        }
-        return checkRationalToInt(other.toRational().times(value));
+    public boolean isZero() {
+        return big == null && small == 0;
     }
 
     @Override
-    public MyNumber divide() {
-        return new MyRational(new Rational(BigInteger.ONE,value));
+    public int hashCode() {
+        // Both representations are canonical (a value fitting into a long is never stored as a
+        // BigInteger), so hashing the active one is consistent with equals
+        return big == null ? Long.hashCode(small) : big.hashCode();
     }
 
     @Override
-    public MyNumber divide(MyNumber other) {
-        if(other.isZero())
-            throw new WrongOperandException(other, Comparison.DIFFERENT_FROM,new MyInteger(BigInteger.ZERO));
-        if (other instanceof MyInteger) {
-            return new MyInteger(value.divide(other.toInteger()));
+    public boolean equals(@Nullable Object o) {
+        if (this == o) {
+            return true;
         }
-        if (other instanceof MyReal) {
-            return checkRealToInt(toReal().divide(other.toReal(),MyReal.SCALE,MyReal.ROUNDING_MODE));
+        if (!(o instanceof MyInteger number)) {
+            return false;
         }
-        return checkRationalToInt(other.toRational().times(BigInteger.ONE.divide(value)));
-    }
-
-    @Override
-    public MyNumber sqrt() {
-
-        Comparator<BigDecimal> bd = Comparator.naturalOrder();
-        int counter2 = 0;
-        BigDecimal val = new BigDecimal(this.value);
-        while( (bd.compare(val, BigDecimal.TEN) > 0 ) || (bd.compare(val, BigDecimal.ZERO) < 0 )){
-            if(bd.compare(val, BigDecimal.TEN) > 0 ){
-                val = val.divide(BigDecimal.TEN,MyReal.SCALE,MyReal.ROUNDING_MODE);
-                counter2++;
-            }
-            if(bd.compare(val, BigDecimal.ZERO) < 0 ){
-                val = val.multiply(BigDecimal.TEN);
-                counter2--;
-            }
+        if (big == null) {
+            return number.big == null && small == number.small;
         }
-        double res = Math.round(Math.pow(val.doubleValue(),0.5) *Math.pow(10,counter2*0.5));
-        return checkRealToInt(new BigDecimal(res));
+        return big.equals(number.big);
     }
 
     @Override
-    public MyNumber expt(MyNumber n) {
-
-        BigDecimal newN = n.toReal();
-        Comparator<BigDecimal> bd = Comparator.naturalOrder();
-        int counter2 = 0;
-        BigDecimal val = new BigDecimal(this.value);
-        while( (bd.compare(val, BigDecimal.TEN) > 0 ) || (bd.compare(val, BigDecimal.ZERO) < 0 )){
-            if(bd.compare(val, BigDecimal.TEN) > 0 ){
-                val = val.divide(BigDecimal.TEN,MyReal.SCALE,MyReal.ROUNDING_MODE);
-                counter2++;
-            }
-            if(bd.compare(val, BigDecimal.ZERO) < 0 ){
-                val = val.multiply(BigDecimal.TEN);
-                counter2--;
+    public MyNumber negate() {
+        if (big == null) {
+            try {
+                return valueOf(Math.negateExact(small));
+            } catch (ArithmeticException e) {
+                // Overflow, fall back to arbitrary precision
             }
         }
-        double res = Math.round(Math.pow(val.doubleValue(),newN.doubleValue()) *Math.pow(10,counter2*newN.doubleValue()));
-        return checkRealToInt(new BigDecimal(res));
+        return valueOf(toInteger().negate());
     }
 
     @Override
-    public MyNumber exp() {
-        BigDecimal val = new BigDecimal(this.value);
-        double res = Math.pow(Math.E,val.doubleValue());
-        return checkRealToInt(new BigDecimal(res));
+    public MyNumber minus() {
+        return negate();
     }
 
     @Override
-    public MyNumber ln() {
-        BigDecimal val = new BigDecimal(this.value);
-        double a = Math.log10(val.doubleValue()) ;
-        double b = Math.log10(Math.E);
-        double res = a/b;
-        return checkRealToInt(new BigDecimal(res));
+    public MyNumber divide(NumericContext context) {
+        if (isZero()) {
+            throw new WrongOperandException(this, Comparison.DIFFERENT_FROM, ZERO);
+        }
+        return checkRationalToInt(new Rational(BigInteger.ONE, toInteger()));
     }
 
     @Override
-    public MyNumber log(MyNumber base) {
-        BigDecimal newBase = base.toReal();
-        Comparator<BigDecimal> bd = Comparator.naturalOrder();
-        int counter = 0;
-
-        while( (bd.compare(newBase, BigDecimal.TEN) > 0 ) || (bd.compare(newBase, BigDecimal.ZERO) < 0 )){
-            if(bd.compare(newBase, BigDecimal.TEN) > 0 ){
-                newBase = newBase.divide(BigDecimal.TEN,MyReal.SCALE,MyReal.ROUNDING_MODE);
-                counter++;
-            }
-            if(bd.compare(newBase, BigDecimal.ZERO) < 0 ){
-                newBase = newBase.multiply(BigDecimal.TEN);
-                counter--;
+    public MyNumber expt(MyNumber n, NumericContext context) {
+        // Non-negative integer powers of integers are exact
+        if (n instanceof MyInteger) {
+            BigInteger exponent = n.toInteger();
+            if (exponent.signum() >= 0 && exponent.bitLength() < Integer.SIZE) {
+                BigInteger base = toInteger();
+                if (base.abs().compareTo(BigInteger.ONE) > 0) {
+                    checkPower(new BigDecimal(base), n, new BigDecimal(exponent), context);
+                }
+                return valueOf(base.pow(exponent.intValue()));
             }
         }
-        int counter2 = 0;
-        BigDecimal val = new BigDecimal(this.value);
-        while( (bd.compare(val, BigDecimal.TEN) > 0 ) || (bd.compare(val, BigDecimal.ZERO) < 0 )){
-            if(bd.compare(val, BigDecimal.TEN) > 0 ){
-                val = val.divide(BigDecimal.TEN,MyReal.SCALE,MyReal.ROUNDING_MODE);
-                counter2++;
-            }
-            if(bd.compare(val, BigDecimal.ZERO) < 0 ){
-                val = val.multiply(BigDecimal.TEN);
-                counter2--;
-            }
-        }
-        double a = Math.log10(val.doubleValue()) ;
-        a +=  counter2;
-        double b = Math.log10(newBase.doubleValue());
-        b += counter;
-        double res = a/b;
-        return checkRealToInt(new BigDecimal(res));
-
+        return super.expt(n, context);
     }
 
     @Override
     public String toString() {
-        return value.toString();
+        return big == null ? Long.toString(small) : big.toString();
     }
 }
@@ -1,10 +1,12 @@
 package h05.math;
 
+import h05.exception.Comparison;
 import h05.exception.WrongOperandException;
 import org.jetbrains.annotations.Nullable;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.math.MathContext;
 
 /**
  * The abstract class Number represents the numbers of the programming language Racket in a very
@@ -16,6 +18,21 @@ import java.math.BigInteger;
  */
 public abstract class MyNumber {
 
+    /**
+     * The largest exponent accepted by {@link #exp(NumericContext)}.
+     */
+    private static final BigDecimal MAX_EXPONENT = BigDecimal.valueOf(10_000);
+
+    /**
+     * The precision of the estimated magnitude of a power.
+     */
+    private static final MathContext ESTIMATE = new MathContext(16);
+
+    /**
+     * The natural logarithm of 10 with the precision of the estimated magnitude of a power.
+     */
+    private static final BigDecimal LN_10 = BigMath.ln(BigDecimal.TEN, ESTIMATE);
+
     /**
      * Returns the representation of this number as an integer.
      *
@@ -37,6 +54,36 @@ public abstract class MyNumber {
      */
     public abstract BigDecimal toReal();
 
+    /**
+     * Returns the representation of this number as a real number rounded according to the given
+     * math context.
+     *
+     * @param mathContext the math context to use
+     * @return the representation of this number as a real number
+     */
+    public BigDecimal toReal(MathContext mathContext) {
+        return toReal().round(mathContext);
+    }
+
+    /**
+     * Returns the representation of this number as a real number with the scale and rounding mode
+     * of the given numeric context.
+     *
+     * @param context the numeric context to use
+     * @return the representation of this number as a real number
+     */
+    public BigDecimal toReal(NumericContext context) {
+        return toReal().setScale(context.getScale(), context.getRoundingMode());
+    }
+
+    /**
+     * Returns the kind of this number, which is its index in the dispatch matrix of {@link
+     * Arithmetic}.
+     *
+     * @return the kind of this number
+     */
+    abstract int kind();
+
     /**
      * Returns {@code true} if this number is zero.
      *
@@ -105,7 +152,21 @@ public abstract class MyNumber {
      * @param other the number to add
      * @return the sum of this number and the given number
      */
-    public abstract MyNumber plus(MyNumber other);
+    public MyNumber plus(MyNumber other) {
+        return plus(other, NumericContext.DEFAULT);
+    }
+
+    /**
+     * Returns the sum of this number and the given number ({@code this + other}) with real results
+     * rounded according to the given numeric context.
+     *
+     * @param other   the number to add
+     * @param context the numeric context of real results
+     * @return the sum of this number and the given number
+     */
+    public MyNumber plus(MyNumber other, NumericContext context) {
+        return Arithmetic.plus(this, other, context);
+    }
 
     /**
      * Returns the difference of this number and the neutral element 0 {@code 0 - this}.
@@ -128,7 +189,21 @@ public abstract class MyNumber {
      * @param other the number to subtract
      * @return the difference of this number and the given number
      */
-    public abstract MyNumber minus(MyNumber other);
+    public MyNumber minus(MyNumber other) {
+        return minus(other, NumericContext.DEFAULT);
+    }
+
+    /**
+     * Returns the difference of this number and the given number ({@code this - other}) with real
+     * results rounded according to the given numeric context.
+     *
+     * @param other   the number to subtract
+     * @param context the numeric context of real results
+     * @return the difference of this number and the given number
+     */
+    public MyNumber minus(MyNumber other, NumericContext context) {
+        return Arithmetic.minus(this, other, context);
+    }
 
     /**
      * Returns the product of this number and the neutral element 1 {@code 1 * this}.
@@ -153,7 +228,21 @@ public abstract class MyNumber {
      * @param other the number to multiply
      * @return the product of this number and the given number
      */
-    public abstract MyNumber times(MyNumber other);
+    public MyNumber times(MyNumber other) {
+        return times(other, NumericContext.DEFAULT);
+    }
+
+    /**
+     * Returns the product of this number and the given number ({@code this * other}) with real
+     * results rounded according to the given numeric context.
+     *
+     * @param other   the number to multiply
+     * @param context the numeric context of real results
+     * @return the product of this number and the given number
+     */
+    public MyNumber times(MyNumber other, NumericContext context) {
+        return Arithmetic.times(this, other, context);
+    }
 
     /**
      * Returns the quotient of this number and the neutral element 1 ({@code 1 / this}).
@@ -167,7 +256,19 @@ public abstract class MyNumber {
      * @return the quotient of this number and the neutral element 1
      * @throws WrongOperandException if the number is 0
      */
-    public abstract MyNumber divide();
+    public MyNumber divide() {
+        return divide(NumericContext.DEFAULT);
+    }
+
+    /**
+     * Returns the quotient of this number and the neutral element 1 ({@code 1 / this}) with real
+     * results rounded according to the given numeric context.
+     *
+     * @param context the numeric context of real results
+     * @return the quotient of this number and the neutral element 1
+     * @throws WrongOperandException if the number is 0
+     */
+    public abstract MyNumber divide(NumericContext context);
 
     /**
      * Returns the quotient of this number and the given number ({@code this / other}).
@@ -184,14 +285,48 @@ public abstract class MyNumber {
      * @return the quotient of this number and the given number
      * @throws WrongOperandException if the given number is 0
      */
-    public abstract MyNumber divide(MyNumber other);
+    public MyNumber divide(MyNumber other) {
+        return divide(other, NumericContext.DEFAULT);
+    }
+
+    /**
+     * Returns the quotient of this number and the given number ({@code this / other}) with real
+     * results rounded according to the given numeric context.
+     *
+     * @param other   the number to divide
+     * @param context the numeric context of real results
+     * @return the quotient of this number and the given number
+     * @throws WrongOperandException if the given number is 0
+     */
+    public MyNumber divide(MyNumber other, NumericContext context) {
+        return Arithmetic.divide(this, other, context);
+    }
 
     /**
      * Returns the square root of this number. The result will always be real or an integer.
      *
      * @return the square root of this number
+     * @throws WrongOperandException if this number is negative
+     */
+    public MyNumber sqrt() {
+        return sqrt(NumericContext.DEFAULT);
+    }
+
+    /**
+     * Returns the square root of this number with real results rounded according to the given
+     * numeric context.
+     *
+     * @param context the numeric context of real results
+     * @return the square root of this number
+     * @throws WrongOperandException if this number is negative
      */
-    public abstract MyNumber sqrt();
+    public MyNumber sqrt(NumericContext context) {
+        BigDecimal value = toReal(context.getMathContext());
+        if (value.signum() < 0) {
+            throw new WrongOperandException(this, Comparison.GREATER_THAN, MyInteger.ZERO);
+        }
+        return checkRealToInt(BigMath.sqrt(value, context.getMathContext()), context);
+    }
 
     /**
      * Returns {@code this} number raised to the power of {@code n} (x^n). The result will always be
@@ -199,17 +334,107 @@ public abstract class MyNumber {
      *
      * @param n the exponent
      * @return {@code this} number raised to the power of {@code n}
+     * @throws WrongOperandException if this number is 0 and the exponent is negative or this number
+     *                               is negative and the exponent is not an integer
+     */
+    public MyNumber expt(MyNumber n) {
+        return expt(n, NumericContext.DEFAULT);
+    }
+
+    /**
+     * Returns {@code this} number raised to the power of {@code n} (x^n) with real results rounded
+     * according to the given numeric context.
+     *
+     * @param n       the exponent
+     * @param context the numeric context of real results
+     * @return {@code this} number raised to the power of {@code n}
+     * @throws WrongOperandException if this number is 0 and the exponent is negative, this number
+     *                               is negative and the exponent is not an integer or the result
+     *                               has more digits before the decimal point than the numeric
+     *                               context allows
+     */
+    public MyNumber expt(MyNumber n, NumericContext context) {
+        BigDecimal base = toReal(context.getMathContext());
+        BigDecimal exponent = n.toReal(context.getMathContext());
+        if (base.signum() == 0 && exponent.signum() < 0) {
+            throw new WrongOperandException(this, Comparison.DIFFERENT_FROM, MyInteger.ZERO);
+        }
+        if (base.signum() < 0 && !BigMath.isInteger(exponent)) {
+            throw new WrongOperandException(this, Comparison.GREATER_THAN, MyInteger.ZERO);
+        }
+        if (base.signum() != 0 && exponent.signum() != 0) {
+            BigDecimal digits = checkPower(base, n, exponent, context);
+            if (digits.compareTo(BigDecimal.valueOf(-(context.getScale() + 3L))) < 0) {
+                // Far below the scale, any number below 10^-(scale + 1) is rounded the same way
+                BigDecimal tiny = BigDecimal.ONE.movePointLeft(context.getScale() + 2);
+                boolean negative = base.signum() < 0
+                    && exponent.toBigInteger().testBit(0);
+                return checkRealToInt(negative ? tiny.negate() : tiny, context);
+            }
+        }
+        return checkRealToInt(BigMath.pow(base, exponent, context.getMathContext()), context);
+    }
+
+    /**
+     * Checks that a power does not have more digits before the decimal point than the numeric
+     * context allows, before the power is computed. The magnitude is estimated as
+     * {@code y * ln(|x|) / ln(10)} with a few significant digits.
+     *
+     * @param x       the non-zero base
+     * @param n       the exponent as a number, reported if the power is too large
+     * @param y       the non-zero exponent
+     * @param context the numeric context of the power
+     * @return the estimated decimal logarithm of the absolute value of the power
+     * @throws WrongOperandException if the power has more digits before the decimal point than the
+     *                               numeric context allows
      */
-    public abstract MyNumber expt(MyNumber n);
+    static BigDecimal checkPower(BigDecimal x, MyNumber n, BigDecimal y, NumericContext context) {
+        BigDecimal abs = x.abs();
+        BigDecimal distance = abs.subtract(BigDecimal.ONE);
+        // The logarithm is computed with an absolute error, so bases close to 1 need more digits
+        int zeros = Math.max(0, distance.scale() - distance.precision());
+        BigDecimal ln = BigMath.ln(abs, new MathContext(ESTIMATE.getPrecision() + zeros));
+        BigDecimal digits = y.multiply(ln, ESTIMATE).divide(LN_10, ESTIMATE);
+        BigDecimal maxDigits = BigDecimal.valueOf(context.getMaxDigits());
+        if (digits.compareTo(maxDigits) > 0) {
+            // The largest exponent in the direction of the given one which is allowed
+            BigInteger bound = maxDigits.multiply(LN_10).divide(ln, ESTIMATE).toBigInteger();
+            Comparison cmp = y.signum() > 0 ? Comparison.LESS_THAN : Comparison.GREATER_THAN;
+            throw new WrongOperandException(n, cmp, MyInteger.valueOf(bound));
+        }
+        return digits;
+    }
 
     /**
      * Returns Euler’s number raised to the power of {@code this} number (exp(x)). The result will
      * always be real or an integer.
      *
      * @return Euler’s number raised to the power of {@code this}
-     * @throws WrongOperandException if this number is not positive or the large
+     * @throws WrongOperandException if this number is larger than {@link #MAX_EXPONENT}
+     */
+    public MyNumber exp() {
+        return exp(NumericContext.DEFAULT);
+    }
+
+    /**
+     * Returns Euler’s number raised to the power of {@code this} number (exp(x)) with real results
+     * rounded according to the given numeric context.
+     *
+     * @param context the numeric context of real results
+     * @return Euler’s number raised to the power of {@code this}
+     * @throws WrongOperandException if this number is larger than {@link #MAX_EXPONENT}
      */
-    public abstract MyNumber exp();
+    public MyNumber exp(NumericContext context) {
+        BigDecimal value = toReal(context.getMathContext());
+        if (value.compareTo(MAX_EXPONENT) > 0) {
+            throw new WrongOperandException(this, Comparison.LESS_THAN, new MyInteger(MAX_EXPONENT.toBigInteger()));
+        }
+        if (value.compareTo(MAX_EXPONENT.negate()) < 0) {
+            // Far below the scale of any real number
+            return MyInteger.ZERO;
+        }
+        return checkRealToInt(BigMath.exp(value, context.getMathContext()), context);
+    }
 
     /**
      * Returns the natural logarithm of this number (ln(x)). The result will always be real or an
@@ -218,7 +443,25 @@ public abstract class MyNumber {
      * @return the natural logarithm of this number
      * @throws WrongOperandException if this number is not positive
      */
-    public abstract MyNumber ln();
+    public MyNumber ln() {
+        return ln(NumericContext.DEFAULT);
+    }
+
+    /**
+     * Returns the natural logarithm of this number (ln(x)) with real results rounded according to
+     * the given numeric context.
+     *
+     * @param context the numeric context of real results
+     * @return the natural logarithm of this number
+     * @throws WrongOperandException if this number is not positive
+     */
+    public MyNumber ln(NumericContext context) {
+        BigDecimal value = toReal(context.getMathContext());
+        if (value.signum() <= 0) {
+            throw new WrongOperandException(this, Comparison.GREATER_THAN, MyInteger.ZERO);
+        }
+        return checkRealToInt(BigMath.ln(value, context.getMathContext()), context);
+    }
 
     /**
      * Returns the logarithm of this number with base {@code base} (log_x(y)). The result will
@@ -226,27 +469,46 @@ public abstract class MyNumber {
      *
      * @param base the base of the logarithm
      * @return the logarithm of this number with base {@code base}
-     * @throws WrongOperandException if this number is not positive or the base is not positive
+     * @throws WrongOperandException if this number is not positive or the base is not positive or 1
      */
-    public abstract MyNumber log(MyNumber base);
+    public MyNumber log(MyNumber base) {
+        return log(base, NumericContext.DEFAULT);
+    }
 
     /**
-     * Checks if the given real number can be represented as an integer.
+     * Returns the logarithm of this number with base {@code base} (log_x(y)) with real results
+     * rounded according to the given numeric context.
      *
-     * @param real the real number to check
-     * @return an integer if the real number can be represented as an integer, otherwise the real
-     * number
+     * @param base    the base of the logarithm
+     * @param context the numeric context of real results
+     * @return the logarithm of this number with base {@code base}
+     * @throws WrongOperandException if this number is not positive or the base is not positive or 1
      */
-    protected MyNumber checkRealToInt(BigDecimal real) {
-        BigDecimal stripped = real
-            .setScale(MyReal.SCALE, MyReal.ROUNDING_MODE)
-            .stripTrailingZeros();
-
-        if (stripped.scale() <= 0) {
-            return new MyInteger(stripped.toBigIntegerExact());
+    public MyNumber log(MyNumber base, NumericContext context) {
+        BigDecimal value = toReal(context.getMathContext());
+        BigDecimal baseValue = base.toReal(context.getMathContext());
+        if (value.signum() <= 0) {
+            throw new WrongOperandException(this, Comparison.GREATER_THAN, MyInteger.ZERO);
+        }
+        if (baseValue.signum() <= 0) {
+            throw new WrongOperandException(base, Comparison.GREATER_THAN, MyInteger.ZERO);
         }
+        if (baseValue.compareTo(BigDecimal.ONE) == 0) {
+            throw new WrongOperandException(base, Comparison.DIFFERENT_FROM, MyInteger.ONE);
+        }
+        return checkRealToInt(BigMath.log(value, baseValue, context.getMathContext()), context);
+    }
 
-        return new MyReal(real);
+    /**
+     * Checks if the given real number can be represented as an integer.
+     *
+     * @param real    the real number to check
+     * @param context the numeric context of the real number
+     * @return an integer if the real number can be represented as an integer and the context
+     * collapses reals to integers, otherwise the real number
+     */
+    protected MyNumber checkRealToInt(BigDecimal real, NumericContext context) {
+        return Arithmetic.real(real, context);
     }
 
     /**
@@ -257,9 +519,6 @@ public abstract class MyNumber {
      * rational number
      */
     protected MyNumber checkRationalToInt(Rational rational) {
-        if (rational.getDenominator().equals(BigInteger.ONE)) {
-            return new MyInteger(rational.getNumerator());
-        }
-        return new MyRational(rational);
+        return Arithmetic.rational(rational);
     }
 }
@@ -1,13 +1,12 @@
 package h05.math;
 
 import h05.exception.Comparison;
-import h05.exception.WrongNumberOfOperandsException;
 import h05.exception.WrongOperandException;
 import org.jetbrains.annotations.Nullable;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.util.Comparator;
+import java.math.MathContext;
 import java.util.Objects;
 
 /**
@@ -17,6 +16,41 @@ import java.util.Objects;
  */
 public final class MyRational extends MyNumber {
 
+    /**
+     * The largest absolute numerator of the fractions held by the {@link #CACHE}.
+     */
+    private static final int CACHE_NUMERATOR = 16;
+
+    /**
+     * The largest denominator of the fractions held by the {@link #CACHE}.
+     */
+    private static final int CACHE_DENOMINATOR = 12;
+
+    /**
+     * The multiple of the cache bounds up to which an unreduced fraction is reduced to look it up
+     * in the {@link #CACHE}. Larger fractions are wrapped as they are and stay unreduced.
+     */
+    private static final int CACHE_LOOKUP_FACTOR = 8;
+
+    /**
+     * The preallocated fractions in lowest terms with an absolute numerator of at most
+     * {@link #CACHE_NUMERATOR} and a denominator from 2 to {@link #CACHE_DENOMINATOR}. The fraction
+     * {@code p/q} is stored at {@link #cacheIndex(long, long) cacheIndex(p, q)}, the slots of
+     * fractions which are not in lowest terms are {@code null}.
+     */
+    private static final MyRational[] CACHE =
+        new MyRational[(CACHE_DENOMINATOR - 1) * (2 * CACHE_NUMERATOR + 1)];
+
+    static {
+        for (int q = 2; q <= CACHE_DENOMINATOR; q++) {
+            for (int p = -CACHE_NUMERATOR; p <= CACHE_NUMERATOR; p++) {
+                if (BigInteger.valueOf(p).gcd(BigInteger.valueOf(q)).intValue() == 1) {
+                    CACHE[cacheIndex(p, q)] = new MyRational(Rational.valueOf(p, q).reduce());
+                }
+            }
+        }
+    }
+
     /**
      * The {@link MyNumber} 0 as a {@link MyRational}.
      */
@@ -42,6 +76,63 @@ public final class MyRational extends MyNumber {
         this.value = Objects.requireNonNull(value, "value null");
     }
 
+    /**
+     * Returns the index of the fraction {@code p/q} in the {@link #CACHE}.
+     *
+     * @param p the numerator of the fraction
+     * @param q the denominator of the fraction
+     * @return the index of the fraction in the cache
+     */
+    private static int cacheIndex(long p, long q) {
+        return (int) ((q - 2) * (2 * CACHE_NUMERATOR + 1) + p + CACHE_NUMERATOR);
+    }
+
+    /**
+     * Returns a rational number with the specified value. Common fractions are served from a
+     * preallocated cache instead of creating a new instance, fractions too large for the cache are
+     * wrapped without reducing them.
+     *
+     * @param value the value of the rational number
+     * @return the rational number with the specified value
+     * @throws NullPointerException if the value is null
+     */
+    public static MyRational valueOf(Rational value) {
+        // Only reduce fractions that may end up in the cache, a GCD per operation is not worth it
+        if (value.isSmall()) {
+            long p = value.smallNumerator();
+            long q = value.smallDenominator();
+            long bound = (long) CACHE_LOOKUP_FACTOR * CACHE_NUMERATOR;
+            if (q <= CACHE_LOOKUP_FACTOR * CACHE_DENOMINATOR && p >= -bound && p <= bound) {
+                Rational reduced = value.reduce();
+                p = reduced.smallNumerator();
+                q = reduced.smallDenominator();
+                if (q >= 2 && q <= CACHE_DENOMINATOR && Math.abs(p) <= CACHE_NUMERATOR) {
+                    return CACHE[cacheIndex(p, q)];
+                }
+                return new MyRational(reduced);
+            }
+        }
+        return new MyRational(value);
+    }
+
+    /**
+     * Returns a rational number with the specified numerator and denominator. Common fractions are
+     * served from a preallocated cache instead of creating a new instance.
+     *
+     * @param numerator   the numerator of the rational number
+     * @param denominator the denominator of the rational number
+     * @return the rational number with the specified value
+     * @throws ArithmeticException if the denominator is zero
+     */
+    public static MyRational valueOf(long numerator, long denominator) {
+        return valueOf(Rational.valueOf(numerator, denominator));
+    }
+
+    @Override
+    int kind() {
+        return Arithmetic.RATIONAL;
+    }
+
     @Override
     public BigInteger toInteger() {
         return value.getNumerator().divide(value.getDenominator());
@@ -61,9 +152,20 @@ public final class MyRational extends MyNumber {
         return num.divide(dem,MyReal.SCALE,MyReal.ROUNDING_MODE);
     }
 
+    @Override
+    public BigDecimal toReal(NumericContext context) {
+        BigDecimal numerator = new BigDecimal(value.getNumerator());
+        return numerator.divide(new BigDecimal(value.getDenominator()), context.getScale(), context.getRoundingMode());
+    }
+
+    @Override
+    public BigDecimal toReal(MathContext mathContext) {
+        return new BigDecimal(value.getNumerator()).divide(new BigDecimal(value.getDenominator()), mathContext);
+    }
+
     @Override
     public boolean isZero() {
-        return this.equals(ZERO);
+        return value.signum() == 0;
     }
 
     @Override
@@ -84,155 +186,20 @@ public final class MyRational extends MyNumber {
 
     @Override
     public MyNumber negate() {
-        return new MyRational(value.negate());
-    }
-
-    @Override
-    public MyNumber plus(MyNumber other) {
-        if (other instanceof MyInteger) {
-            return checkRationalToInt(value.plus(other.toInteger()));
-        }
-        if (other instanceof MyReal) {
-            return checkRealToInt(toReal().add(other.toReal()));
-        }
-        return checkRationalToInt(value.plus(other.toRational()));
+        return valueOf(value.negate());
     }
 
     @Override
     public MyNumber minus() {
-       return new MyRational(value.negate());
-    }
-
-    @Override
-    public MyNumber minus(MyNumber other) {
-        if (other instanceof MyInteger) {
-            return checkRationalToInt(value.plus(other.toInteger().negate()));
-        }
-        if (other instanceof MyReal) {
-            return checkRealToInt(toReal().add(other.toReal().negate()));
-        }
-        return checkRationalToInt(value.plus(other.toRational().negate()));
+       return valueOf(value.negate());
     }
 
     @Override
-    public MyNumber times(MyNumber other) {
-        if (other instanceof MyReal) {
-            return checkRealToInt(toReal().multiply(other.toReal()));
+    public MyNumber divide(NumericContext context) {
+        if (isZero()) {
+            throw new WrongOperandException(this, Comparison.DIFFERENT_FROM, MyInteger.ZERO);
         }
-        return checkRationalToInt(value.times(other.toRational()));
-    }
-
-    @Override
-    public MyNumber divide() {
-        return new MyRational(Rational.ONE.times(new Rational(value.getDenominator(),value.getNumerator())));
-    }
-
-    @Override
-    public MyNumber divide(MyNumber other) {
-        if(other.isZero())
-            throw new WrongOperandException(other, Comparison.DIFFERENT_FROM,new MyInteger(BigInteger.ZERO));
-        if (other instanceof MyReal) {
-            return checkRealToInt(toReal().multiply( BigDecimal.ONE.divide(other.toReal(),MyReal.SCALE,MyReal.ROUNDING_MODE)));
-        }
-        Rational r = other.toRational();
-        Rational temp = new Rational(r.getDenominator(),r.getNumerator());
-        return checkRationalToInt(value.times(temp));
-    }
-
-    @Override
-    public MyNumber sqrt() {
-
-        Comparator<BigDecimal> bd = Comparator.naturalOrder();
-        int counter2 = 0;
-        BigDecimal val = new MyRational(value).toReal();
-        while( (bd.compare(val, BigDecimal.TEN) > 0 ) || (bd.compare(val, BigDecimal.ZERO) < 0 )){
-            if(bd.compare(val, BigDecimal.TEN) > 0 ){
-                val = val.divide(BigDecimal.TEN,MyReal.SCALE,MyReal.ROUNDING_MODE);
-                counter2++;
-            }
-            if(bd.compare(val, BigDecimal.ZERO) < 0 ){
-                val = val.multiply(BigDecimal.TEN);
-                counter2--;
-            }
-        }
-        double res = Math.pow(val.doubleValue(),0.5) *Math.pow(10,counter2*0.5);
-        return checkRealToInt(new BigDecimal(res));
-    }
-
-    @Override
-    public MyNumber expt(MyNumber n) {
-
-        BigDecimal newN = n.toReal();
-        Comparator<BigDecimal> bd = Comparator.naturalOrder();
-        int counter2 = 0;
-        BigDecimal val = new MyRational(value).toReal();
-        while( (bd.compare(val, BigDecimal.TEN) > 0 ) || (bd.compare(val, BigDecimal.ZERO) < 0 )){
-            if(bd.compare(val, BigDecimal.TEN) > 0 ){
-                val = val.divide(BigDecimal.TEN,MyReal.SCALE,MyReal.ROUNDING_MODE);
-                counter2++;
-            }
-            if(bd.compare(val, BigDecimal.ZERO) < 0 ){
-                val = val.multiply(BigDecimal.TEN);
-                counter2--;
-            }
-        }
-        double res = Math.pow(val.doubleValue(),newN.doubleValue()) *Math.pow(10,counter2*newN.doubleValue());
-        return checkRealToInt(new BigDecimal(res));
-    }
-
-    @Override
-    public MyNumber exp() {
-        BigDecimal val = new MyRational(value).toReal();
-        double res = Math.pow(Math.E,val.doubleValue());
-        return checkRealToInt(new BigDecimal(res));
-    }
-
-    @Override
-    public MyNumber ln() {
-        BigDecimal val = new MyRational(value).toReal();
-        double a = Math.log10(val.doubleValue()) ;
-        double b = Math.log10(Math.E);
-        double res = a/b;
-        return checkRealToInt(new BigDecimal(res));
-    }
-
-    @Override
-    public MyNumber log(MyNumber base) {
-        BigDecimal newBase = base.toReal();
-
-        Comparator<BigDecimal> bd = Comparator.naturalOrder();
-        int counter = 0;
-
-
-        while( (bd.compare(newBase, BigDecimal.TEN) > 0 ) || (bd.compare(newBase, BigDecimal.ZERO) < 0 )){
-            if(bd.compare(newBase, BigDecimal.TEN) > 0 ){
-                newBase = newBase.divide(BigDecimal.TEN,MyReal.SCALE,MyReal.ROUNDING_MODE);
-                counter++;
-            }
-            if(bd.compare(newBase, BigDecimal.ZERO) < 0 ){
-                newBase = newBase.multiply(BigDecimal.TEN);
-                counter--;
-            }
-        }
-        int counter2 = 0;
-        BigDecimal val = new MyRational(value).toReal();
-        while( (bd.compare(val, BigDecimal.TEN) > 0 ) || (bd.compare(val, BigDecimal.ZERO) < 0 )){
-            if(bd.compare(val, BigDecimal.TEN) > 0 ){
-                val = val.divide(BigDecimal.TEN,MyReal.SCALE,MyReal.ROUNDING_MODE);
-                counter2++;
-            }
-            if(bd.compare(val, BigDecimal.ZERO) < 0 ){
-                val = val.multiply(BigDecimal.TEN);
-                counter2--;
-            }
-        }
-        double a = Math.log10(val.doubleValue()) ;
-        a +=  counter2;
-        double b = Math.log10(newBase.doubleValue());
-        b += counter;
-        double res = a/b;
-        return checkRealToInt(new BigDecimal(res));
-
+        return valueOf(value.reciprocal());
     }
 
     @Override
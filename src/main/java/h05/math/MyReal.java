@@ -7,7 +7,6 @@ import org.jetbrains.annotations.Nullable;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
-import java.util.Comparator;
 import java.util.Objects;
 
 /**
@@ -54,6 +53,36 @@ public final class MyReal extends MyNumber {
         this.value = value.setScale(SCALE, ROUNDING_MODE);
     }
 
+    /**
+     * Constructs and initializes a real number with the specified value and the scale of the given
+     * numeric context.
+     *
+     * @param value   the value of the real number
+     * @param context the numeric context determining the scale of the real number
+     *
+     * @throws NullPointerException if the value or the context is null
+     */
+    public MyReal(BigDecimal value, NumericContext context) {
+        Objects.requireNonNull(value, "value null");
+        this.value = value.setScale(context.getScale(), context.getRoundingMode());
+    }
+
+    /**
+     * Constructs and initializes a real number with the specified value and scale. Used for values
+     * derived from a real number, which keep the scale of its numeric context.
+     *
+     * @param value the value of the real number
+     * @param scale the scale of the real number, rounding is not necessary if it is the scale of
+     *              the value
+     */
+    private MyReal(BigDecimal value, int scale) {
+        this.value = value.setScale(scale, ROUNDING_MODE);
+    }
+
+    @Override
+    int kind() {
+        return Arithmetic.REAL;
+    }
 
     @Override
     public BigInteger toInteger() {
@@ -62,11 +91,7 @@ public final class MyReal extends MyNumber {
 
     @Override
     public Rational toRational() {
-
-        BigInteger a = BigInteger.valueOf((long)Math.pow(10,MyReal.SCALE));
-        BigDecimal aStrich = BigDecimal.valueOf((long)Math.pow(10,MyReal.SCALE));
-        BigDecimal b = value.multiply(aStrich);
-        return new Rational(b.toBigInteger(),a);
+        return new Rational(value.unscaledValue(), BigInteger.TEN.pow(value.scale()));
     }
 
     @Override
@@ -76,12 +101,13 @@ public final class MyReal extends MyNumber {
 
     @Override
     public boolean isZero() {
-        return this.equals(ZERO);
+        return value.signum() == 0;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(value);
+        // Real numbers of different numeric contexts differ in their scale only
+        return value.stripTrailingZeros().hashCode();
     }
 
     @Override
@@ -92,138 +118,25 @@ public final class MyReal extends MyNumber {
         if (!(o instanceof MyReal number)) {
             return false;
         }
-        return value.equals(number.value);
+        return value.compareTo(number.value) == 0;
     }
 
     @Override
     public MyNumber negate() {
-        return new MyReal(value.negate());
-    }
-
-    @Override
-    public MyNumber plus(MyNumber other) {
-        return checkRealToInt(value.add(other.toReal()));
+        return new MyReal(value.negate(), value.scale());
     }
 
     @Override
     public MyNumber minus() {
-        return new MyReal(value.negate());
-    }
-
-    @Override
-    public MyNumber minus(MyNumber other) {
-        return checkRealToInt(value.add(other.toReal().negate()));
+        return new MyReal(value.negate(), value.scale());
     }
 
     @Override
-    public MyNumber times(MyNumber other) {
-        return checkRealToInt(value.multiply(other.toReal()));
-    }
-
-    @Override
-    public MyNumber divide() {
-        return new MyReal(BigDecimal.ONE.divide(value,MyReal.SCALE,MyReal.ROUNDING_MODE));
-    }
-
-    @Override
-    public MyNumber divide(MyNumber other) {
-        if(other.isZero())
-            throw new WrongOperandException(other, Comparison.DIFFERENT_FROM,new MyInteger(BigInteger.ZERO));
-        return checkRealToInt(value.divide(other.toReal(),MyReal.SCALE,MyReal.ROUNDING_MODE));
-    }
-
-    @Override
-    public MyNumber sqrt() {
-
-        Comparator<BigDecimal> bd = Comparator.naturalOrder();
-        int counter2 = 0;
-        BigDecimal val = value;
-        while( (bd.compare(val, BigDecimal.TEN) > 0 ) || (bd.compare(val, BigDecimal.ZERO) < 0 )){
-            if(bd.compare(val, BigDecimal.TEN) > 0 ){
-                val = val.divide(BigDecimal.TEN,MyReal.SCALE,MyReal.ROUNDING_MODE);
-                counter2++;
-            }
-            if(bd.compare(val, BigDecimal.ZERO) < 0 ){
-                val = val.multiply(BigDecimal.TEN);
-                counter2--;
-            }
-        }
-        double res = Math.pow(val.doubleValue(),0.5) *Math.pow(10,counter2*0.5);
-        return checkRealToInt(new BigDecimal(res));
-    }
-
-    @Override
-    public MyNumber expt(MyNumber n) {
-
-        BigDecimal newN = n.toReal();
-        Comparator<BigDecimal> bd = Comparator.naturalOrder();
-        int counter2 = 0;
-        BigDecimal val = value;
-        while( (bd.compare(val, BigDecimal.TEN) > 0 ) || (bd.compare(val, BigDecimal.ZERO) < 0 )){
-            if(bd.compare(val, BigDecimal.TEN) > 0 ){
-                val = val.divide(BigDecimal.TEN,MyReal.SCALE,MyReal.ROUNDING_MODE);
-                counter2++;
-            }
-            if(bd.compare(val, BigDecimal.ZERO) < 0 ){
-                val = val.multiply(BigDecimal.TEN);
-                counter2--;
-            }
+    public MyNumber divide(NumericContext context) {
+        if (isZero()) {
+            throw new WrongOperandException(this, Comparison.DIFFERENT_FROM, MyInteger.ZERO);
         }
-        double res = Math.pow(val.doubleValue(),newN.doubleValue()) *Math.pow(10,counter2*newN.doubleValue());
-        return checkRealToInt(new BigDecimal(res));
-    }
-
-    @Override
-    public MyNumber exp() {
-        double res = Math.pow(Math.E, value.doubleValue());
-        return checkRealToInt(new BigDecimal(res));
-    }
-
-    @Override
-    public MyNumber ln() {
-        double a = Math.log10(value.doubleValue()) ;
-        double b = Math.log10(Math.E);
-        double res = a/b;
-        return checkRealToInt(new BigDecimal(res));
-    }
-
-    @Override
-    public MyNumber log(MyNumber base) {
-        BigDecimal newBase = base.toReal();
-
-        Comparator<BigDecimal> bd = Comparator.naturalOrder();
-        int counter = 0;
-
-
-        while( (bd.compare(newBase, BigDecimal.TEN) > 0 ) || (bd.compare(newBase, BigDecimal.ZERO) < 0 )){
-            if(bd.compare(newBase, BigDecimal.TEN) > 0 ){
-                newBase = newBase.divide(BigDecimal.TEN,MyReal.SCALE,MyReal.ROUNDING_MODE);
-                counter++;
-            }
-            if(bd.compare(newBase, BigDecimal.ZERO) < 0 ){
-                newBase = newBase.multiply(BigDecimal.TEN);
-                counter--;
-            }
-        }
-        int counter2 = 0;
-        BigDecimal val = value;
-        while( (bd.compare(val, BigDecimal.TEN) > 0 ) || (bd.compare(val, BigDecimal.ZERO) < 0 )){
-            if(bd.compare(val, BigDecimal.TEN) > 0 ){
-                val = val.divide(BigDecimal.TEN,MyReal.SCALE,MyReal.ROUNDING_MODE);
-                counter2++;
-            }
-            if(bd.compare(val, BigDecimal.ZERO) < 0 ){
-                val = val.multiply(BigDecimal.TEN);
-                counter2--;
-            }
-        }
-        double a = Math.log10(val.doubleValue()) ;
-        a +=  counter2;
-        double b = Math.log10(newBase.doubleValue());
-        b += counter;
-        double res =a/b;
-        return checkRealToInt(new BigDecimal(res));
-
+        return new MyReal(BigDecimal.ONE.divide(value, context.getScale(), context.getRoundingMode()), context);
     }
 
     @Override
@@ -0,0 +1,180 @@
+package h05.math;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * The numeric context of an evaluation. It determines the scale and rounding mode of inexact (real)
+ * results, the precision of intermediate results of transcendental functions, whether real
+ * results without a fractional part collapse to integers and how many digits before the decimal
+ * point a power may have, so that a single operation cannot exhaust time and memory.
+ *
+ * <p>Example:
+ * <ul>
+ *     <li>An audit context computing with 50 decimal places</li>
+ * </ul>
+ *
+ * <pre>{@code
+ *    NumericContext audit = new NumericContext(50, RoundingMode.HALF_EVEN, true);
+ *    MyNumber result = root.evaluate(identifiers, audit);
+ * }</pre>
+ *
+ * @author Nhan Huynh
+ */
+public final class NumericContext {
+
+    /**
+     * The default maximum number of decimal digits before the decimal point of a power.
+     */
+    public static final int DEFAULT_MAX_DIGITS = 10_000;
+
+    /**
+     * The default numeric context using {@link MyReal#SCALE} and {@link MyReal#ROUNDING_MODE}.
+     */
+    public static final NumericContext DEFAULT = new NumericContext(MyReal.SCALE, MyReal.ROUNDING_MODE, true);
+
+    /**
+     * The number of decimal places of real numbers.
+     */
+    private final int scale;
+
+    /**
+     * The rounding mode of real numbers.
+     */
+    private final RoundingMode roundingMode;
+
+    /**
+     * {@code true} if real results without a fractional part are represented as integers.
+     */
+    private final boolean collapseToInteger;
+
+    /**
+     * The maximum number of decimal digits before the decimal point of a power.
+     */
+    private final int maxDigits;
+
+    /**
+     * The math context of intermediate results of transcendental functions.
+     */
+    private final MathContext mathContext;
+
+    /**
+     * Constructs and initializes a numeric context.
+     *
+     * @param scale             the number of decimal places of real numbers
+     * @param roundingMode      the rounding mode of real numbers
+     * @param collapseToInteger {@code true} if real results without a fractional part should be
+     *                          represented as integers
+     * @throws IllegalArgumentException if the scale is negative
+     * @throws NullPointerException     if the rounding mode is {@code null}
+     */
+    public NumericContext(int scale, RoundingMode roundingMode, boolean collapseToInteger) {
+        this(scale, roundingMode, collapseToInteger, DEFAULT_MAX_DIGITS);
+    }
+
+    /**
+     * Constructs and initializes a numeric context.
+     *
+     * @param scale             the number of decimal places of real numbers
+     * @param roundingMode      the rounding mode of real numbers
+     * @param collapseToInteger {@code true} if real results without a fractional part should be
+     *                          represented as integers
+     * @param maxDigits         the maximum number of decimal digits before the decimal point of a
+     *                          power
+     * @throws IllegalArgumentException if the scale is negative or the maximum number of digits is
+     *                                  not positive
+     * @throws NullPointerException     if the rounding mode is {@code null}
+     */
+    public NumericContext(
+        int scale,
+        RoundingMode roundingMode,
+        boolean collapseToInteger,
+        int maxDigits) {
+        if (scale < 0) {
+            throw new IllegalArgumentException("negative scale: " + scale);
+        }
+        if (maxDigits < 1) {
+            throw new IllegalArgumentException("non-positive maximum digits: " + maxDigits);
+        }
+        this.scale = scale;
+        this.roundingMode = Objects.requireNonNull(roundingMode, "rounding mode null");
+        this.collapseToInteger = collapseToInteger;
+        this.maxDigits = maxDigits;
+        this.mathContext = new MathContext(2 * scale + 4, roundingMode);
+    }
+
+    /**
+     * Returns the number of decimal places of real numbers.
+     *
+     * @return the number of decimal places of real numbers
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Returns the rounding mode of real numbers.
+     *
+     * @return the rounding mode of real numbers
+     */
+    public RoundingMode getRoundingMode() {
+        return roundingMode;
+    }
+
+    /**
+     * Returns {@code true} if real results without a fractional part are represented as integers.
+     *
+     * @return {@code true} if real results without a fractional part are represented as integers
+     */
+    public boolean isCollapseToInteger() {
+        return collapseToInteger;
+    }
+
+    /**
+     * Returns the maximum number of decimal digits before the decimal point of a power. Larger
+     * powers are rejected before they are computed.
+     *
+     * @return the maximum number of decimal digits before the decimal point of a power
+     */
+    public int getMaxDigits() {
+        return maxDigits;
+    }
+
+    /**
+     * Returns the math context of intermediate results of transcendental functions.
+     *
+     * @return the math context of intermediate results of transcendental functions
+     */
+    public MathContext getMathContext() {
+        return mathContext;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(scale, roundingMode, collapseToInteger, maxDigits);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof NumericContext context)) {
+            return false;
+        }
+        return scale == context.scale
+            && roundingMode == context.roundingMode
+            && collapseToInteger == context.collapseToInteger
+            && maxDigits == context.maxDigits;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "NumericContext[scale=%d, roundingMode=%s, collapseToInteger=%s, maxDigits=%d]",
+            scale, roundingMode, collapseToInteger, maxDigits);
+    }
+}
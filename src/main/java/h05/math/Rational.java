@@ -9,6 +9,12 @@ import java.util.Objects;
  * Represents a rational number (fraction). The fraction is stored as a numerator and denominator
  * and the sign will be stored in the numerator.
  *
+ * <p>Fractions whose numerator and denominator fit into a {@code long} are stored as primitives
+ * and combined with overflow-checked arithmetic, larger ones fall back to {@link BigInteger}.
+ * Reducing a fraction to lowest terms is deferred until the value is observed (compared, hashed,
+ * printed or its numerator or denominator is requested) or its size exceeds {@link
+ * #REDUCTION_THRESHOLD} bits.
+ *
  * @author Nhan Huynh
  */
 public final class Rational {
@@ -16,22 +22,51 @@ public final class Rational {
     /**
      * The constant 0 as a {@link Rational}.
      */
-    public static final Rational ZERO = new Rational(BigInteger.ZERO, BigInteger.ONE);
+    public static final Rational ZERO = new Rational(0, 1, true);
 
     /**
      * The constant 1 as a {@link Rational}.
      */
-    public static final Rational ONE = new Rational(BigInteger.ONE, BigInteger.ONE);
+    public static final Rational ONE = new Rational(1, 1, true);
+
+    /**
+     * The number of bits a {@link BigInteger} numerator or denominator may have before the fraction
+     * is reduced eagerly.
+     */
+    static final int REDUCTION_THRESHOLD = 256;
+
+    /**
+     * The numerator of this rational number if it is stored as a primitive.
+     */
+    private final long num;
+
+    /**
+     * The denominator of this rational number if it is stored as a primitive.
+     */
+    private final long den;
+
+    /**
+     * The numerator of this rational number if it does not fit into a {@code long}, otherwise
+     * {@code null}.
+     */
+    private final @Nullable BigInteger bigNum;
+
+    /**
+     * The denominator of this rational number if the fraction does not fit into {@code long}s,
+     * otherwise {@code null}.
+     */
+    private final @Nullable BigInteger bigDen;
 
     /**
-     * The numerator of this rational number.
+     * {@code true} if this fraction is known to be in lowest terms.
      */
-    private final BigInteger numerator;
+    private final boolean reduced;
 
     /**
-     * The denominator of this rational number.
+     * The cached fraction in lowest terms, computed on first use. Since all other fields are final,
+     * racy publication of this cache is safe.
      */
-    private final BigInteger denominator;
+    private @Nullable Rational lowestTerms;
 
     /**
      * Constructs and initializes a rational number with the specified numerator and denominator.
@@ -46,25 +81,196 @@ public final class Rational {
         if (denominator.signum() == 0) {
             throw new ArithmeticException("Division by zero");
         }
+        if (denominator.signum() == -1) {
+            numerator = numerator.negate();
+            denominator = denominator.negate();
+        }
+        if (fitsLong(numerator) && fitsLong(denominator)) {
+            this.num = numerator.longValue();
+            this.den = denominator.longValue();
+            this.bigNum = null;
+            this.bigDen = null;
+        } else {
+            this.num = 0;
+            this.den = 0;
+            this.bigNum = numerator;
+            this.bigDen = denominator;
+        }
+        this.reduced = false;
+    }
+
+    /**
+     * Constructs and initializes a primitive rational number. The denominator must be positive.
+     *
+     * @param num     the numerator of the rational number
+     * @param den     the denominator of the rational number
+     * @param reduced {@code true} if the fraction is known to be in lowest terms
+     */
+    private Rational(long num, long den, boolean reduced) {
+        this.num = num;
+        this.den = den;
+        this.bigNum = null;
+        this.bigDen = null;
+        this.reduced = reduced;
+    }
+
+    /**
+     * Constructs and initializes an arbitrary precision rational number. The denominator must be
+     * positive and the fraction must not fit into {@code long}s.
+     *
+     * @param num     the numerator of the rational number
+     * @param den     the denominator of the rational number
+     * @param reduced {@code true} if the fraction is known to be in lowest terms
+     */
+    private Rational(BigInteger num, BigInteger den, boolean reduced) {
+        this.num = 0;
+        this.den = 0;
+        this.bigNum = num;
+        this.bigDen = den;
+        this.reduced = reduced;
+    }
 
-        BigInteger rest;
-        BigInteger workN = numerator;
-        BigInteger workD = denominator;
-        if(denominator.signum() == -1){
-            numerator = workN = numerator.multiply(new BigInteger("-1"));
-            denominator = workD = denominator.multiply(new BigInteger("-1"));
+    /**
+     * Returns a rational number with the specified numerator and denominator.
+     *
+     * @param numerator   the numerator of the rational number
+     * @param denominator the denominator of the rational number
+     * @return the rational number
+     * @throws ArithmeticException if the denominator is zero
+     */
+    public static Rational valueOf(long numerator, long denominator) {
+        if (denominator == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (denominator < 0) {
+            if (numerator == Long.MIN_VALUE || denominator == Long.MIN_VALUE) {
+                return new Rational(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator));
+            }
+            numerator = -numerator;
+            denominator = -denominator;
         }
+        return new Rational(numerator, denominator, false);
+    }
+
+    /**
+     * Returns {@code true} if the given integer fits into a {@code long}.
+     *
+     * @param value the integer to check
+     * @return {@code true} if the given integer fits into a {@code long}
+     */
+    private static boolean fitsLong(BigInteger value) {
+        return value.bitLength() < Long.SIZE;
+    }
 
+    /**
+     * Creates a rational number from an arbitrary precision numerator and positive denominator,
+     * choosing the primitive representation if possible and reducing the fraction if it grew past
+     * the {@link #REDUCTION_THRESHOLD}.
+     *
+     * @param num     the numerator of the rational number
+     * @param den     the positive denominator of the rational number
+     * @param reduced {@code true} if the fraction is known to be in lowest terms
+     * @return the rational number
+     */
+    private static Rational of(BigInteger num, BigInteger den, boolean reduced) {
+        if (!reduced && Math.max(num.bitLength(), den.bitLength()) > REDUCTION_THRESHOLD) {
+            BigInteger gcd = num.gcd(den);
+            num = num.divide(gcd);
+            den = den.divide(gcd);
+            reduced = true;
+        }
+        if (fitsLong(num) && fitsLong(den)) {
+            return new Rational(num.longValue(), den.longValue(), reduced);
+        }
+        return new Rational(num, den, reduced);
+    }
 
-        while(true){
-            rest = workN.mod(workD);
-            if(rest.intValue() == 0)
-                break;
-            workN = workD;
-            workD = rest;
+    /**
+     * Returns the greatest common divisor of two non-negative {@code long}s.
+     *
+     * @param a the first value
+     * @param b the second value
+     * @return the greatest common divisor of {@code a} and {@code b}
+     */
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long rest = a % b;
+            a = b;
+            b = rest;
         }
-        this.numerator = numerator.divide(workD);
-        this.denominator = denominator.divide(workD);
+        return a;
+    }
+
+    /**
+     * Returns this fraction in lowest terms.
+     *
+     * @return this fraction in lowest terms
+     */
+    Rational reduce() {
+        if (reduced) {
+            return this;
+        }
+        Rational result = lowestTerms;
+        if (result == null) {
+            if (bigNum == null && num != Long.MIN_VALUE) {
+                long gcd = gcd(Math.abs(num), den);
+                result = new Rational(num / gcd, den / gcd, true);
+            } else {
+                BigInteger numerator = numerator();
+                BigInteger denominator = denominator();
+                BigInteger gcd = numerator.gcd(denominator);
+                result = of(numerator.divide(gcd), denominator.divide(gcd), true);
+            }
+            lowestTerms = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns {@code true} if the numerator and denominator of this fraction are stored as
+     * {@code long}s.
+     *
+     * @return {@code true} if this fraction is stored as {@code long}s
+     */
+    boolean isSmall() {
+        return bigNum == null;
+    }
+
+    /**
+     * Returns the (possibly unreduced) numerator as a {@code long}. Only valid if {@link #isSmall()}.
+     *
+     * @return the numerator
+     */
+    long smallNumerator() {
+        return num;
+    }
+
+    /**
+     * Returns the (possibly unreduced) denominator as a {@code long}. Only valid if
+     * {@link #isSmall()}.
+     *
+     * @return the denominator
+     */
+    long smallDenominator() {
+        return den;
+    }
+
+    /**
+     * Returns the (possibly unreduced) numerator as a {@link BigInteger}.
+     *
+     * @return the numerator
+     */
+    private BigInteger numerator() {
+        return bigNum == null ? BigInteger.valueOf(num) : bigNum;
+    }
+
+    /**
+     * Returns the (possibly unreduced) denominator as a {@link BigInteger}.
+     *
+     * @return the denominator
+     */
+    private BigInteger denominator() {
+        return bigDen == null ? BigInteger.valueOf(den) : bigDen;
     }
 
     /**
@@ -73,7 +279,7 @@ public final class Rational {
      * @return the numerator of this rational number
      */
     public BigInteger getNumerator() {
-        return numerator;
+        return reduce().numerator();
     }
 
     /**
@@ -82,7 +288,29 @@ public final class Rational {
      * @return the denominator of this rational number
      */
     public BigInteger getDenominator() {
-        return denominator;
+        return reduce().denominator();
+    }
+
+    /**
+     * Returns the signum function of this rational number.
+     *
+     * @return -1, 0 or 1 as the value of this rational number is negative, zero or positive
+     */
+    public int signum() {
+        return bigNum == null ? Long.signum(num) : bigNum.signum();
+    }
+
+    /**
+     * Returns {@code true} if this rational number is an integer, i.e. the denominator of its lowest
+     * terms is 1. Unlike {@link #getDenominator()}, this does not need to reduce the fraction.
+     *
+     * @return {@code true} if this rational number is an integer
+     */
+    public boolean isInteger() {
+        if (bigNum == null) {
+            return num % den == 0;
+        }
+        return bigNum.mod(Objects.requireNonNull(bigDen)).signum() == 0;
     }
 
     /**
@@ -91,7 +319,32 @@ public final class Rational {
      * @return {@code -this}
      */
     public Rational negate() {
-        return new Rational(numerator.negate(), denominator);
+        if (bigNum == null && num != Long.MIN_VALUE) {
+            return new Rational(-num, den, reduced);
+        }
+        return of(numerator().negate(), denominator(), reduced);
+    }
+
+    /**
+     * Returns a rational whose value is {@code (1 / this)}.
+     *
+     * @return {@code 1 / this}
+     * @throws ArithmeticException if this rational number is zero
+     */
+    public Rational reciprocal() {
+        int signum = signum();
+        if (signum == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (bigNum == null && num != Long.MIN_VALUE) {
+            return signum < 0 ? new Rational(-den, -num, reduced) : new Rational(den, num, reduced);
+        }
+        BigInteger numerator = numerator();
+        BigInteger denominator = denominator();
+        if (signum < 0) {
+            return of(denominator.negate(), numerator.negate(), reduced);
+        }
+        return of(denominator, numerator, reduced);
     }
 
     /**
@@ -101,7 +354,16 @@ public final class Rational {
      * @return the sum of this rational number and the integer number
      */
     public Rational plus(BigInteger other) {
-        return new Rational(numerator.add(denominator.multiply(other)), denominator);
+        // gcd(n + d * o, d) = gcd(n, d), so adding an integer preserves lowest terms
+        if (bigNum == null && fitsLong(other)) {
+            try {
+                return new Rational(Math.addExact(num, Math.multiplyExact(den, other.longValue())), den, reduced);
+            } catch (ArithmeticException e) {
+                // Overflow, fall back to arbitrary precision
+            }
+        }
+        BigInteger denominator = denominator();
+        return of(numerator().add(denominator.multiply(other)), denominator, reduced);
     }
 
     /**
@@ -111,9 +373,24 @@ public final class Rational {
      * @return the sum of this rational number and the rational number
      */
     public Rational plus(Rational other) {
-        return new Rational(
-            numerator.multiply(other.denominator).add(denominator.multiply(other.numerator)),
-            denominator.multiply(other.denominator)
+        if (bigNum == null && other.bigNum == null) {
+            try {
+                if (den == other.den) {
+                    return new Rational(Math.addExact(num, other.num), den, false);
+                }
+                return new Rational(
+                    Math.addExact(Math.multiplyExact(num, other.den), Math.multiplyExact(den, other.num)),
+                    Math.multiplyExact(den, other.den),
+                    false
+                );
+            } catch (ArithmeticException e) {
+                // Overflow, fall back to arbitrary precision
+            }
+        }
+        return of(
+            numerator().multiply(other.denominator()).add(denominator().multiply(other.numerator())),
+            denominator().multiply(other.denominator()),
+            false
         );
     }
 
@@ -124,7 +401,14 @@ public final class Rational {
      * @return the product of this rational number and the integer number
      */
     public Rational times(BigInteger other) {
-        return new Rational(numerator.multiply(other), denominator);
+        if (bigNum == null && fitsLong(other)) {
+            try {
+                return new Rational(Math.multiplyExact(num, other.longValue()), den, false);
+            } catch (ArithmeticException e) {
+                // Overflow, fall back to arbitrary precision
+            }
+        }
+        return of(numerator().multiply(other), denominator(), false);
     }
 
     /**
@@ -134,15 +418,31 @@ public final class Rational {
      * @return the product of this rational number and the rational number
      */
     public Rational times(Rational other) {
-        return new Rational(
-            numerator.multiply(other.numerator),
-            denominator.multiply(other.denominator)
+        if (bigNum == null && other.bigNum == null) {
+            try {
+                return new Rational(
+                    Math.multiplyExact(num, other.num),
+                    Math.multiplyExact(den, other.den),
+                    false
+                );
+            } catch (ArithmeticException e) {
+                // Overflow, fall back to arbitrary precision
+            }
+        }
+        return of(
+            numerator().multiply(other.numerator()),
+            denominator().multiply(other.denominator()),
+            false
         );
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(numerator, denominator);
+        Rational value = reduce();
+        if (value.bigNum == null) {
+            return 31 * Long.hashCode(value.num) + Long.hashCode(value.den);
+        }
+        return Objects.hash(value.bigNum, value.bigDen);
     }
 
     @Override
@@ -153,11 +453,19 @@ public final class Rational {
         if (!(o instanceof Rational number)) {
             return false;
         }
-        return numerator.equals(number.numerator) && denominator.equals(number.denominator);
+        Rational a = reduce();
+        Rational b = number.reduce();
+        if (a.bigNum == null || b.bigNum == null) {
+            return a.bigNum == b.bigNum && a.num == b.num && a.den == b.den;
+        }
+        return a.bigNum.equals(b.bigNum) && Objects.equals(a.bigDen, b.bigDen);
     }
 
     @Override
     public String toString() {
+        Rational value = reduce();
+        BigInteger numerator = value.numerator();
+        BigInteger denominator = value.denominator();
         if (numerator.signum() == -1) {
             return String.format("-%s/%s", numerator.negate(), denominator);
         }
@@ -0,0 +1,312 @@
+package h05.service;
+
+import h05.exception.BadOperationException;
+import h05.exception.IllegalIdentifierExceptions;
+import h05.exception.ParenthesesMismatchException;
+import h05.exception.UndefinedIdentifierException;
+import h05.exception.UndefinedOperatorException;
+import h05.math.MyNumber;
+import h05.math.NumericContext;
+import h05.tree.ParseCache;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Evaluates arithmetic expressions given as text asynchronously, e.g. behind a remote procedure
+ * call layer. Every request is parsed and evaluated on its own thread and completes its future
+ * with the result of the expression.
+ *
+ * <p>The requests run on virtual threads if the runtime supports them (Java 21 or later), so a
+ * request waiting for a slow evaluation does not occupy a platform thread. On older runtimes a
+ * cached thread pool is used instead. The number of requests being evaluated at the same time is
+ * limited by a semaphore: a request exceeding the limit is rejected immediately instead of being
+ * queued, so bursts cannot pile up unbounded work. Every request has a deadline after which its
+ * future completes with a {@link TimeoutException}. The trees of the expressions are kept in a
+ * {@link ParseCache}, so an expression which is requested again is not parsed again.
+ *
+ * <p>Example:
+ * <ul>
+ *     <li>Racket notation: (+ a (* b 2))</li>
+ * </ul>
+ *
+ * <pre>{@code
+ *    try (EvaluationService service = new EvaluationService()) {
+ *        CompletableFuture<MyNumber> result = service.submit("(+ a (* b 2))", identifiers);
+ *        MyNumber value = result.join();
+ *    }
+ * }</pre>
+ *
+ * <p>A request keeps its permit until its evaluation finishes, so the limit bounds the evaluations
+ * which are actually running and not only those which are still awaited. When the deadline of a
+ * request passes or its future is cancelled, the thread evaluating it is interrupted. The
+ * evaluation checks the interrupt status while walking the tree and while computing
+ * transcendental functions, so it stops shortly afterwards and releases its permit.
+ *
+ * @author Nhan Huynh
+ */
+public final class EvaluationService implements AutoCloseable {
+
+    /**
+     * The default maximum number of requests being evaluated at the same time.
+     */
+    public static final int DEFAULT_MAX_CONCURRENT = 1024;
+
+    /**
+     * The default deadline of a request.
+     */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * The executor running the requests.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The permits of the requests being evaluated.
+     */
+    private final Semaphore permits;
+
+    /**
+     * The maximum number of requests being evaluated at the same time.
+     */
+    private final int maxConcurrent;
+
+    /**
+     * The default deadline of a request.
+     */
+    private final Duration timeout;
+
+    /**
+     * The numeric context of real results.
+     */
+    private final NumericContext context;
+
+    /**
+     * The cache of the parsed expressions.
+     */
+    private final ParseCache cache = new ParseCache();
+
+    /**
+     * Constructs and initializes an evaluation service with the default limit, deadline and
+     * numeric context.
+     */
+    public EvaluationService() {
+        this(DEFAULT_MAX_CONCURRENT, DEFAULT_TIMEOUT, NumericContext.DEFAULT);
+    }
+
+    /**
+     * Constructs and initializes an evaluation service.
+     *
+     * @param maxConcurrent the maximum number of requests being evaluated at the same time
+     * @param timeout       the default deadline of a request
+     * @param context       the numeric context of real results
+     * @throws IllegalArgumentException if the limit or the deadline is not positive
+     * @throws NullPointerException     if the deadline or the context is {@code null}
+     */
+    public EvaluationService(int maxConcurrent, Duration timeout, NumericContext context) {
+        Objects.requireNonNull(timeout, "timeout null");
+        Objects.requireNonNull(context, "context null");
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("Limit must be positive: " + maxConcurrent);
+        }
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Timeout must be positive: " + timeout);
+        }
+        this.executor = newExecutor();
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxConcurrent = maxConcurrent;
+        this.timeout = timeout;
+        this.context = context;
+    }
+
+    /**
+     * Returns an executor running every task on a new virtual thread if the runtime supports
+     * virtual threads, otherwise a cached thread pool.
+     *
+     * @return the executor running the requests
+     */
+    private static ExecutorService newExecutor() {
+        // Looked up reflectively, since virtual threads are not part of the Java 17 API
+        try {
+            Object executor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+                .invoke(null);
+            return (ExecutorService) executor;
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Returns the maximum number of requests being evaluated at the same time.
+     *
+     * @return the maximum number of requests being evaluated at the same time
+     */
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * Returns the cache of the parsed expressions, e.g. to monitor its hits and misses.
+     *
+     * @return the cache of the parsed expressions
+     */
+    public ParseCache getParseCache() {
+        return cache;
+    }
+
+    /**
+     * Returns the number of requests which can be admitted right now.
+     *
+     * @return the number of requests which can be admitted right now
+     */
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Evaluates an arithmetic expression asynchronously with the default deadline.
+     *
+     * @param expression  the string representation of the arithmetic expression
+     * @param identifiers the map of identifiers and their values, which must not be modified until
+     *                    the returned future completes
+     * @return the future result of the arithmetic expression
+     * @throws NullPointerException if the expression or the identifiers are {@code null}
+     * @see #submit(CharSequence, Map, Duration)
+     */
+    public CompletableFuture<MyNumber> submit(
+        CharSequence expression,
+        Map<String, MyNumber> identifiers) {
+        return submit(expression, identifiers, timeout);
+    }
+
+    /**
+     * Evaluates an arithmetic expression asynchronously.
+     *
+     * <p>The returned future completes exceptionally with
+     * <ul>
+     *     <li>a {@link RejectedExecutionException} if the limit of requests is reached or the
+     *     service is closed,</li>
+     *     <li>a {@link TimeoutException} if the deadline passes before the result is known,</li>
+     *     <li>a {@link BadOperationException}, {@link IllegalIdentifierExceptions},
+     *     {@link ParenthesesMismatchException} or {@link UndefinedOperatorException} if the
+     *     expression cannot be parsed,</li>
+     *     <li>an {@link UndefinedIdentifierException} or any other runtime exception thrown by
+     *     the evaluation.</li>
+     * </ul>
+     *
+     * <p>Cancelling the returned future skips the evaluation if it has not started yet and
+     * interrupts it otherwise.
+     *
+     * @param expression  the string representation of the arithmetic expression
+     * @param identifiers the map of identifiers and their values, which must not be modified until
+     *                    the returned future completes
+     * @param timeout     the deadline of the request
+     * @return the future result of the arithmetic expression
+     * @throws IllegalArgumentException if the deadline is not positive
+     * @throws NullPointerException     if an argument is {@code null}
+     */
+    public CompletableFuture<MyNumber> submit(
+        CharSequence expression,
+        Map<String, MyNumber> identifiers,
+        Duration timeout) {
+        Objects.requireNonNull(expression, "expression null");
+        Objects.requireNonNull(identifiers, "identifiers null");
+        Objects.requireNonNull(timeout, "timeout null");
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Timeout must be positive: " + timeout);
+        }
+        if (!permits.tryAcquire()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException(
+                "Too many concurrent requests: " + maxConcurrent));
+        }
+
+        CompletableFuture<MyNumber> result = new CompletableFuture<>();
+        Worker worker = new Worker();
+        try {
+            executor.execute(() -> {
+                // Attach before checking the future, so a deadline passing afterwards interrupts
+                worker.attach();
+                try {
+                    if (!result.isDone()) {
+                        result.complete(cache.parse(expression)
+                            .evaluate(identifiers, context));
+                    }
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    // Errors are left to the executor, the deadline still completes the future
+                    worker.detach();
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            result.completeExceptionally(e);
+            return result;
+        }
+        result.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS).whenComplete((value, e) -> {
+            if (e instanceof TimeoutException || e instanceof CancellationException) {
+                worker.interrupt();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Closes this service. Requests submitted afterwards are rejected, requests being evaluated
+     * are interrupted.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The thread evaluating a request, which is interrupted when the result of the request is no
+     * longer awaited. The thread is only interrupted while it evaluates the request, since
+     * threads of a pool are reused for other requests afterwards.
+     */
+    private static final class Worker {
+
+        /**
+         * The thread evaluating the request, {@code null} if it is not evaluating it.
+         */
+        private @Nullable Thread thread;
+
+        /**
+         * Attaches the current thread to the request before its evaluation.
+         */
+        synchronized void attach() {
+            thread = Thread.currentThread();
+        }
+
+        /**
+         * Detaches the current thread from the request after its evaluation and clears its
+         * interrupt status, which may have been set by {@link #interrupt()} too late to stop it.
+         */
+        synchronized void detach() {
+            thread = null;
+            Thread.interrupted();
+        }
+
+        /**
+         * Interrupts the thread evaluating the request, if any.
+         */
+        synchronized void interrupt() {
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+}
@@ -1,30 +1,83 @@
 package h05.tree;
 
+import h05.exception.IllegalIdentifierExceptions;
+import h05.exception.UndefinedIdentifierException;
 import h05.math.MyNumber;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.AbstractSequentialList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 /**
  * Evaluates an arithmetic expression by replacing the variables (identifiers) of the expression
  * with their values.
  *
+ * <p>The evaluation keeps a work-list of the innermost operations, i.e. the operations whose
+ * operands are all literals, and the tokens of the expression as a linked list. A step replaces
+ * every operation of the work-list by its result in the tree and in the tokens, and an operation
+ * joins the work-list of the next step as soon as its last operation operand has been replaced.
+ * Hence every node is visited a constant number of times over all steps and a step never scans or
+ * renders the whole expression.
+ *
+ * <p>The arithmetic expression tree is never modified. Instead, every {@link #getRoot() root} is
+ * an immutable version of the expression: the operations above the replaced nodes are copied
+ * (path copying), and all unchanged subtrees are shared with the previous version. Keeping the
+ * roots of all steps as a history therefore costs memory proportional to the copied paths and not
+ * to the size of the expression. The versions are only built when a root is requested, so the
+ * steps themselves stay cheap.
+ *
+ * <p>An evaluator is not thread-safe, but the tree it evaluates is immutable, so many evaluators
+ * on different threads may share the same tree.
+ *
  * @author Nhan Huynh
  */
 public class ArithmeticExpressionEvaluator {
 
     /**
-     * The arithmetic expression tree to evaluate.
+     * The root of the last built version of the arithmetic expression tree.
      */
     private ArithmeticExpressionNode root;
 
+    /**
+     * The root slot of the arithmetic expression tree or {@code null} if no step has been made
+     * yet.
+     */
+    private @Nullable Slot rootSlot;
+
     /**
      * The map of variables and their values.
      */
     private final Map<String, MyNumber> identifiers;
 
     /**
-     * Constructs and initializes an arithmetic expression evaluator.
+     * The tokens of the current arithmetic expression or {@code null} if no step has been made yet.
+     */
+    private @Nullable Tokens tokens;
+
+    /**
+     * The identifiers of the expression which are replaced by their values in the first step.
+     */
+    private List<Slot> variables = new ArrayList<>();
+
+    /**
+     * The innermost operations which are replaced by their results in the next step.
+     */
+    private List<Slot> innermost = new ArrayList<>();
+
+    /**
+     * The slots replaced since the last built version.
+     */
+    private final List<Slot> replaced = new ArrayList<>();
+
+    /**
+     * Constructs and initializes an arithmetic expression evaluator. The arithmetic expression tree
+     * is not copied, since the evaluation never modifies it.
      *
      * @param root        the root of the arithmetic expression tree to evaluate
      * @param identifiers the map of variables and their values
@@ -32,19 +85,75 @@ public class ArithmeticExpressionEvaluator {
     public ArithmeticExpressionEvaluator(
         ArithmeticExpressionNode root,
         Map<String, MyNumber> identifiers) {
-        this.root = root.clone();
+        this.root = root;
         this.identifiers = identifiers;
     }
 
     /**
-     * Returns the root of the arithmetic expression tree to evaluate.
+     * Returns the root of the arithmetic expression tree to evaluate. The returned tree is not
+     * modified by later steps and shares its unchanged subtrees with the trees of the other steps.
      *
      * @return the root of the arithmetic expression tree to evaluate
      */
     public ArithmeticExpressionNode getRoot() {
+        if (!replaced.isEmpty()) {
+            assert rootSlot != null;
+            build();
+            root = rootSlot.node;
+        }
         return root;
     }
 
+    /**
+     * Builds the current version of the arithmetic expression tree by copying the operations on the
+     * paths from the root to the replaced slots.
+     */
+    private void build() {
+        List<Slot> copies = new ArrayList<>();
+        for (Slot slot : replaced) {
+            for (Slot parent = slot.parent; parent != null && !parent.copied;
+                 parent = parent.parent) {
+                parent.copied = true;
+                copies.add(parent);
+            }
+        }
+        replaced.clear();
+
+        // Operands have to be copied before the operations containing them
+        copies.sort((first, second) -> Integer.compare(second.depth, first.depth));
+        for (Slot slot : copies) {
+            slot.copied = false;
+            // Operations replaced by their results do not need a copy
+            if (slot.node instanceof OperationExpressionNode) {
+                slot.node = copy(slot);
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of the operation of a slot with the current nodes of its operands.
+     *
+     * @param slot the slot of the operation
+     * @return a copy of the operation of the slot with the current nodes of its operands
+     */
+    private static OperationExpressionNode copy(Slot slot) {
+        assert slot.operands != null;
+        ListItem<ArithmeticExpressionNode> head = null;
+        ListItem<ArithmeticExpressionNode> tail = null;
+        for (Slot operand : slot.operands) {
+            ListItem<ArithmeticExpressionNode> item = new ListItem<>();
+            item.key = operand.node;
+            if (head == null) {
+                head = item;
+            } else {
+                tail.next = item;
+            }
+            tail = item;
+        }
+        Operator operator = ((OperationExpressionNode) slot.node).getOperator();
+        return new OperationExpressionNode(operator, head, true);
+    }
+
     /**
      * Returns the map of variables and their values.
      *
@@ -58,9 +167,399 @@ public class ArithmeticExpressionEvaluator {
      * Evaluates the arithmetic expression tree by replacing the variables (identifiers) of the
      * expression with their values and evaluates the most inner expressions.
      *
+     * <p>The returned list is a read-only view of the tokens of this step, so no step copies the
+     * tokens. The view is only valid until the next step: any access to it afterwards throws a
+     * {@link ConcurrentModificationException}, so it has to be copied to keep the tokens of this
+     * step.
+     *
      * @return the list of tokens representing  the evaluation
+     * @throws IllegalIdentifierExceptions  if the identifier in the map is illegal to use
+     * @throws UndefinedIdentifierException if the identifier is not defined for use in the map
      */
     public List<String> nextStep() {
-        throw new RuntimeException("H5 - not implemented"); // TODO: H5 - remove if implemented
+        if (tokens == null) {
+            tokens = new Tokens();
+            index(tokens);
+        }
+
+        // Evaluate the whole step before modifying anything, in case an evaluation fails
+        MyNumber[] values = new MyNumber[variables.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = variables.get(i).node.evaluate(identifiers);
+        }
+        MyNumber[] results = new MyNumber[innermost.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = copy(innermost.get(i)).evaluate(identifiers);
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            replace(variables.get(i), values[i]);
+        }
+        variables = List.of();
+        List<Slot> next = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            Slot slot = innermost.get(i);
+            replace(slot, results[i]);
+            if (slot.parent != null && --slot.parent.pending == 0) {
+                next.add(slot.parent);
+            }
+        }
+        innermost = next;
+        return tokens.view();
+    }
+
+    /**
+     * Renders the tokens of the arithmetic expression tree and collects its slots, identifiers and
+     * innermost operations.
+     *
+     * @param tokens the list to append the tokens to
+     */
+    private void index(Tokens tokens) {
+        Slot[] path = new Slot[16];
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ListItem<ArithmeticExpressionNode>[] next = new ListItem[16];
+        int[] indices = new int[16];
+        int top = -1;
+        Slot slot = new Slot(null, 0, root);
+        rootSlot = slot;
+        while (true) {
+            if (slot.node instanceof OperationExpressionNode operation) {
+                slot.first = tokens.append(ArithmeticExpressionNode.LEFT_BRACKET);
+                tokens.append(operation.getOperator().getSymbol());
+                int size = 0;
+                for (ListItem<ArithmeticExpressionNode> item = operation.operands();
+                     item != null; item = item.next) {
+                    size++;
+                }
+                slot.operands = new Slot[size];
+                if (++top == path.length) {
+                    path = Arrays.copyOf(path, 2 * top);
+                    next = Arrays.copyOf(next, 2 * top);
+                    indices = Arrays.copyOf(indices, 2 * top);
+                }
+                path[top] = slot;
+                next[top] = operation.operands();
+                indices[top] = 0;
+            } else {
+                slot.first = slot.last = tokens.append(slot.node.toString());
+                if (slot.node instanceof IdentifierExpressionNode) {
+                    variables.add(slot);
+                }
+            }
+
+            // Close all operations whose operands have been rendered
+            while (top >= 0 && next[top] == null) {
+                Slot operation = path[top--];
+                operation.last = tokens.append(ArithmeticExpressionNode.RIGHT_BRACKET);
+                if (operation.pending == 0) {
+                    innermost.add(operation);
+                }
+            }
+            if (top < 0) {
+                return;
+            }
+            ListItem<ArithmeticExpressionNode> item = next[top];
+            next[top] = item.next;
+            Slot parent = path[top];
+            slot = new Slot(parent, parent.depth + 1, item.key);
+            parent.operands[indices[top]++] = slot;
+            if (item.key instanceof OperationExpressionNode) {
+                parent.pending++;
+            }
+        }
+    }
+
+    /**
+     * Replaces the node of a slot by a literal in the tokens. The tree is only updated when its
+     * next version is built.
+     *
+     * @param slot  the slot to replace
+     * @param value the value of the literal
+     */
+    private void replace(Slot slot, MyNumber value) {
+        LiteralExpressionNode literal = new LiteralExpressionNode(value);
+        slot.node = literal;
+        replaced.add(slot);
+        assert tokens != null;
+        tokens.replace(slot.first, slot.last, literal.toString());
+        slot.last = slot.first;
+    }
+
+    /**
+     * A node of the arithmetic expression tree together with its position in the tree and its
+     * tokens.
+     */
+    private static final class Slot {
+
+        /**
+         * The operation containing the node or {@code null} if the node is the root.
+         */
+        private final @Nullable Slot parent;
+
+        /**
+         * The depth of the node in the tree.
+         */
+        private final int depth;
+
+        /**
+         * The node in the last built version of the tree.
+         */
+        private ArithmeticExpressionNode node;
+
+        /**
+         * The slots of the operands of the node or {@code null} if the node is not an operation.
+         */
+        private @Nullable Slot[] operands;
+
+        /**
+         * {@code true} if the node is copied when the next version of the tree is built.
+         */
+        private boolean copied;
+
+        /**
+         * The number of operands of the node which are operations.
+         */
+        private int pending;
+
+        /**
+         * The first token of the node.
+         */
+        private Token first;
+
+        /**
+         * The last token of the node.
+         */
+        private Token last;
+
+        /**
+         * Constructs and initializes a slot.
+         *
+         * @param parent the operation containing the node or {@code null} if the node is the root
+         * @param depth  the depth of the node in the tree
+         * @param node   the node
+         */
+        Slot(@Nullable Slot parent, int depth, ArithmeticExpressionNode node) {
+            this.parent = parent;
+            this.depth = depth;
+            this.node = node;
+        }
+    }
+
+    /**
+     * A token in a doubly linked list of tokens.
+     */
+    private static final class Token {
+
+        /**
+         * The text of this token.
+         */
+        private String text;
+
+        /**
+         * The previous token.
+         */
+        private Token previous;
+
+        /**
+         * The next token.
+         */
+        private Token next;
+
+        /**
+         * Constructs and initializes a token.
+         *
+         * @param text the text of the token
+         */
+        Token(String text) {
+            this.text = text;
+        }
+    }
+
+    /**
+     * A read-only list of tokens backed by a doubly linked list, in which a range of tokens can be
+     * replaced in constant time. Its iterators and {@link #view() views} are fail-fast.
+     */
+    private static final class Tokens extends AbstractSequentialList<String> {
+
+        /**
+         * The sentinel before the first and after the last token.
+         */
+        private final Token sentinel = new Token("");
+
+        /**
+         * The number of tokens.
+         */
+        private int size;
+
+        /**
+         * Constructs and initializes an empty list of tokens.
+         */
+        Tokens() {
+            sentinel.previous = sentinel;
+            sentinel.next = sentinel;
+        }
+
+        /**
+         * Appends a token.
+         *
+         * @param text the text of the token
+         * @return the appended token
+         */
+        Token append(String text) {
+            Token token = new Token(text);
+            token.previous = sentinel.previous;
+            token.next = sentinel;
+            sentinel.previous.next = token;
+            sentinel.previous = token;
+            size++;
+            modCount++;
+            return token;
+        }
+
+        /**
+         * Replaces the tokens from the first to the last token by a single token. The tokens in
+         * between are only counted, so the cost is proportional to their number.
+         *
+         * @param first the first token to replace, which keeps its place
+         * @param last  the last token to replace
+         * @param text  the text of the replacing token
+         */
+        void replace(Token first, Token last, String text) {
+            for (Token token = first; token != last; token = token.next) {
+                size--;
+            }
+            first.text = text;
+            first.next = last.next;
+            last.next.previous = first;
+            modCount++;
+        }
+
+        /**
+         * Returns a read-only view of the current tokens, which fails as soon as the tokens are
+         * modified.
+         *
+         * @return a view of the current tokens
+         */
+        List<String> view() {
+            int expectedModCount = modCount;
+            return new AbstractSequentialList<>() {
+
+                @Override
+                public int size() {
+                    checkForComodification(expectedModCount);
+                    return size;
+                }
+
+                @Override
+                public ListIterator<String> listIterator(int index) {
+                    checkForComodification(expectedModCount);
+                    return Tokens.this.listIterator(index);
+                }
+            };
+        }
+
+        /**
+         * Throws a {@link ConcurrentModificationException} if the tokens have been modified.
+         *
+         * @param expectedModCount the number of modifications the caller has seen
+         * @throws ConcurrentModificationException if the tokens have been modified
+         */
+        private void checkForComodification(int expectedModCount) {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public ListIterator<String> listIterator(int index) {
+            if (index < 0 || index > size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            Token start = sentinel.next;
+            for (int i = 0; i < index; i++) {
+                start = start.next;
+            }
+            Token first = start;
+            return new ListIterator<>() {
+
+                /**
+                 * The token returned by the next call of {@link #next()}.
+                 */
+                private Token cursor = first;
+
+                /**
+                 * The index of the token returned by the next call of {@link #next()}.
+                 */
+                private int position = index;
+
+                /**
+                 * The number of modifications of the tokens when this iterator was created.
+                 */
+                private final int expectedModCount = modCount;
+
+                @Override
+                public boolean hasNext() {
+                    return cursor != sentinel;
+                }
+
+                @Override
+                public String next() {
+                    checkForComodification(expectedModCount);
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    String text = cursor.text;
+                    cursor = cursor.next;
+                    position++;
+                    return text;
+                }
+
+                @Override
+                public boolean hasPrevious() {
+                    return cursor.previous != sentinel;
+                }
+
+                @Override
+                public String previous() {
+                    checkForComodification(expectedModCount);
+                    if (!hasPrevious()) {
+                        throw new NoSuchElementException();
+                    }
+                    cursor = cursor.previous;
+                    position--;
+                    return cursor.text;
+                }
+
+                @Override
+                public int nextIndex() {
+                    return position;
+                }
+
+                @Override
+                public int previousIndex() {
+                    return position - 1;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void set(String text) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void add(String text) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
     }
 }
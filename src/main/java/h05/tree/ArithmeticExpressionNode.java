@@ -3,12 +3,18 @@ package h05.tree;
 import h05.exception.IllegalIdentifierExceptions;
 import h05.exception.UndefinedIdentifierException;
 import h05.math.MyNumber;
+import h05.math.NumericContext;
 
 import java.util.Map;
 
 /**
  * Represents an arithmetic expression node.
  *
+ * <p>Arithmetic expression nodes are immutable, so a tree can be shared and evaluated by many
+ * threads concurrently without copying it. The evaluation has no state besides the map of
+ * identifiers, which is only read and may be shared as well as long as it is not modified
+ * concurrently.
+ *
  * @author Nhan Huynh
  */
 public interface ArithmeticExpressionNode extends Cloneable {
@@ -31,7 +37,32 @@ public interface ArithmeticExpressionNode extends Cloneable {
      * @throws IllegalIdentifierExceptions  if the identifier in the map is illegal to use
      * @throws UndefinedIdentifierException if the identifier is not defined for use in the map
      */
-    MyNumber evaluate(Map<String, MyNumber> identifiers);
+    default MyNumber evaluate(Map<String, MyNumber> identifiers) {
+        return evaluate(identifiers, NumericContext.DEFAULT);
+    }
+
+    /**
+     * Evaluates the arithmetic expression with real results rounded according to the given numeric
+     * context.
+     *
+     * @param identifiers a map of identifiers and their values
+     * @param context     the numeric context of real results
+     * @return the result of the arithmetic expression
+     * @throws IllegalIdentifierExceptions  if the identifier in the map is illegal to use
+     * @throws UndefinedIdentifierException if the identifier is not defined for use in the map
+     */
+    MyNumber evaluate(Map<String, MyNumber> identifiers, NumericContext context);
+
+    /**
+     * Binds this arithmetic expression to the slots of the given binding. The names of the
+     * identifiers are resolved once, the returned expression evaluates an environment created by
+     * {@link SlotBinding#bind(Map)}.
+     *
+     * @param binding the slots of the identifiers
+     * @return the bound arithmetic expression
+     * @throws UndefinedIdentifierException if an identifier has no slot in the binding
+     */
+    CompiledExpression bind(SlotBinding binding);
 
     /**
      * Returns {@code true} if this node is an operand.
@@ -48,7 +79,8 @@ public interface ArithmeticExpressionNode extends Cloneable {
     boolean isOperation();
 
     /**
-     * Returns a clone of this node (deep copy).
+     * Returns a clone of this node. Since the nodes are immutable, a clone may share its subtrees
+     * with this node.
      *
      * @return a clone of this node
      */
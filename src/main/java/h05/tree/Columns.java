@@ -0,0 +1,62 @@
+package h05.tree;
+
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.MyReal;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Converts primitive columns to columns of numbers for the {@link FlatExpression#evaluate(Map,
+ * MyNumber[], h05.math.NumericContext) batch evaluation} of expressions.
+ *
+ * <p>Example:
+ * <ul>
+ *     <li>Column: 1, 2, 3</li>
+ * </ul>
+ *
+ * <pre>{@code
+ *    MyNumber[] column = Columns.of(new long[]{1, 2, 3});
+ * }</pre>
+ *
+ * @author Nhan Huynh
+ */
+public final class Columns {
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private Columns() {
+    }
+
+    /**
+     * Returns the column of integers with the given values.
+     *
+     * @param values the values of the column
+     * @return the column of integers with the given values
+     */
+    public static MyNumber[] of(long[] values) {
+        MyNumber[] column = new MyNumber[values.length];
+        for (int i = 0; i < values.length; i++) {
+            column[i] = MyInteger.valueOf(values[i]);
+        }
+        return column;
+    }
+
+    /**
+     * Returns the column of real numbers with the given values. Each value is converted with its
+     * canonical decimal representation, see {@link BigDecimal#valueOf(double)}.
+     *
+     * @param values the values of the column
+     * @return the column of real numbers with the given values
+     * @throws NumberFormatException if a value is infinite or not a number
+     */
+    public static MyNumber[] of(double[] values) {
+        MyNumber[] column = new MyNumber[values.length];
+        for (int i = 0; i < values.length; i++) {
+            column[i] = new MyReal(BigDecimal.valueOf(values[i]));
+        }
+        return column;
+    }
+}
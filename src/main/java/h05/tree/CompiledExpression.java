@@ -0,0 +1,48 @@
+package h05.tree;
+
+import h05.math.MyNumber;
+import h05.math.NumericContext;
+
+/**
+ * Represents an arithmetic expression compiled by the {@link ExpressionCompiler}. The identifiers
+ * of the expression are not looked up by name but bound to slots, i.e. indices into the array
+ * passed to {@link #evaluate(MyNumber[])}.
+ *
+ * <p>Example:
+ * <ul>
+ *     <li>Racket notation: (+ a (* b 2))</li>
+ * </ul>
+ *
+ * <pre>{@code
+ *    CompiledExpression expression = ExpressionCompiler.compile(root, List.of("a", "b"));
+ *    MyNumber result = expression.evaluate(new MyNumber[]{a, b});
+ * }</pre>
+ *
+ * <p>A compiled expression has no mutable state, so it can be evaluated by many threads
+ * concurrently, each with its own array of slots.
+ *
+ * @author Nhan Huynh
+ * @see ExpressionCompiler
+ */
+public interface CompiledExpression {
+
+    /**
+     * Evaluates the compiled arithmetic expression.
+     *
+     * @param slots the values of the identifiers, indexed by their slots
+     * @return the result of the arithmetic expression
+     */
+    default MyNumber evaluate(MyNumber[] slots) {
+        return evaluate(slots, NumericContext.DEFAULT);
+    }
+
+    /**
+     * Evaluates the compiled arithmetic expression with real results rounded according to the given
+     * numeric context.
+     *
+     * @param slots   the values of the identifiers, indexed by their slots
+     * @param context the numeric context of real results
+     * @return the result of the arithmetic expression
+     */
+    MyNumber evaluate(MyNumber[] slots, NumericContext context);
+}
@@ -0,0 +1,557 @@
+package h05.tree;
+
+import h05.exception.WrongNumberOfOperandsException;
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.MyRational;
+import h05.math.MyReal;
+import h05.math.NumericContext;
+import h05.math.Rational;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Encodes arithmetic expression trees into a compact binary format and decodes them again, which
+ * is much faster than tokenizing and parsing their string representation.
+ *
+ * <p>An encoded expression consists of
+ * <ol>
+ *     <li>the magic bytes {@code 'H' '5'} and the version of the format,</li>
+ *     <li>the table of identifier names: their number followed by the length and the ASCII
+ *     characters of each name,</li>
+ *     <li>the nodes of the tree in pre-order, each starting with a tag.</li>
+ * </ol>
+ * All integers are variable length quantities with 7 bits per byte, least significant group
+ * first; signed integers are zigzag encoded before. The tags of the nodes are
+ * <ul>
+ *     <li>{@value #INTEGER}: an integer fitting into a {@code long}</li>
+ *     <li>{@value #BIG_INTEGER}: an integer as length and two's complement bytes</li>
+ *     <li>{@value #RATIONAL}: a rational number as {@code long} numerator and denominator</li>
+ *     <li>{@value #BIG_RATIONAL}: a rational number as two big integers</li>
+ *     <li>{@value #REAL}: a real number as scale and {@code long} unscaled value</li>
+ *     <li>{@value #BIG_REAL}: a real number as scale and big unscaled value</li>
+ *     <li>{@value #IDENTIFIER}: an identifier as index into the table of names</li>
+ *     <li>{@value #OPERATION} + {@link Operator#ordinal()}: an operation followed by the number
+ *     of its operands and the operands</li>
+ * </ul>
+ *
+ * <p>The decoder reads directly from a {@link ByteBuffer}, e.g. a memory mapped file, and decodes
+ * every identifier name once, so all identifier nodes with the same name share their name.
+ *
+ * <p>Example:
+ * <ul>
+ *     <li>Racket notation: (+ a (* a 2))</li>
+ * </ul>
+ *
+ * <pre>{@code
+ *    byte[] bytes = ExpressionCodec.encode(root);
+ *    ArithmeticExpressionNode decoded = ExpressionCodec.decode(ByteBuffer.wrap(bytes));
+ * }</pre>
+ *
+ * @author Nhan Huynh
+ */
+public final class ExpressionCodec {
+
+    /**
+     * The version of the format.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The first magic byte.
+     */
+    private static final byte MAGIC_H = 'H';
+
+    /**
+     * The second magic byte.
+     */
+    private static final byte MAGIC_5 = '5';
+
+    /**
+     * The tag of an integer fitting into a {@code long}.
+     */
+    static final int INTEGER = 0;
+
+    /**
+     * The tag of an integer not fitting into a {@code long}.
+     */
+    static final int BIG_INTEGER = 1;
+
+    /**
+     * The tag of a rational number whose numerator and denominator fit into a {@code long}.
+     */
+    static final int RATIONAL = 2;
+
+    /**
+     * The tag of a rational number whose numerator or denominator does not fit into a {@code
+     * long}.
+     */
+    static final int BIG_RATIONAL = 3;
+
+    /**
+     * The tag of a real number whose unscaled value fits into a {@code long}.
+     */
+    static final int REAL = 4;
+
+    /**
+     * The tag of a real number whose unscaled value does not fit into a {@code long}.
+     */
+    static final int BIG_REAL = 5;
+
+    /**
+     * The tag of an identifier.
+     */
+    static final int IDENTIFIER = 6;
+
+    /**
+     * The tag of an operation with the first operator, the other operators follow in their order.
+     */
+    static final int OPERATION = 7;
+
+    /**
+     * The operators indexed by their ordinal.
+     */
+    private static final Operator[] OPERATORS = Operator.values();
+
+    /**
+     * The initial capacity of the stacks.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private ExpressionCodec() {
+    }
+
+    /**
+     * Encodes the given arithmetic expression tree.
+     *
+     * @param root the root node of the arithmetic expression tree
+     * @return the encoded arithmetic expression tree
+     * @throws NullPointerException if the root is {@code null}
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static byte[] encode(ArithmeticExpressionNode root) {
+        Objects.requireNonNull(root, "root null");
+        Output out = new Output();
+        out.buffer.put(MAGIC_H).put(MAGIC_5);
+        out.writeVarLong(VERSION);
+
+        SlotBinding names = SlotBinding.of(root);
+        out.writeVarLong(names.size());
+        for (String name : names.getNames()) {
+            out.writeVarLong(name.length());
+            out.ensureRemaining(name.length());
+            for (int i = 0; i < name.length(); i++) {
+                out.buffer.put((byte) name.charAt(i));
+            }
+        }
+
+        // Pre-order traversal keeping the next operand of every open operation on a stack
+        ListItem<ArithmeticExpressionNode>[] next = new ListItem[INITIAL_CAPACITY];
+        int top = -1;
+        ArithmeticExpressionNode node = root;
+        while (true) {
+            if (node instanceof OperationExpressionNode operation) {
+                out.writeVarLong(OPERATION + operation.getOperator().ordinal());
+                int count = 0;
+                for (ListItem<ArithmeticExpressionNode> item = operation.operands();
+                     item != null; item = item.next) {
+                    count++;
+                }
+                out.writeVarLong(count);
+                if (++top == next.length) {
+                    next = Arrays.copyOf(next, 2 * next.length);
+                }
+                next[top] = operation.operands();
+            } else if (node instanceof IdentifierExpressionNode identifier) {
+                out.writeVarLong(IDENTIFIER);
+                out.writeVarLong(names.slotOf(identifier.getValue()));
+            } else {
+                out.writeNumber(((LiteralExpressionNode) node).getValue());
+            }
+
+            while (top >= 0 && next[top] == null) {
+                top--;
+            }
+            if (top < 0) {
+                return Arrays.copyOf(out.buffer.array(), out.buffer.position());
+            }
+            node = next[top].key;
+            next[top] = next[top].next;
+        }
+    }
+
+    /**
+     * Decodes an arithmetic expression tree starting at the position of the given buffer. The
+     * position of the buffer is advanced to the first byte after the encoded tree, so several
+     * trees can be decoded from one buffer one after another.
+     *
+     * @param buffer the buffer to read from
+     * @return the root node of the decoded arithmetic expression tree
+     * @throws BufferUnderflowException       if the encoded tree is truncated or a length exceeds
+     *                                        the remaining bytes
+     * @throws IllegalArgumentException       if the bytes are not an encoded tree of a supported
+     *                                        version or contain a malformed number
+     * @throws WrongNumberOfOperandsException if an operation has a wrong number of operands
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static ArithmeticExpressionNode decode(ByteBuffer buffer) {
+        if (buffer.get() != MAGIC_H || buffer.get() != MAGIC_5) {
+            throw new IllegalArgumentException("Not an encoded expression");
+        }
+        long version = readVarLong(buffer);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported version: " + version);
+        }
+
+        int nameCount = readLength(buffer);
+        // Every name takes at least one byte, so larger counts cannot be followed by their names
+        if (nameCount > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String[] names = new String[nameCount];
+        for (int i = 0; i < nameCount; i++) {
+            int length = readLength(buffer);
+            if (length > buffer.remaining()) {
+                throw new BufferUnderflowException();
+            }
+            names[i] = StandardCharsets.US_ASCII.decode(buffer.slice(buffer.position(), length))
+                .toString();
+            buffer.position(buffer.position() + length);
+        }
+
+        // The operations whose operands have not been decoded completely
+        Operator[] operators = new Operator[INITIAL_CAPACITY];
+        int[] remaining = new int[INITIAL_CAPACITY];
+        ListItem<ArithmeticExpressionNode>[] heads = new ListItem[INITIAL_CAPACITY];
+        ListItem<ArithmeticExpressionNode>[] tails = new ListItem[INITIAL_CAPACITY];
+        int top = -1;
+        while (true) {
+            int tag = readTag(buffer);
+            ArithmeticExpressionNode node;
+            if (tag >= OPERATION) {
+                if (++top == operators.length) {
+                    int capacity = 2 * operators.length;
+                    operators = Arrays.copyOf(operators, capacity);
+                    remaining = Arrays.copyOf(remaining, capacity);
+                    heads = Arrays.copyOf(heads, capacity);
+                    tails = Arrays.copyOf(tails, capacity);
+                }
+                operators[top] = OPERATORS[tag - OPERATION];
+                remaining[top] = readLength(buffer);
+                heads[top] = null;
+                tails[top] = null;
+                if (remaining[top] > 0) {
+                    continue;
+                }
+                node = close(operators, heads, tails, top--);
+            } else if (tag == IDENTIFIER) {
+                int index = readLength(buffer);
+                if (index >= names.length) {
+                    throw new IllegalArgumentException("Undefined name index: " + index);
+                }
+                node = new IdentifierExpressionNode(names[index]);
+            } else {
+                node = new LiteralExpressionNode(readNumber(buffer, tag));
+            }
+
+            // Append the node to the innermost operation, closing all operations it completes
+            while (true) {
+                if (top < 0) {
+                    return node;
+                }
+                ListItem<ArithmeticExpressionNode> item = new ListItem<>();
+                item.key = node;
+                if (heads[top] == null) {
+                    heads[top] = item;
+                } else {
+                    tails[top].next = item;
+                }
+                tails[top] = item;
+                if (--remaining[top] > 0) {
+                    break;
+                }
+                node = close(operators, heads, tails, top--);
+            }
+        }
+    }
+
+    /**
+     * Creates the operation node of a complete operation on the stack and clears its entry.
+     *
+     * @param operators the operators of the operations on the stack
+     * @param heads     the first operands of the operations on the stack
+     * @param tails     the last operands of the operations on the stack
+     * @param index     the index of the complete operation
+     * @return the operation node
+     */
+    private static ArithmeticExpressionNode close(
+        Operator[] operators,
+        ListItem<ArithmeticExpressionNode>[] heads,
+        ListItem<ArithmeticExpressionNode>[] tails,
+        int index) {
+        ArithmeticExpressionNode node =
+            new OperationExpressionNode(operators[index], heads[index], true);
+        operators[index] = null;
+        heads[index] = null;
+        tails[index] = null;
+        return node;
+    }
+
+    /**
+     * Decodes a number literal.
+     *
+     * @param buffer the buffer to read from
+     * @param tag    the tag of the number
+     * @return the decoded number
+     * @throws BufferUnderflowException if the number is truncated
+     * @throws IllegalArgumentException if the tag is not the tag of a number or the number is
+     *                                  malformed
+     */
+    private static MyNumber readNumber(ByteBuffer buffer, int tag) {
+        return switch (tag) {
+            case INTEGER -> MyInteger.valueOf(readZigZag(buffer));
+            case BIG_INTEGER -> MyInteger.valueOf(readBigInteger(buffer));
+            case RATIONAL -> {
+                long numerator = readZigZag(buffer);
+                long denominator = readVarLong(buffer);
+                if (denominator == 0) {
+                    throw new IllegalArgumentException("Zero denominator");
+                }
+                yield MyRational.valueOf(numerator, denominator);
+            }
+            case BIG_RATIONAL -> {
+                BigInteger numerator = readBigInteger(buffer);
+                BigInteger denominator = readBigInteger(buffer);
+                if (denominator.signum() == 0) {
+                    throw new IllegalArgumentException("Zero denominator");
+                }
+                yield MyRational.valueOf(new Rational(numerator, denominator));
+            }
+            case REAL -> {
+                int scale = (int) readZigZag(buffer);
+                yield real(BigDecimal.valueOf(readZigZag(buffer), scale));
+            }
+            case BIG_REAL -> {
+                int scale = (int) readZigZag(buffer);
+                yield real(new BigDecimal(readBigInteger(buffer), scale));
+            }
+            default -> throw new IllegalArgumentException("Unknown tag: " + tag);
+        };
+    }
+
+    /**
+     * Returns the real number with the given value, keeping the scale of the value.
+     *
+     * @param value the value of the real number
+     * @return the real number with the given value
+     */
+    private static MyNumber real(BigDecimal value) {
+        if (value.scale() == MyReal.SCALE) {
+            return new MyReal(value);
+        }
+        NumericContext context =
+            new NumericContext(value.scale(), RoundingMode.UNNECESSARY, false);
+        return new MyReal(value, context);
+    }
+
+    /**
+     * Decodes a tag.
+     *
+     * @param buffer the buffer to read from
+     * @return the decoded tag
+     * @throws IllegalArgumentException if the tag is not defined
+     */
+    private static int readTag(ByteBuffer buffer) {
+        long tag = readVarLong(buffer);
+        if (tag >= OPERATION + OPERATORS.length) {
+            throw new IllegalArgumentException("Unknown tag: " + tag);
+        }
+        return (int) tag;
+    }
+
+    /**
+     * Decodes a non-negative length or index.
+     *
+     * @param buffer the buffer to read from
+     * @return the decoded length or index
+     * @throws IllegalArgumentException if the value does not fit into an {@code int}
+     */
+    private static int readLength(ByteBuffer buffer) {
+        long length = readVarLong(buffer);
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid length: " + length);
+        }
+        return (int) length;
+    }
+
+    /**
+     * Decodes a variable length quantity.
+     *
+     * @param buffer the buffer to read from
+     * @return the decoded value
+     * @throws IllegalArgumentException if the quantity is longer than 64 bits
+     */
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable length quantity");
+    }
+
+    /**
+     * Decodes a zigzag encoded variable length quantity.
+     *
+     * @param buffer the buffer to read from
+     * @return the decoded signed value
+     */
+    private static long readZigZag(ByteBuffer buffer) {
+        long value = readVarLong(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Decodes a big integer from its length and its two's complement bytes.
+     *
+     * @param buffer the buffer to read from
+     * @return the decoded big integer
+     * @throws BufferUnderflowException if the bytes are truncated
+     * @throws IllegalArgumentException if the length is zero
+     */
+    private static BigInteger readBigInteger(ByteBuffer buffer) {
+        int length = readLength(buffer);
+        if (length == 0) {
+            throw new IllegalArgumentException("Empty big integer");
+        }
+        // Check the length before allocating, it may be corrupted
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new BigInteger(bytes);
+    }
+
+    /**
+     * A growable buffer of encoded bytes.
+     */
+    private static final class Output {
+
+        /**
+         * The bytes written so far between the start and the position of the buffer.
+         */
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+
+        /**
+         * Makes sure that the given number of bytes can be written.
+         *
+         * @param length the number of bytes to write
+         */
+        void ensureRemaining(int length) {
+            if (buffer.remaining() < length) {
+                int capacity = Math.max(2 * buffer.capacity(), buffer.position() + length);
+                buffer = ByteBuffer.allocate(capacity).put(buffer.flip());
+            }
+        }
+
+        /**
+         * Encodes a variable length quantity.
+         *
+         * @param value the value to encode, interpreted as unsigned
+         */
+        void writeVarLong(long value) {
+            ensureRemaining(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) (value & 0x7F | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        /**
+         * Encodes a signed value as zigzag encoded variable length quantity.
+         *
+         * @param value the value to encode
+         */
+        void writeZigZag(long value) {
+            writeVarLong(value << 1 ^ value >> 63);
+        }
+
+        /**
+         * Encodes a big integer as its length and its two's complement bytes.
+         *
+         * @param value the value to encode
+         */
+        void writeBigInteger(BigInteger value) {
+            byte[] bytes = value.toByteArray();
+            writeVarLong(bytes.length);
+            ensureRemaining(bytes.length);
+            buffer.put(bytes);
+        }
+
+        /**
+         * Encodes a number literal with its tag.
+         *
+         * @param number the number to encode
+         */
+        void writeNumber(MyNumber number) {
+            if (number instanceof MyInteger) {
+                BigInteger value = number.toInteger();
+                if (fitsLong(value)) {
+                    writeVarLong(INTEGER);
+                    writeZigZag(value.longValue());
+                } else {
+                    writeVarLong(BIG_INTEGER);
+                    writeBigInteger(value);
+                }
+            } else if (number instanceof MyRational) {
+                Rational value = number.toRational();
+                BigInteger numerator = value.getNumerator();
+                BigInteger denominator = value.getDenominator();
+                if (fitsLong(numerator) && fitsLong(denominator)) {
+                    writeVarLong(RATIONAL);
+                    writeZigZag(numerator.longValue());
+                    writeVarLong(denominator.longValue());
+                } else {
+                    writeVarLong(BIG_RATIONAL);
+                    writeBigInteger(numerator);
+                    writeBigInteger(denominator);
+                }
+            } else {
+                BigDecimal value = number.toReal();
+                BigInteger unscaled = value.unscaledValue();
+                writeVarLong(fitsLong(unscaled) ? REAL : BIG_REAL);
+                writeZigZag(value.scale());
+                if (fitsLong(unscaled)) {
+                    writeZigZag(unscaled.longValue());
+                } else {
+                    writeBigInteger(unscaled);
+                }
+            }
+        }
+
+        /**
+         * Returns {@code true} if the given integer fits into a {@code long}.
+         *
+         * @param value the integer to check
+         * @return {@code true} if the given integer fits into a {@code long}
+         */
+        private static boolean fitsLong(BigInteger value) {
+            return value.bitLength() < Long.SIZE;
+        }
+    }
+}
@@ -0,0 +1,860 @@
+package h05.tree;
+
+import h05.exception.UndefinedIdentifierException;
+import h05.exception.WrongNumberOfOperandsException;
+import h05.math.MyNumber;
+import h05.math.NumericContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compiles arithmetic expression trees to JVM bytecode. Every compiled expression is a hidden
+ * class whose {@link CompiledExpression#evaluate(MyNumber[], NumericContext)} method evaluates the
+ * tree as straight-line code: literals are loaded from a constant array, identifiers from the slot
+ * array and each operation is a direct call to the corresponding method of {@link MyNumber}. There
+ * is neither a tree walk nor an operator dispatch left at evaluation time, so the JIT compiler can
+ * inline the whole expression.
+ *
+ * <p>Example:
+ * <ul>
+ *     <li>Racket notation: (+ a (* b 2))</li>
+ *     <li>Generated code: a.plus(b.times(2, context), context)</li>
+ * </ul>
+ *
+ * <pre>{@code
+ *    CompiledExpression expression = ExpressionCompiler.compile(root, List.of("a", "b"));
+ *    MyNumber result = expression.evaluate(new MyNumber[]{a, b});
+ * }</pre>
+ *
+ * <p>Trees whose code would exceed the limits of a single JVM method, or be too long for the JIT
+ * compiler to compile it, are not compiled but {@link
+ * ArithmeticExpressionNode#bind(SlotBinding) bound}, which binds very deep trees to a {@link
+ * FlatExpression}. The code is generated without recursion, so the depth of a tree is only
+ * limited by the available memory.
+ *
+ * @author Nhan Huynh
+ */
+public final class ExpressionCompiler {
+
+    /**
+     * The internal name of the generated classes.
+     */
+    private static final String CLASS_NAME = "h05/tree/GeneratedExpression";
+
+    /**
+     * The internal name of {@link MyNumber}.
+     */
+    private static final String NUMBER = "h05/math/MyNumber";
+
+    /**
+     * The descriptor of {@link MyNumber}.
+     */
+    private static final String NUMBER_DESCRIPTOR = "Lh05/math/MyNumber;";
+
+    /**
+     * The descriptor of {@link NumericContext}.
+     */
+    private static final String CONTEXT_DESCRIPTOR = "Lh05/math/NumericContext;";
+
+    /**
+     * The descriptor of an array of {@link MyNumber}s.
+     */
+    private static final String NUMBERS_DESCRIPTOR = "[Lh05/math/MyNumber;";
+
+    /**
+     * The name of the field holding the literals of the compiled expression.
+     */
+    private static final String CONSTANTS = "constants";
+
+    /**
+     * The maximum length of the code of a method, number of stack entries and number of constant
+     * pool entries of a class file.
+     */
+    private static final int LIMIT = 0xFFFF;
+
+    /**
+     * The maximum length of the code of the generated method. HotSpot does not compile methods
+     * with more than 8000 bytes of code (see {@code -XX:-DontCompileHugeMethods}), so longer
+     * expressions would stay interpreted and are bound instead.
+     */
+    private static final int MAX_CODE_LENGTH = 8000;
+
+    /**
+     * The initial capacity of the stack of the generator.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private ExpressionCompiler() {
+    }
+
+    /**
+     * Compiles the given arithmetic expression tree. The identifier with the name {@code
+     * slots.get(i)} is bound to the {@code i}-th slot of the compiled expression.
+     *
+     * @param root  the root of the arithmetic expression tree to compile
+     * @param slots the names of the identifiers in slot order
+     * @return the compiled arithmetic expression
+     * @throws NullPointerException         if the root or the slots are {@code null}
+     * @throws UndefinedIdentifierException if an identifier of the tree has no slot
+     */
+    public static CompiledExpression compile(ArithmeticExpressionNode root, List<String> slots) {
+        return compile(root, SlotBinding.of(slots));
+    }
+
+    /**
+     * Compiles the given arithmetic expression tree with the identifiers bound to the slots of the
+     * given binding.
+     *
+     * @param root    the root of the arithmetic expression tree to compile
+     * @param binding the slots of the identifiers
+     * @return the compiled arithmetic expression
+     * @throws NullPointerException         if the root or the binding is {@code null}
+     * @throws UndefinedIdentifierException if an identifier of the tree has no slot
+     */
+    public static CompiledExpression compile(ArithmeticExpressionNode root, SlotBinding binding) {
+        Objects.requireNonNull(root, "root null");
+        Generator generator = new Generator(binding);
+        generator.expression(root);
+        if (!generator.fits()) {
+            return root.bind(binding);
+        }
+        byte[] bytes = generator.toClassFile();
+        try {
+            Class<?> type = MethodHandles.lookup().defineHiddenClass(bytes, true).lookupClass();
+            MyNumber[] constants = generator.constants.toArray(new MyNumber[0]);
+            return (CompiledExpression) type.getConstructor(MyNumber[].class)
+                .newInstance((Object) constants);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not define compiled expression", e);
+        }
+    }
+
+    /**
+     * Generates the class file of a compiled expression.
+     *
+     * <p>The generated class has a single field {@code constants} holding the literals, a
+     * constructor initializing it and the method {@code evaluate(MyNumber[] slots, NumericContext
+     * context)}. The local variables of the method are {@code this} (0), {@code slots} (1),
+     * {@code context} (2) and the constants (3).
+     */
+    private static final class Generator {
+
+        /**
+         * The slots of the identifiers.
+         */
+        private final SlotBinding binding;
+
+        /**
+         * The constant pool of the class file.
+         */
+        private final ConstantPool pool = new ConstantPool();
+
+        /**
+         * The code of the {@code evaluate} method.
+         */
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+        /**
+         * The literals of the expression.
+         */
+        private final List<MyNumber> constants = new ArrayList<>();
+
+        /**
+         * The current number of entries on the operand stack.
+         */
+        private int depth;
+
+        /**
+         * The maximum number of entries on the operand stack.
+         */
+        private int maxDepth;
+
+        /**
+         * Constructs and initializes a generator.
+         *
+         * @param binding the slots of the identifiers
+         */
+        Generator(SlotBinding binding) {
+            this.binding = binding;
+            // constants = this.constants
+            code.write(Opcode.ALOAD_0);
+            code.write(Opcode.GETFIELD);
+            u2(code, pool.field(CLASS_NAME, CONSTANTS, NUMBERS_DESCRIPTOR));
+            code.write(Opcode.ASTORE_3);
+            maxDepth = 1;
+        }
+
+        /**
+         * Generates the code pushing the value of the given tree onto the operand stack. Operators
+         * with more than two operands are folded from left to right. The generation stops as soon
+         * as the code does not {@link #fits() fit} into a compilable method anymore.
+         *
+         * @param root the root of the tree to generate the code for
+         * @throws UndefinedIdentifierException if an identifier has no slot
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        void expression(ArithmeticExpressionNode root) {
+            // Deeply nested operations would overflow the call stack when generated recursively,
+            // the stack holds the operations whose operands have not all been generated
+            Operator[] operators = new Operator[INITIAL_CAPACITY];
+            ListItem<ArithmeticExpressionNode>[] next = new ListItem[INITIAL_CAPACITY];
+            int[] counts = new int[INITIAL_CAPACITY];
+            int top = -1;
+            ArithmeticExpressionNode node = root;
+            while (true) {
+                if (node instanceof OperationExpressionNode operation
+                    && operation.operands() != null) {
+                    if (++top == operators.length) {
+                        int capacity = 2 * operators.length;
+                        operators = Arrays.copyOf(operators, capacity);
+                        next = Arrays.copyOf(next, capacity);
+                        counts = Arrays.copyOf(counts, capacity);
+                    }
+                    operators[top] = operation.getOperator();
+                    next[top] = operation.operands().next;
+                    counts[top] = 0;
+                    node = operation.operands().key;
+                    continue;
+                }
+                operand(node);
+                if (!fits()) {
+                    return;
+                }
+
+                // Fold the value into the operations on the stack, closing all it completes
+                while (true) {
+                    if (top < 0) {
+                        return;
+                    }
+                    if (counts[top]++ > 0) {
+                        binary(operators[top]);
+                    }
+                    ListItem<ArithmeticExpressionNode> item = next[top];
+                    if (item != null) {
+                        next[top] = item.next;
+                        node = item.key;
+                        break;
+                    }
+                    if (counts[top] == 1) {
+                        unary(operators[top]);
+                    }
+                    operators[top--] = null;
+                }
+            }
+        }
+
+        /**
+         * Generates the code pushing the value of a node without operands onto the operand stack.
+         *
+         * @param node the node to generate the code for
+         * @throws UndefinedIdentifierException if an identifier has no slot
+         */
+        private void operand(ArithmeticExpressionNode node) {
+            if (node instanceof LiteralExpressionNode literal) {
+                literal(literal.getValue());
+            } else if (node instanceof IdentifierExpressionNode identifier) {
+                load(Opcode.ALOAD_1, binding.slotOf(identifier.getValue()));
+            } else if (node instanceof OperationExpressionNode operation) {
+                literal(operation.getOperator().identity());
+            } else {
+                throw new IllegalArgumentException("Unsupported node: " + node.getClass());
+            }
+        }
+
+        /**
+         * Generates the call of a unary operator on the value on top of the operand stack.
+         *
+         * @param operator the operator
+         */
+        private void unary(Operator operator) {
+            switch (operator) {
+                case ADD, MUL -> {
+                    // The value itself
+                }
+                case SUB -> invoke("minus", "()" + NUMBER_DESCRIPTOR, 0);
+                case DIV -> invokeWithContext("divide", "");
+                case EXP -> invokeWithContext("exp", "");
+                case LN -> invokeWithContext("ln", "");
+                case SQRT -> invokeWithContext("sqrt", "");
+                default -> throw new WrongNumberOfOperandsException(
+                    1, operator.getMinOperands(), operator.getMaxOperands());
+            }
+        }
+
+        /**
+         * Generates the call of a binary operator on the two values on top of the operand stack.
+         *
+         * @param operator the operator
+         */
+        private void binary(Operator operator) {
+            switch (operator) {
+                case ADD -> invokeWithContext("plus", NUMBER_DESCRIPTOR);
+                case SUB -> invokeWithContext("minus", NUMBER_DESCRIPTOR);
+                case MUL -> invokeWithContext("times", NUMBER_DESCRIPTOR);
+                case DIV -> invokeWithContext("divide", NUMBER_DESCRIPTOR);
+                case EXPT -> invokeWithContext("expt", NUMBER_DESCRIPTOR);
+                case LOG -> invokeWithContext("log", NUMBER_DESCRIPTOR);
+                default -> throw new WrongNumberOfOperandsException(
+                    2, operator.getMinOperands(), operator.getMaxOperands());
+            }
+        }
+
+        /**
+         * Generates the code pushing the given literal onto the operand stack.
+         *
+         * @param value the literal
+         */
+        private void literal(MyNumber value) {
+            constants.add(value);
+            load(Opcode.ALOAD_3, constants.size() - 1);
+        }
+
+        /**
+         * Generates the code pushing an element of an array onto the operand stack.
+         *
+         * @param array the instruction loading the array
+         * @param index the index of the element
+         */
+        private void load(int array, int index) {
+            code.write(array);
+            if (index <= 5) {
+                code.write(Opcode.ICONST_0 + index);
+            } else if (index <= Byte.MAX_VALUE) {
+                code.write(Opcode.BIPUSH);
+                code.write(index);
+            } else if (index <= Short.MAX_VALUE) {
+                code.write(Opcode.SIPUSH);
+                u2(code, index);
+            } else {
+                code.write(Opcode.LDC_W);
+                u2(code, pool.integer(index));
+            }
+            code.write(Opcode.AALOAD);
+            push(2);
+            pop(1);
+        }
+
+        /**
+         * Generates the call of a method of {@link MyNumber} whose last parameter is the numeric
+         * context.
+         *
+         * @param name       the name of the method
+         * @param parameters the descriptors of the parameters before the numeric context
+         */
+        private void invokeWithContext(String name, String parameters) {
+            code.write(Opcode.ALOAD_2);
+            push(1);
+            int arguments = parameters.isEmpty() ? 1 : 2;
+            String descriptor = "(" + parameters + CONTEXT_DESCRIPTOR + ")" + NUMBER_DESCRIPTOR;
+            invoke(name, descriptor, arguments);
+        }
+
+        /**
+         * Generates the call of a method of {@link MyNumber} returning a {@link MyNumber}.
+         *
+         * @param name       the name of the method
+         * @param descriptor the descriptor of the method
+         * @param arguments  the number of arguments of the method
+         */
+        private void invoke(String name, String descriptor, int arguments) {
+            code.write(Opcode.INVOKEVIRTUAL);
+            u2(code, pool.method(NUMBER, name, descriptor));
+            pop(arguments);
+        }
+
+        /**
+         * Records that the given number of entries were pushed onto the operand stack.
+         *
+         * @param count the number of entries
+         */
+        private void push(int count) {
+            depth += count;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        /**
+         * Records that the given number of entries were popped from the operand stack.
+         *
+         * @param count the number of entries
+         */
+        private void pop(int count) {
+            depth -= count;
+        }
+
+        /**
+         * Returns {@code true} if the generated code fits into a single method of a class file that
+         * the JIT compiler still compiles.
+         *
+         * @return {@code true} if the generated code fits into a compilable method
+         */
+        boolean fits() {
+            // The limits of the code length include the final areturn, the constructor and the
+            // remaining constant pool entries are small and fixed
+            return code.size() < MAX_CODE_LENGTH && maxDepth <= LIMIT && pool.size() < LIMIT - 32;
+        }
+
+        /**
+         * Returns the class file of the compiled expression.
+         *
+         * @return the class file of the compiled expression
+         */
+        byte[] toClassFile() {
+            code.write(Opcode.ARETURN);
+
+            int thisClass = pool.type(CLASS_NAME);
+            int superClass = pool.type("java/lang/Object");
+            int compiledExpression = pool.type("h05/tree/CompiledExpression");
+            int constantsName = pool.utf8(CONSTANTS);
+            int constantsDescriptor = pool.utf8(NUMBERS_DESCRIPTOR);
+            int codeName = pool.utf8("Code");
+
+            ByteArrayOutputStream constructor = new ByteArrayOutputStream();
+            constructor.write(Opcode.ALOAD_0);
+            constructor.write(Opcode.INVOKESPECIAL);
+            u2(constructor, pool.method("java/lang/Object", "<init>", "()V"));
+            constructor.write(Opcode.ALOAD_0);
+            constructor.write(Opcode.ALOAD_1);
+            constructor.write(Opcode.PUTFIELD);
+            u2(constructor, pool.field(CLASS_NAME, CONSTANTS, NUMBERS_DESCRIPTOR));
+            constructor.write(Opcode.RETURN);
+
+            int constructorName = pool.utf8("<init>");
+            int constructorDescriptor = pool.utf8("(" + NUMBERS_DESCRIPTOR + ")V");
+            int evaluateName = pool.utf8("evaluate");
+            int evaluateDescriptor = pool.utf8(
+                "(" + NUMBERS_DESCRIPTOR + CONTEXT_DESCRIPTOR + ")" + NUMBER_DESCRIPTOR);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(0xCAFEBABE);
+                out.writeShort(0);
+                out.writeShort(Opcode.CLASS_FILE_VERSION);
+                pool.writeTo(out);
+                out.writeShort(Opcode.ACC_PUBLIC | Opcode.ACC_FINAL | Opcode.ACC_SUPER);
+                out.writeShort(thisClass);
+                out.writeShort(superClass);
+                out.writeShort(1);
+                out.writeShort(compiledExpression);
+
+                out.writeShort(1);
+                out.writeShort(Opcode.ACC_PRIVATE | Opcode.ACC_FINAL);
+                out.writeShort(constantsName);
+                out.writeShort(constantsDescriptor);
+                out.writeShort(0);
+
+                out.writeShort(2);
+                method(out, constructorName, constructorDescriptor, codeName, constructor, 2, 2);
+                method(out, evaluateName, evaluateDescriptor, codeName, code, maxDepth, 4);
+
+                out.writeShort(0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+        }
+
+        /**
+         * Writes a public method with the given code to a class file.
+         *
+         * @param out        the class file
+         * @param name       the constant pool index of the name of the method
+         * @param descriptor the constant pool index of the descriptor of the method
+         * @param codeName   the constant pool index of the name of the code attribute
+         * @param code       the code of the method
+         * @param maxStack   the maximum number of entries on the operand stack
+         * @param maxLocals  the number of local variables
+         * @throws IOException if an I/O error occurs
+         */
+        private static void method(
+            DataOutputStream out,
+            int name,
+            int descriptor,
+            int codeName,
+            ByteArrayOutputStream code,
+            int maxStack,
+            int maxLocals) throws IOException {
+            out.writeShort(Opcode.ACC_PUBLIC);
+            out.writeShort(name);
+            out.writeShort(descriptor);
+            out.writeShort(1);
+            out.writeShort(codeName);
+            // max_stack, max_locals, code_length, code, exception_table_length, attributes_count
+            out.writeInt(2 + 2 + 4 + code.size() + 2 + 2);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.size());
+            code.writeTo(out);
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+
+        /**
+         * Writes an unsigned two byte value in big-endian order.
+         *
+         * @param out   the stream to write to
+         * @param value the value to write
+         */
+        private static void u2(ByteArrayOutputStream out, int value) {
+            out.write(value >>> 8);
+            out.write(value);
+        }
+    }
+
+    /**
+     * The constant pool of a class file. Equal entries are shared.
+     */
+    private static final class ConstantPool {
+
+        /**
+         * The indices of the entries, keyed by their tag and content.
+         */
+        private final Map<String, Integer> indices = new HashMap<>();
+
+        /**
+         * The serialized entries.
+         */
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        /**
+         * The stream writing to the serialized entries.
+         */
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        /**
+         * The index of the next entry, indices start at 1.
+         */
+        private int next = 1;
+
+        /**
+         * Returns the number of entries of this constant pool.
+         *
+         * @return the number of entries of this constant pool
+         */
+        int size() {
+            return next - 1;
+        }
+
+        /**
+         * Returns the index of a {@code CONSTANT_Utf8} entry.
+         *
+         * @param value the string
+         * @return the index of the entry
+         */
+        int utf8(String value) {
+            Integer index = indices.get("Utf8:" + value);
+            if (index != null) {
+                return index;
+            }
+            try {
+                out.writeByte(Opcode.CONSTANT_UTF8);
+                out.writeUTF(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return add("Utf8:" + value);
+        }
+
+        /**
+         * Returns the index of a {@code CONSTANT_Integer} entry.
+         *
+         * @param value the integer
+         * @return the index of the entry
+         */
+        int integer(int value) {
+            Integer index = indices.get("Integer:" + value);
+            if (index != null) {
+                return index;
+            }
+            try {
+                out.writeByte(Opcode.CONSTANT_INTEGER);
+                out.writeInt(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return add("Integer:" + value);
+        }
+
+        /**
+         * Returns the index of a {@code CONSTANT_Class} entry.
+         *
+         * @param name the internal name of the class
+         * @return the index of the entry
+         */
+        int type(String name) {
+            Integer index = indices.get("Class:" + name);
+            if (index != null) {
+                return index;
+            }
+            int nameIndex = utf8(name);
+            entry(Opcode.CONSTANT_CLASS, nameIndex);
+            return add("Class:" + name);
+        }
+
+        /**
+         * Returns the index of a {@code CONSTANT_Fieldref} entry.
+         *
+         * @param owner      the internal name of the class declaring the field
+         * @param name       the name of the field
+         * @param descriptor the descriptor of the field
+         * @return the index of the entry
+         */
+        int field(String owner, String name, String descriptor) {
+            return member(Opcode.CONSTANT_FIELDREF, owner, name, descriptor);
+        }
+
+        /**
+         * Returns the index of a {@code CONSTANT_Methodref} entry.
+         *
+         * @param owner      the internal name of the class declaring the method
+         * @param name       the name of the method
+         * @param descriptor the descriptor of the method
+         * @return the index of the entry
+         */
+        int method(String owner, String name, String descriptor) {
+            return member(Opcode.CONSTANT_METHODREF, owner, name, descriptor);
+        }
+
+        /**
+         * Returns the index of a {@code CONSTANT_Fieldref} or {@code CONSTANT_Methodref} entry.
+         *
+         * @param tag        the tag of the entry
+         * @param owner      the internal name of the class declaring the member
+         * @param name       the name of the member
+         * @param descriptor the descriptor of the member
+         * @return the index of the entry
+         */
+        private int member(int tag, String owner, String name, String descriptor) {
+            String key = tag + ":" + owner + "." + name + descriptor;
+            Integer index = indices.get(key);
+            if (index != null) {
+                return index;
+            }
+            int ownerIndex = type(owner);
+            int nameAndType = nameAndType(name, descriptor);
+            entry(tag, ownerIndex, nameAndType);
+            return add(key);
+        }
+
+        /**
+         * Returns the index of a {@code CONSTANT_NameAndType} entry.
+         *
+         * @param name       the name of the member
+         * @param descriptor the descriptor of the member
+         * @return the index of the entry
+         */
+        private int nameAndType(String name, String descriptor) {
+            String key = "NameAndType:" + name + descriptor;
+            Integer index = indices.get(key);
+            if (index != null) {
+                return index;
+            }
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            entry(Opcode.CONSTANT_NAME_AND_TYPE, nameIndex, descriptorIndex);
+            return add(key);
+        }
+
+        /**
+         * Writes an entry consisting of a tag and constant pool indices.
+         *
+         * @param tag     the tag of the entry
+         * @param indices the constant pool indices
+         */
+        private void entry(int tag, int... indices) {
+            try {
+                out.writeByte(tag);
+                for (int index : indices) {
+                    out.writeShort(index);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Registers the entry written last.
+         *
+         * @param key the tag and content of the entry
+         * @return the index of the entry
+         */
+        private int add(String key) {
+            int index = next++;
+            indices.put(key, index);
+            return index;
+        }
+
+        /**
+         * Writes the number of entries and the entries of this constant pool to a class file.
+         *
+         * @param out the class file
+         * @throws IOException if an I/O error occurs
+         */
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeShort(next);
+            bytes.writeTo(out);
+        }
+    }
+
+    /**
+     * The class file constants and instructions used by the generated code.
+     *
+     * @see <a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html">
+     * https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html</a>
+     */
+    private static final class Opcode {
+
+        /**
+         * The class file version of Java 17.
+         */
+        static final int CLASS_FILE_VERSION = 61;
+
+        /**
+         * The access flag {@code public}.
+         */
+        static final int ACC_PUBLIC = 0x0001;
+
+        /**
+         * The access flag {@code private}.
+         */
+        static final int ACC_PRIVATE = 0x0002;
+
+        /**
+         * The access flag {@code final}.
+         */
+        static final int ACC_FINAL = 0x0010;
+
+        /**
+         * The access flag {@code super}, required for all classes.
+         */
+        static final int ACC_SUPER = 0x0020;
+
+        /**
+         * The tag of a {@code CONSTANT_Utf8} entry.
+         */
+        static final int CONSTANT_UTF8 = 1;
+
+        /**
+         * The tag of a {@code CONSTANT_Integer} entry.
+         */
+        static final int CONSTANT_INTEGER = 3;
+
+        /**
+         * The tag of a {@code CONSTANT_Class} entry.
+         */
+        static final int CONSTANT_CLASS = 7;
+
+        /**
+         * The tag of a {@code CONSTANT_Fieldref} entry.
+         */
+        static final int CONSTANT_FIELDREF = 9;
+
+        /**
+         * The tag of a {@code CONSTANT_Methodref} entry.
+         */
+        static final int CONSTANT_METHODREF = 10;
+
+        /**
+         * The tag of a {@code CONSTANT_NameAndType} entry.
+         */
+        static final int CONSTANT_NAME_AND_TYPE = 12;
+
+        /**
+         * Pushes the int constant 0, the following opcodes push 1 to 5.
+         */
+        static final int ICONST_0 = 0x03;
+
+        /**
+         * Pushes a byte.
+         */
+        static final int BIPUSH = 0x10;
+
+        /**
+         * Pushes a short.
+         */
+        static final int SIPUSH = 0x11;
+
+        /**
+         * Pushes a constant pool entry with a wide index.
+         */
+        static final int LDC_W = 0x13;
+
+        /**
+         * Loads the reference in local variable 0.
+         */
+        static final int ALOAD_0 = 0x2A;
+
+        /**
+         * Loads the reference in local variable 1.
+         */
+        static final int ALOAD_1 = 0x2B;
+
+        /**
+         * Loads the reference in local variable 2.
+         */
+        static final int ALOAD_2 = 0x2C;
+
+        /**
+         * Loads the reference in local variable 3.
+         */
+        static final int ALOAD_3 = 0x2D;
+
+        /**
+         * Loads a reference from an array.
+         */
+        static final int AALOAD = 0x32;
+
+        /**
+         * Stores a reference into local variable 3.
+         */
+        static final int ASTORE_3 = 0x4E;
+
+        /**
+         * Returns a reference from a method.
+         */
+        static final int ARETURN = 0xB0;
+
+        /**
+         * Returns void from a method.
+         */
+        static final int RETURN = 0xB1;
+
+        /**
+         * Fetches a field from an object.
+         */
+        static final int GETFIELD = 0xB4;
+
+        /**
+         * Sets a field in an object.
+         */
+        static final int PUTFIELD = 0xB5;
+
+        /**
+         * Invokes an instance method.
+         */
+        static final int INVOKEVIRTUAL = 0xB6;
+
+        /**
+         * Invokes a constructor.
+         */
+        static final int INVOKESPECIAL = 0xB7;
+
+        /**
+         * Don't let anyone instantiate this class.
+         */
+        private Opcode() {
+        }
+    }
+}
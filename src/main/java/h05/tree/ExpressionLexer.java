@@ -0,0 +1,294 @@
+package h05.tree;
+
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.MyRational;
+import h05.math.MyReal;
+import h05.math.Rational;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Splits the string representation of an arithmetic expression into tokens without creating
+ * intermediate strings. Tokens are separated by whitespace, parentheses are tokens on their own.
+ *
+ * <p>Example:
+ * <ul>
+ *     <li>Input: (+ a (* b 2))</li>
+ *     <li>Tokens: (, +, a, (, *, b, 2, ), )</li>
+ * </ul>
+ *
+ * <p>Besides the tokenizer, this class classifies and decodes single tokens in one pass over their
+ * characters instead of matching them against regular expressions.
+ *
+ * @author Nhan Huynh
+ */
+final class ExpressionLexer {
+
+    /**
+     * The maximum number of decimal digits which always fit into a {@code long}.
+     */
+    private static final int LONG_DIGITS = 18;
+
+    /**
+     * The characters to split.
+     */
+    private final CharSequence input;
+
+    /**
+     * The index of the first character not read yet.
+     */
+    private int position;
+
+    /**
+     * The index of the first character of the current token.
+     */
+    private int start;
+
+    /**
+     * The index after the last character of the current token.
+     */
+    private int end;
+
+    /**
+     * Constructs and initializes a lexer reading the given characters.
+     *
+     * @param input the characters to split
+     */
+    ExpressionLexer(CharSequence input) {
+        this.input = input;
+    }
+
+    /**
+     * Advances to the next token.
+     *
+     * @return {@code true} if there is a next token, {@code false} if the input is exhausted
+     */
+    boolean next() {
+        int length = input.length();
+        while (position < length && Character.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+        if (position == length) {
+            start = end = position;
+            return false;
+        }
+        start = position;
+        if (isParenthesis(input.charAt(position))) {
+            position++;
+        } else {
+            while (position < length && !isDelimiter(input.charAt(position))) {
+                position++;
+            }
+        }
+        end = position;
+        return true;
+    }
+
+    /**
+     * Returns the characters read by this lexer.
+     *
+     * @return the characters read by this lexer
+     */
+    CharSequence input() {
+        return input;
+    }
+
+    /**
+     * Returns the index of the first character of the current token.
+     *
+     * @return the index of the first character of the current token
+     */
+    int start() {
+        return start;
+    }
+
+    /**
+     * Returns the index after the last character of the current token.
+     *
+     * @return the index after the last character of the current token
+     */
+    int end() {
+        return end;
+    }
+
+    /**
+     * Returns {@code true} if the given character is a parenthesis.
+     *
+     * @param c the character to check
+     * @return {@code true} if the given character is a parenthesis
+     */
+    static boolean isParenthesis(char c) {
+        return c == '(' || c == ')';
+    }
+
+    /**
+     * Returns {@code true} if the given character ends a token.
+     *
+     * @param c the character to check
+     * @return {@code true} if the given character ends a token
+     */
+    static boolean isDelimiter(char c) {
+        return isParenthesis(c) || Character.isWhitespace(c);
+    }
+
+    /**
+     * Returns {@code true} if the given characters are a valid identifier, i.e. a non-empty
+     * sequence of ASCII letters and dashes.
+     *
+     * @param chars the characters containing the identifier
+     * @param start the index of the first character of the identifier (inclusive)
+     * @param end   the index of the last character of the identifier (exclusive)
+     * @return {@code true} if the given characters are a valid identifier
+     */
+    static boolean isIdentifier(CharSequence chars, int start, int end) {
+        if (start >= end) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = chars.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes a number literal. The following formats are supported, each with an optional sign:
+     * <ul>
+     *     <li>Integer: 123</li>
+     *     <li>Real: 1.25</li>
+     *     <li>Rational: 3/4, the denominator may have a sign as well</li>
+     * </ul>
+     * Literals with at most {@value #LONG_DIGITS} digits per part are decoded without creating any
+     * intermediate objects.
+     *
+     * @param chars the characters containing the literal
+     * @param start the index of the first character of the literal (inclusive)
+     * @param end   the index of the last character of the literal (exclusive)
+     * @return the number or {@code null} if the characters are not a number literal
+     * @throws ArithmeticException if the denominator of a rational number is zero
+     */
+    static @Nullable MyNumber parseNumber(CharSequence chars, int start, int end) {
+        int integerEnd = digits(chars, sign(chars, start, end), end);
+        if (integerEnd < 0) {
+            return null;
+        }
+        if (integerEnd == end) {
+            if (end - start <= LONG_DIGITS) {
+                return MyInteger.valueOf(decimal(chars, start, end));
+            }
+            return MyInteger.valueOf(new BigInteger(chars.subSequence(start, end).toString()));
+        }
+
+        char separator = chars.charAt(integerEnd);
+        if (separator == '.') {
+            int fractionStart = integerEnd + 1;
+            if (digits(chars, fractionStart, end) != end) {
+                return null;
+            }
+            int digits = end - start - 1;
+            if (digits > LONG_DIGITS) {
+                return new MyReal(new BigDecimal(chars.subSequence(start, end).toString()));
+            }
+            long integer = decimal(chars, start, integerEnd);
+            long fraction = decimal(chars, fractionStart, end);
+            int scale = end - fractionStart;
+            if (isNegative(chars, start)) {
+                fraction = -fraction;
+            }
+            long unscaled = integer * pow10(scale) + fraction;
+            return new MyReal(BigDecimal.valueOf(unscaled, scale));
+        }
+        if (separator == '/') {
+            int denominatorStart = integerEnd + 1;
+            if (digits(chars, sign(chars, denominatorStart, end), end) != end) {
+                return null;
+            }
+            if (integerEnd - start <= LONG_DIGITS && end - denominatorStart <= LONG_DIGITS) {
+                long numerator = decimal(chars, start, integerEnd);
+                long denominator = decimal(chars, denominatorStart, end);
+                return MyRational.valueOf(numerator, denominator);
+            }
+            return MyRational.valueOf(new Rational(
+                new BigInteger(chars.subSequence(start, integerEnd).toString()),
+                new BigInteger(chars.subSequence(denominatorStart, end).toString())));
+        }
+        return null;
+    }
+
+    /**
+     * Skips an optional sign.
+     *
+     * @param chars the characters to read
+     * @param start the index of the first character to read (inclusive)
+     * @param end   the index of the last character to read (exclusive)
+     * @return the index after the sign
+     */
+    private static int sign(CharSequence chars, int start, int end) {
+        if (start < end && (chars.charAt(start) == '-' || chars.charAt(start) == '+')) {
+            return start + 1;
+        }
+        return start;
+    }
+
+    /**
+     * Returns {@code true} if the number starting at the given index has a minus sign.
+     *
+     * @param chars the characters to read
+     * @param start the index of the first character of the number
+     * @return {@code true} if the number has a minus sign
+     */
+    private static boolean isNegative(CharSequence chars, int start) {
+        return chars.charAt(start) == '-';
+    }
+
+    /**
+     * Skips a non-empty sequence of decimal digits.
+     *
+     * @param chars the characters to read
+     * @param start the index of the first character to read (inclusive)
+     * @param end   the index of the last character to read (exclusive)
+     * @return the index after the digits or -1 if there is no digit
+     */
+    private static int digits(CharSequence chars, int start, int end) {
+        int i = start;
+        while (i < end && chars.charAt(i) >= '0' && chars.charAt(i) <= '9') {
+            i++;
+        }
+        return i == start ? -1 : i;
+    }
+
+    /**
+     * Decodes a signed decimal integer which fits into a {@code long}.
+     *
+     * @param chars the characters to read
+     * @param start the index of the first character of the integer (inclusive)
+     * @param end   the index of the last character of the integer (exclusive)
+     * @return the decoded integer
+     */
+    private static long decimal(CharSequence chars, int start, int end) {
+        long value = 0;
+        for (int i = sign(chars, start, end); i < end; i++) {
+            value = 10 * value + (chars.charAt(i) - '0');
+        }
+        return isNegative(chars, start) ? -value : value;
+    }
+
+    /**
+     * Returns 10 raised to the power of the given exponent.
+     *
+     * @param exponent the non-negative exponent, at most {@value #LONG_DIGITS}
+     * @return 10 raised to the power of the given exponent
+     */
+    private static long pow10(int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,260 @@
+package h05.tree;
+
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.MyReal;
+import h05.math.NumericContext;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Simplifies arithmetic expression trees once, so that expressions evaluated many times do not
+ * recompute the same constants on every evaluation. The optimized tree evaluates to the same result
+ * as the original tree with the same numeric context. The following rewrites are applied bottom-up:
+ * <ul>
+ *     <li>Operations whose operands are all literals are folded into a literal.</li>
+ *     <li>Leading literal operands of {@code +}, {@code -}, {@code *} and {@code /} are folded into
+ *     a single literal, since these operators are evaluated from left to right.</li>
+ *     <li>A {@code +} or {@code *} operation as first operand of the same operator is flattened
+ *     into its parent.</li>
+ *     <li>The identity operands 0 of {@code +} and 1 of {@code *} are dropped as long as two
+ *     operands remain, and {@code +} or {@code *} with a single operand is replaced by the
+ *     operand. An identity operand is only dropped if the intermediate result it is applied to is
+ *     known to be normalized, see below.</li>
+ * </ul>
+ *
+ * <p>Operands are never reordered and nested operations are only flattened if they are the first
+ * operand, because reals are rounded after every operation and their arithmetic is therefore not
+ * associative. Folding uses the same arithmetic as the evaluation, so exact operands stay exact:
+ * integers and rationals are never folded into reals. Operations which fail, e.g. a division by
+ * zero, are not folded, so the exception is thrown when the expression is evaluated.
+ *
+ * <p>Applying an identity operand is not always a no-op: every real result is rounded to the scale
+ * of the numeric context and collapsed to an integer if it has no fractional part, so
+ * {@code (+ 2.0 0 1/3)} evaluates to the exact 7/3 while {@code (+ 2.0 1/3)} evaluates to a real.
+ * Results of operations are normalized already, so an identity operand is dropped if it is applied
+ * to such a result, i.e. from the third operand on, or if the first operand is an exact literal.
+ *
+ * <p>Example:
+ * <ul>
+ *     <li>Racket notation: (* 2 (+ 3 4) x)</li>
+ *     <li>Optimized: (* 14 x)</li>
+ * </ul>
+ *
+ * <pre>{@code
+ *    ArithmeticExpressionNode optimized = ExpressionOptimizer.optimize(root);
+ * }</pre>
+ *
+ * @author Nhan Huynh
+ */
+public final class ExpressionOptimizer {
+
+    /**
+     * The initial capacity of the stack.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private ExpressionOptimizer() {
+    }
+
+    /**
+     * Optimizes the given arithmetic expression tree for the default numeric context.
+     *
+     * @param root the root node of the arithmetic expression tree
+     * @return the root node of the optimized arithmetic expression tree
+     * @throws NullPointerException if the root is {@code null}
+     * @see #optimize(ArithmeticExpressionNode, NumericContext)
+     */
+    public static ArithmeticExpressionNode optimize(ArithmeticExpressionNode root) {
+        return optimize(root, NumericContext.DEFAULT);
+    }
+
+    /**
+     * Optimizes the given arithmetic expression tree. The given tree is not modified, the optimized
+     * tree shares its operand nodes.
+     *
+     * @param root    the root node of the arithmetic expression tree
+     * @param context the numeric context the optimized tree will be evaluated with
+     * @return the root node of the optimized arithmetic expression tree
+     * @throws NullPointerException if the root or the context is {@code null}
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static ArithmeticExpressionNode optimize(
+        ArithmeticExpressionNode root,
+        NumericContext context) {
+        Objects.requireNonNull(root, "root null");
+        Objects.requireNonNull(context, "context null");
+        if (!(root instanceof OperationExpressionNode rootOperation)) {
+            return root;
+        }
+
+        // Post-order traversal keeping the optimized operands of the open operations on a stack
+        Operator[] operators = new Operator[INITIAL_CAPACITY];
+        ListItem<ArithmeticExpressionNode>[] next = new ListItem[INITIAL_CAPACITY];
+        List<ArithmeticExpressionNode>[] operands = new List[INITIAL_CAPACITY];
+        boolean[] flattened = new boolean[INITIAL_CAPACITY];
+        int top = 0;
+        operators[0] = rootOperation.getOperator();
+        next[0] = rootOperation.operands();
+        operands[0] = new ArrayList<>();
+
+        while (true) {
+            ListItem<ArithmeticExpressionNode> item = next[top];
+            ArithmeticExpressionNode node;
+            if (item == null) {
+                if (flattened[top]) {
+                    // The operands have been added to the parent already
+                    operators[top] = null;
+                    operands[top] = null;
+                    top--;
+                    continue;
+                }
+                node = simplify(operators[top], operands[top], context);
+                operators[top] = null;
+                operands[top] = null;
+                if (--top < 0) {
+                    return node;
+                }
+            } else {
+                next[top] = item.next;
+                if (item.key instanceof OperationExpressionNode operation) {
+                    Operator operator = operation.getOperator();
+                    // (+ (+ a b) c) = (+ a b c), since both are evaluated as (a + b) + c
+                    boolean flatten = operator == operators[top]
+                        && isAssociative(operator)
+                        && operands[top].isEmpty()
+                        && operation.operands() != null;
+                    if (++top == operators.length) {
+                        int capacity = 2 * operators.length;
+                        operators = Arrays.copyOf(operators, capacity);
+                        next = Arrays.copyOf(next, capacity);
+                        operands = Arrays.copyOf(operands, capacity);
+                        flattened = Arrays.copyOf(flattened, capacity);
+                    }
+                    operators[top] = operator;
+                    next[top] = operation.operands();
+                    operands[top] = flatten ? operands[top - 1] : new ArrayList<>();
+                    flattened[top] = flatten;
+                    continue;
+                }
+                node = item.key;
+            }
+            operands[top].add(node);
+        }
+    }
+
+    /**
+     * Returns {@code true} if nested operations of the given operator may be flattened and its
+     * identity operands may be dropped.
+     *
+     * @param operator the operator to check
+     * @return {@code true} if the operator is {@code +} or {@code *}
+     */
+    private static boolean isAssociative(Operator operator) {
+        return operator == Operator.ADD || operator == Operator.MUL;
+    }
+
+    /**
+     * Simplifies an operation whose operands have been optimized already.
+     *
+     * @param operator the operator of the operation
+     * @param operands the optimized operands of the operation, may be modified by this method
+     * @param context  the numeric context of real results
+     * @return the simplified operation
+     */
+    private static ArithmeticExpressionNode simplify(
+        Operator operator,
+        List<ArithmeticExpressionNode> operands,
+        NumericContext context) {
+        boolean associative = isAssociative(operator);
+        if (associative && operands.size() > 2) {
+            MyNumber identity = operator.identity();
+            List<ArithmeticExpressionNode> kept = new ArrayList<>(operands.size());
+            int droppable = operands.size() - 2;
+            // The second operand is applied to the first operand as it is, which may be a real
+            // that the operation would normalize
+            boolean normalized = operands.get(0) instanceof LiteralExpressionNode first
+                && !(first.getValue() instanceof MyReal);
+            for (int i = 0; i < operands.size(); i++) {
+                ArithmeticExpressionNode operand = operands.get(i);
+                if (droppable > 0
+                    && (i >= 2 || i == 1 && normalized)
+                    && operand instanceof LiteralExpressionNode literal
+                    && literal.getValue() instanceof MyInteger
+                    && literal.getValue().equals(identity)) {
+                    droppable--;
+                } else {
+                    kept.add(operand);
+                }
+            }
+            operands = kept;
+        }
+
+        int literals = 0;
+        while (literals < operands.size()
+            && operands.get(literals) instanceof LiteralExpressionNode) {
+            literals++;
+        }
+        if (literals == operands.size() || literals >= 2 && operator.getMaxOperands() > 2) {
+            MyNumber folded = fold(operator, operands.subList(0, literals), context);
+            if (folded != null) {
+                if (literals == operands.size()) {
+                    return new LiteralExpressionNode(folded);
+                }
+                operands.subList(1, literals).clear();
+                operands.set(0, new LiteralExpressionNode(folded));
+            }
+        }
+
+        if (associative && operands.size() == 1) {
+            // (+ x) = x
+            return operands.get(0);
+        }
+        ListItem<ArithmeticExpressionNode> head = null;
+        for (int i = operands.size() - 1; i >= 0; i--) {
+            ListItem<ArithmeticExpressionNode> item = new ListItem<>();
+            item.key = operands.get(i);
+            item.next = head;
+            head = item;
+        }
+        return new OperationExpressionNode(operator, head, true);
+    }
+
+    /**
+     * Applies the given operator to literal operands.
+     *
+     * @param operator the operator to apply
+     * @param literals the literal operands
+     * @param context  the numeric context of real results
+     * @return the result or {@code null} if the operation fails
+     */
+    private static @Nullable MyNumber fold(
+        Operator operator,
+        List<ArithmeticExpressionNode> literals,
+        NumericContext context) {
+        try {
+            if (literals.isEmpty()) {
+                return operator.identity();
+            }
+            MyNumber result = ((LiteralExpressionNode) literals.get(0)).getValue();
+            if (literals.size() == 1) {
+                return operator.apply(result, context);
+            }
+            for (int i = 1; i < literals.size(); i++) {
+                MyNumber operand = ((LiteralExpressionNode) literals.get(i)).getValue();
+                result = operator.apply(result, operand, context);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            // Leave the operation to the evaluation, which throws the exception
+            return null;
+        }
+    }
+}
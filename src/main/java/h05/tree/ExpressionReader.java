@@ -0,0 +1,246 @@
+package h05.tree;
+
+import h05.exception.BadOperationException;
+import h05.exception.IllegalIdentifierExceptions;
+import h05.exception.ParenthesesMismatchException;
+import h05.exception.UndefinedOperatorException;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Reads arithmetic expressions from ASCII encoded bytes one expression at a time. The bytes are
+ * read straight from a {@link ReadableByteChannel} through a fixed size buffer or from a {@link
+ * ByteBuffer} such as a {@link MappedByteBuffer}, so the memory used does not depend on the size of
+ * the input. Tokens are decoded in place; only identifiers and numbers with more than 18 digits per
+ * part create intermediate strings.
+ *
+ * <p>Expressions follow each other separated by whitespace.
+ *
+ * <p>Example:
+ * <ul>
+ *     <li>Input: (+ 1 2) (* a 3) 42</li>
+ *     <li>Expressions: (+ 1 2), (* a 3), 42</li>
+ * </ul>
+ *
+ * <pre>{@code
+ *    try (ExpressionReader reader = new ExpressionReader(FileChannel.open(path))) {
+ *        for (ArithmeticExpressionNode root; (root = reader.read()) != null; ) {
+ *            ...
+ *        }
+ *    }
+ * }</pre>
+ *
+ * @author Nhan Huynh
+ */
+public final class ExpressionReader implements Closeable {
+
+    /**
+     * The initial capacity of the buffer of a channel.
+     */
+    private static final int BUFFER_CAPACITY = 1 << 16;
+
+    /**
+     * The channel to read from or {@code null} if the whole input is in the buffer.
+     */
+    private final @Nullable ReadableByteChannel channel;
+
+    /**
+     * The bytes read but not parsed yet between the position and the limit of the buffer.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * The bytes of the buffer as characters.
+     */
+    private final Ascii chars = new Ascii();
+
+    /**
+     * The builder of the current expression.
+     */
+    private final TreeBuilder builder = new TreeBuilder();
+
+    /**
+     * {@code true} if the end of the input has been reached.
+     */
+    private boolean eof;
+
+    /**
+     * Constructs and initializes a reader reading from the given channel.
+     *
+     * @param channel the channel to read from
+     * @throws NullPointerException if the channel is {@code null}
+     */
+    public ExpressionReader(ReadableByteChannel channel) {
+        this.channel = Objects.requireNonNull(channel, "channel null");
+        this.buffer = ByteBuffer.allocate(BUFFER_CAPACITY).flip();
+    }
+
+    /**
+     * Constructs and initializes a reader reading the remaining bytes of the given buffer. The
+     * position of the given buffer is not modified.
+     *
+     * @param buffer the buffer to read from
+     * @throws NullPointerException if the buffer is {@code null}
+     */
+    public ExpressionReader(ByteBuffer buffer) {
+        this.channel = null;
+        this.buffer = buffer.duplicate();
+        this.eof = true;
+    }
+
+    /**
+     * Reads the next expression.
+     *
+     * @return the root node of the next expression or {@code null} if the end of the input has been
+     *     reached
+     * @throws IOException                  if an I/O error occurs
+     * @throws BadOperationException        if a token is not allowed at its position
+     * @throws IllegalIdentifierExceptions  if a token is neither a number nor a valid identifier
+     * @throws ParenthesesMismatchException if the parentheses are mismatched
+     * @throws UndefinedOperatorException   if an operator is not defined
+     */
+    public @Nullable ArithmeticExpressionNode read() throws IOException {
+        while (skipWhitespace()) {
+            int start = buffer.position();
+            int end = ExpressionLexer.isParenthesis(chars.charAt(start)) ? start + 1 : scanToken();
+            // Scanning may have moved the token to the front of the buffer
+            start = buffer.position();
+            builder.token(chars, start, end);
+            buffer.position(end);
+            if (builder.isComplete()) {
+                return builder.finish();
+            }
+        }
+        return builder.isEmpty() ? null : builder.finish();
+    }
+
+    /**
+     * Skips whitespace.
+     *
+     * @return {@code true} if there is a token to read, {@code false} if the end of the input has
+     *     been reached
+     * @throws IOException if an I/O error occurs
+     */
+    private boolean skipWhitespace() throws IOException {
+        while (true) {
+            int position = buffer.position();
+            int limit = buffer.limit();
+            while (position < limit && Character.isWhitespace(chars.charAt(position))) {
+                position++;
+            }
+            buffer.position(position);
+            if (position < limit) {
+                return true;
+            }
+            if (!fill()) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Returns the end of the token starting at the position of the buffer, reading more bytes if
+     * the token reaches the limit of the buffer.
+     *
+     * @return the index after the last character of the token
+     * @throws IOException if an I/O error occurs
+     */
+    private int scanToken() throws IOException {
+        int length = 0;
+        while (true) {
+            int i = buffer.position() + length;
+            int limit = buffer.limit();
+            while (i < limit && !ExpressionLexer.isDelimiter(chars.charAt(i))) {
+                i++;
+            }
+            length = i - buffer.position();
+            if (i < limit) {
+                return i;
+            }
+            if (!fill()) {
+                // Filling may have moved the token to the front of the buffer
+                return buffer.position() + length;
+            }
+        }
+    }
+
+    /**
+     * Reads more bytes from the channel, keeping the bytes not parsed yet. The buffer grows if it
+     * is full.
+     *
+     * @return {@code true} if bytes have been read, {@code false} if the end of the input has been
+     *     reached
+     * @throws IOException if an I/O error occurs
+     */
+    private boolean fill() throws IOException {
+        if (eof || channel == null) {
+            return false;
+        }
+        buffer.compact();
+        if (!buffer.hasRemaining()) {
+            // A single token fills the whole buffer
+            ByteBuffer larger = ByteBuffer.allocate(2 * buffer.capacity());
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        buffer.flip();
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Closes the channel of this reader.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * The bytes of the buffer as ASCII characters, indexed by their absolute position in the
+     * buffer.
+     */
+    private final class Ascii implements CharSequence {
+
+        @Override
+        public int length() {
+            return buffer.limit();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(index) & 0xFF);
+        }
+
+        @Override
+        public String subSequence(int start, int end) {
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(buffer.position(), buffer.limit());
+        }
+    }
+}
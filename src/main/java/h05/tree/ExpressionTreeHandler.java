@@ -1,13 +1,18 @@
 package h05.tree;
 
 import h05.exception.*;
-import h05.math.*;
+import h05.math.MyNumber;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * This class is used to parse an expression and build a tree out of it.
@@ -32,116 +37,154 @@ public final class ExpressionTreeHandler {
      * @throws UndefinedOperatorException   if the operator is not defined
      */
     public static ArithmeticExpressionNode buildRecursively(Iterator<String> expression) {
-        if(!expression.hasNext())
+        if (!expression.hasNext()) {
             throw new BadOperationException("No expression");
-        String firstExp = expression.next();
-        if(isNumber(firstExp))
-            return new LiteralExpressionNode(StringToNumber(firstExp));
-
-        ArithmeticExpressionNode root = null;
-        ListItem<ArithmeticExpressionNode> rootList = new ListItem<>();
-        ListItem<ArithmeticExpressionNode> rootListBackup = null;
-        if(firstExp.equals("(")){
-            String nextExp = expression.next();
-            if(isNumber(nextExp))
-                throw new BadOperationException("wieso ist da eine Zahl .mp4");
-            if(isOperator(nextExp))
-                rootListBackup = rootList;
-                rootList = recursiveHelperTwo(expression, rootList);
-
-                root =new OperationExpressionNode(StringToOperator(nextExp),rootListBackup);
         }
-
-
+        ArithmeticExpressionNode root = buildRecursively(expression.next(), expression);
+        if (expression.hasNext()) {
+            String token = expression.next();
+            if (token.equals(ArithmeticExpressionNode.RIGHT_BRACKET)) {
+                throw new ParenthesesMismatchException();
+            }
+            throw new BadOperationException("Unexpected token after expression: " + token);
+        }
         return root;
     }
 
-    private static boolean isNumber(String expression){
+    /**
+     * Builds the subtree starting with the given token recursively.
+     *
+     * @param token      the first token of the subtree
+     * @param expression the remaining tokens
+     * @return the root node of the subtree
+     * @throws BadOperationException        if the token after a left parenthesis is a number or a
+     *                                      parenthesis
+     * @throws ParenthesesMismatchException if the parentheses are mismatched
+     * @throws UndefinedOperatorException   if the operator is not defined
+     */
+    private static ArithmeticExpressionNode buildRecursively(
+        String token,
+        Iterator<String> expression) {
+        if (token.equals(ArithmeticExpressionNode.RIGHT_BRACKET)) {
+            throw new ParenthesesMismatchException();
+        }
+        if (!token.equals(ArithmeticExpressionNode.LEFT_BRACKET)) {
+            return operand(token);
+        }
 
-        if(expression.matches("[-+]?[0-9]+"))     //Integer
-            return true;
-        if(expression.matches("[-+]?[0-9]+\\.[0-9]+"))      //Integer
-            return true;
-        if(expression.matches("[-+]?[0-9]+\\/[-+]?[0-9]+"))  //Integer
-            return true;
-        return false;
+        Operator operator = operator(nextToken(expression));
+        ListItem<ArithmeticExpressionNode> head = null;
+        ListItem<ArithmeticExpressionNode> tail = null;
+        String next = nextToken(expression);
+        for (; !next.equals(ArithmeticExpressionNode.RIGHT_BRACKET); next = nextToken(expression)) {
+            ListItem<ArithmeticExpressionNode> item = new ListItem<>();
+            item.key = buildRecursively(next, expression);
+            if (head == null) {
+                head = item;
+            } else {
+                tail.next = item;
+            }
+            tail = item;
+        }
+        return new OperationExpressionNode(operator, head, true);
     }
 
-    private static MyNumber StringToNumber(String expression){
-
-        if(expression.matches("[-+]?[0-9]+"))     //Integer
-            return new MyInteger(new BigInteger(expression));
-        if(expression.matches("[-+]?[0-9]+\\.[0-9]+"))      //Real
-            return  new MyReal(new BigDecimal(expression));
-        if(expression.matches("[-+]?[0-9]+\\/[-+]?[0-9]+")){        //Rational
-
-            String[] arr = expression.split("\\/");
-            BigInteger num = new BigInteger(arr[0]);
-            BigInteger denom = new BigInteger(arr[1]);
-
-            return  new MyRational(new Rational(num,denom));
+    /**
+     * Returns the next token of an unfinished expression.
+     *
+     * @param expression the remaining tokens
+     * @return the next token
+     * @throws ParenthesesMismatchException if there are no more tokens
+     */
+    private static String nextToken(Iterator<String> expression) {
+        if (!expression.hasNext()) {
+            throw new ParenthesesMismatchException();
         }
-        throw new IllegalIdentifierExceptions(expression);
-    }
-    private static boolean isOperator(String operator) {
-        for(Operator i:Operator.values())
-            if(i.getSymbol().equals(operator))
-                return true;
-        throw new UndefinedOperatorException(operator);
-    }
-    private static Operator StringToOperator(String operator) {
-        for(Operator i:Operator.values())
-            if(i.getSymbol().equals(operator))
-                return i;
-        throw new UndefinedOperatorException(operator);
+        return expression.next();
     }
-    private static ArithmeticExpressionNode recursiveHelperOne(Iterator<String> expression) {
-
-        String s = expression.next();
-        Operator op = StringToOperator(s);
-        ListItem<ArithmeticExpressionNode> rootList = new ListItem<>();
-        ListItem<ArithmeticExpressionNode> rootListBackup = rootList;
-        recursiveHelperTwo(expression, rootList);
-        return new OperationExpressionNode(op,rootListBackup);
-    }
-    private static ListItem<ArithmeticExpressionNode> recursiveHelperTwo(Iterator<String> expression,  ListItem<ArithmeticExpressionNode> rootList) {
-
 
-        String nextExp = expression.next();
-        while(expression.hasNext()) {
-            if (nextExp.equals(")")){
-                return null;
-            }
-            if (nextExp.equals("(")) {
-                rootList.key = recursiveHelperOne(expression);
-                rootList.next = new ListItem<>();
-                rootList = rootList.next;
-            }
-            while (isNumber(nextExp)) {
-                rootList.key = new LiteralExpressionNode(StringToNumber(nextExp));
-                nextExp = expression.next();
+    /**
+     * Returns the operator of the given token.
+     *
+     * @param token the token following a left parenthesis
+     * @return the operator of the given token
+     * @throws BadOperationException      if the token is a number or a parenthesis
+     * @throws UndefinedOperatorException if the operator is not defined
+     */
+    private static Operator operator(String token) {
+        Operator operator = Operator.lookup(token, 0, token.length());
+        if (operator != null) {
+            return operator;
+        }
+        if (token.equals(ArithmeticExpressionNode.LEFT_BRACKET)
+            || token.equals(ArithmeticExpressionNode.RIGHT_BRACKET)
+            || ExpressionLexer.parseNumber(token, 0, token.length()) != null) {
+            throw new BadOperationException("Operator expected: " + token);
+        }
+        throw new UndefinedOperatorException(token);
+    }
 
-                if(isNumber(nextExp)){
-                    rootList.next = new ListItem<>();
-                    rootList = rootList.next;
-                }
-            }
+    /**
+     * Returns the operand node of the given token.
+     *
+     * @param token the token of a number or an identifier
+     * @return the operand node of the given token
+     * @throws IllegalIdentifierExceptions if the token is neither a number nor a valid identifier
+     */
+    private static ArithmeticExpressionNode operand(String token) {
+        MyNumber number = ExpressionLexer.parseNumber(token, 0, token.length());
+        if (number != null) {
+            return new LiteralExpressionNode(number);
         }
-        return null;
+        return new IdentifierExpressionNode(token);
     }
 
+    /**
+     * Builds an arithmetic expression tree directly from its string representation in a single
+     * pass, without splitting it into token strings first.
+     *
+     * <p>Example:
+     * <ul>
+     *     <li>Input: (+ a (* b 2))</li>
+     * </ul>
+     *
+     * @param expression the string representation of the arithmetic expression to parse
+     * @return the root node of the arithmetic expression tree
+     * @throws BadOperationException        if there is no expression or a token is not allowed at
+     *                                      its position
+     * @throws IllegalIdentifierExceptions  if a token is neither a number nor a valid identifier
+     * @throws ParenthesesMismatchException if the parentheses are mismatched
+     * @throws UndefinedOperatorException   if an operator is not defined
+     */
+    public static ArithmeticExpressionNode parse(CharSequence expression) {
+        ExpressionLexer lexer = new ExpressionLexer(expression);
+        TreeBuilder builder = new TreeBuilder();
+        while (lexer.next()) {
+            builder.token(expression, lexer.start(), lexer.end());
+        }
+        return builder.finish();
+    }
 
     /**
-     * Builds an arithmetic expression tree from a string iteratively.
+     * Builds an arithmetic expression tree from a string iteratively. The operations which have
+     * been opened but not closed yet are kept on an explicit stack, so the depth of the expression
+     * is only limited by the available memory and every token is processed in constant amortized
+     * time.
      *
      * @param expression the string representation of the arithmetic expression to parse
      * @return the root node of the arithmetic expression tree
      * @throws BadOperationException        if the iterator has no more tokens
+     * @throws IllegalIdentifierExceptions  if a token is neither a number nor a valid identifier
      * @throws ParenthesesMismatchException if the parentheses are mismatched
      * @throws UndefinedOperatorException   if the operator is not defined
      */
     public static ArithmeticExpressionNode buildIteratively(Iterator<String> expression) {
-        throw new RuntimeException("H4.2 - not implemented"); // TODO: H4.2 - remove if implemented
+        TreeBuilder builder = new TreeBuilder();
+        while (expression.hasNext()) {
+            String token = expression.next();
+            builder.token(token, 0, token.length());
+        }
+        return builder.finish();
     }
 
     /**
@@ -151,6 +194,192 @@ public final class ExpressionTreeHandler {
      * @return the string representation of the arithmetic expression tree
      */
     public static List<String> reconstruct(ArithmeticExpressionNode root) {
-        throw new RuntimeException("H4.3 - not implemented"); // TODO: H4.3 - remove if implemented
+        List<String> tokens = new ArrayList<>();
+        try {
+            reconstruct(root, tokens::add);
+        } catch (IOException e) {
+            // Adding to a list does not throw I/O exceptions
+            throw new UncheckedIOException(e);
+        }
+        return tokens;
+    }
+
+    /**
+     * Writes the string representation of the arithmetic expression tree to the given appendable.
+     * The tree is traversed iteratively and the tokens are written as they are visited, so neither
+     * the depth nor the size of the tree is limited by the stack or by an intermediate list of
+     * tokens.
+     *
+     * <p>Example:
+     * <ul>
+     *     <li>Racket notation: (+ a (* b 2))</li>
+     * </ul>
+     *
+     * <pre>{@code
+     *    ExpressionTreeHandler.reconstruct(root, System.out);
+     * }</pre>
+     *
+     * @param root the root node of the arithmetic expression tree
+     * @param out  the appendable to write to
+     * @throws IOException if an I/O error occurs
+     */
+    public static void reconstruct(ArithmeticExpressionNode root, Appendable out)
+        throws IOException {
+        Objects.requireNonNull(out, "out null");
+        reconstruct(root, new TokenSink() {
+
+            /**
+             * {@code true} if the previous token was a left parenthesis or there is none.
+             */
+            private boolean opened = true;
+
+            @Override
+            public void accept(String token) throws IOException {
+                boolean closing = token.equals(ArithmeticExpressionNode.RIGHT_BRACKET);
+                if (!opened && !closing) {
+                    out.append(' ');
+                }
+                out.append(token);
+                opened = token.equals(ArithmeticExpressionNode.LEFT_BRACKET);
+            }
+        });
+    }
+
+    /**
+     * Writes the ASCII encoded string representation of the arithmetic expression tree to the given
+     * channel through a fixed size buffer.
+     *
+     * @param root    the root node of the arithmetic expression tree
+     * @param channel the channel to write to
+     * @throws IOException if an I/O error occurs
+     * @see #reconstruct(ArithmeticExpressionNode, Appendable)
+     */
+    public static void reconstruct(ArithmeticExpressionNode root, WritableByteChannel channel)
+        throws IOException {
+        ChannelAppendable out = new ChannelAppendable(channel);
+        reconstruct(root, out);
+        out.flush();
+    }
+
+    /**
+     * Passes the tokens of the arithmetic expression tree to the given sink in pre-order. The
+     * traversal keeps the next operand of every operation on the path from the root to the current
+     * node on an explicit stack.
+     *
+     * @param root the root node of the arithmetic expression tree
+     * @param sink the sink of the tokens
+     * @throws IOException if the sink throws an I/O exception
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void reconstruct(ArithmeticExpressionNode root, TokenSink sink)
+        throws IOException {
+        Objects.requireNonNull(root, "root null");
+        ListItem<ArithmeticExpressionNode>[] next = new ListItem[16];
+        int top = -1;
+        ArithmeticExpressionNode node = root;
+        while (true) {
+            if (node instanceof OperationExpressionNode operation) {
+                sink.accept(ArithmeticExpressionNode.LEFT_BRACKET);
+                sink.accept(operation.getOperator().getSymbol());
+                if (++top == next.length) {
+                    next = Arrays.copyOf(next, 2 * next.length);
+                }
+                next[top] = operation.operands();
+            } else {
+                sink.accept(node.toString());
+            }
+
+            // Close all operations whose operands have been written
+            while (top >= 0 && next[top] == null) {
+                sink.accept(ArithmeticExpressionNode.RIGHT_BRACKET);
+                top--;
+            }
+            if (top < 0) {
+                return;
+            }
+            node = next[top].key;
+            next[top] = next[top].next;
+        }
+    }
+
+    /**
+     * Accepts the tokens of an arithmetic expression tree.
+     */
+    @FunctionalInterface
+    private interface TokenSink {
+
+        /**
+         * Accepts the next token.
+         *
+         * @param token the next token
+         * @throws IOException if an I/O error occurs
+         */
+        void accept(String token) throws IOException;
+    }
+
+    /**
+     * Writes ASCII characters to a channel through a fixed size buffer.
+     */
+    private static final class ChannelAppendable implements Appendable {
+
+        /**
+         * The capacity of the buffer.
+         */
+        private static final int BUFFER_CAPACITY = 1 << 13;
+
+        /**
+         * The channel to write to.
+         */
+        private final WritableByteChannel channel;
+
+        /**
+         * The characters not written to the channel yet.
+         */
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_CAPACITY);
+
+        /**
+         * Constructs and initializes an appendable writing to the given channel.
+         *
+         * @param channel the channel to write to
+         * @throws NullPointerException if the channel is {@code null}
+         */
+        ChannelAppendable(WritableByteChannel channel) {
+            this.channel = Objects.requireNonNull(channel, "channel null");
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) throws IOException {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) throws IOException {
+            for (int i = start; i < end; i++) {
+                append(csq.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) c);
+            return this;
+        }
+
+        /**
+         * Writes the buffered characters to the channel.
+         *
+         * @throws IOException if an I/O error occurs
+         */
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
     }
 }
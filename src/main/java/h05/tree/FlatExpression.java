@@ -0,0 +1,588 @@
+package h05.tree;
+
+import h05.exception.IllegalIdentifierExceptions;
+import h05.exception.UndefinedIdentifierException;
+import h05.math.MyNumber;
+import h05.math.NumericContext;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A compact representation of an arithmetic expression tree as flat arrays in post-order. Every
+ * node is an opcode and an argument:
+ * <ul>
+ *     <li>{@link #LITERAL}: the argument is an index into the constant pool</li>
+ *     <li>{@link #IDENTIFIER}: the argument is the slot of the identifier</li>
+ *     <li>{@link #OPERATION} + {@link Operator#ordinal()}: the argument is the number of operands,
+ *     which are the preceding subexpressions</li>
+ * </ul>
+ * The expression is evaluated by a stack machine without recursion and without following any
+ * pointers between nodes.
+ *
+ * <p>Example:
+ * <ul>
+ *     <li>Racket notation: (+ a (* b 2))</li>
+ *     <li>Flat representation: IDENTIFIER 0, IDENTIFIER 1, LITERAL 0, MUL 2, ADD 2</li>
+ * </ul>
+ *
+ * <pre>{@code
+ *    FlatExpression expression = FlatExpression.of(root);
+ *    MyNumber result = expression.evaluate(identifiers);
+ * }</pre>
+ *
+ * @author Nhan Huynh
+ */
+public final class FlatExpression implements CompiledExpression {
+
+    /**
+     * The opcode of a literal.
+     */
+    static final byte LITERAL = 0;
+
+    /**
+     * The opcode of an identifier.
+     */
+    static final byte IDENTIFIER = 1;
+
+    /**
+     * The opcode of the first operator, the opcode of an operation is this value plus the ordinal
+     * of its operator.
+     */
+    static final byte OPERATION = 2;
+
+    /**
+     * The operators indexed by their ordinal.
+     */
+    private static final Operator[] OPERATORS = Operator.values();
+
+    /**
+     * The opcodes of the nodes in post-order.
+     */
+    private final byte[] codes;
+
+    /**
+     * The arguments of the nodes in post-order.
+     */
+    private final int[] arguments;
+
+    /**
+     * The literals of the expression.
+     */
+    private final MyNumber[] constants;
+
+    /**
+     * The slots of the identifiers.
+     */
+    private final SlotBinding binding;
+
+    /**
+     * The maximum number of entries on the stack during evaluation.
+     */
+    private final int maxDepth;
+
+    /**
+     * Constructs and initializes a flat expression.
+     *
+     * @param codes     the opcodes of the nodes in post-order
+     * @param arguments the arguments of the nodes in post-order
+     * @param constants the literals of the expression
+     * @param binding   the slots of the identifiers
+     * @param maxDepth  the maximum number of entries on the stack during evaluation
+     */
+    private FlatExpression(
+        byte[] codes,
+        int[] arguments,
+        MyNumber[] constants,
+        SlotBinding binding,
+        int maxDepth) {
+        this.codes = codes;
+        this.arguments = arguments;
+        this.constants = constants;
+        this.binding = binding;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Converts the given arithmetic expression tree to its flat representation. The identifiers are
+     * bound to slots in the order of their first occurrence.
+     *
+     * @param root the root of the arithmetic expression tree
+     * @return the flat representation of the tree
+     * @throws NullPointerException if the root is {@code null}
+     */
+    public static FlatExpression of(ArithmeticExpressionNode root) {
+        return of(root, SlotBinding.of(root));
+    }
+
+    /**
+     * Converts the given arithmetic expression tree to its flat representation with the identifiers
+     * bound to the slots of the given binding.
+     *
+     * @param root    the root of the arithmetic expression tree
+     * @param binding the slots of the identifiers
+     * @return the flat representation of the tree
+     * @throws NullPointerException         if the root or the binding is {@code null}
+     * @throws UndefinedIdentifierException if an identifier of the tree has no slot
+     */
+    public static FlatExpression of(ArithmeticExpressionNode root, SlotBinding binding) {
+        Objects.requireNonNull(root, "root null");
+        Objects.requireNonNull(binding, "binding null");
+        Builder builder = new Builder(binding);
+
+        // The path from the root to the current node and the next operand of each node on the path
+        ArithmeticExpressionNode[] path = new ArithmeticExpressionNode[16];
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ListItem<ArithmeticExpressionNode>[] next = new ListItem[16];
+        int top = 0;
+        path[0] = root;
+        next[0] = operands(root);
+        while (top >= 0) {
+            ListItem<ArithmeticExpressionNode> item = next[top];
+            if (item == null) {
+                builder.node(path[top--]);
+                continue;
+            }
+            next[top] = item.next;
+            if (++top == path.length) {
+                path = Arrays.copyOf(path, 2 * top);
+                next = Arrays.copyOf(next, 2 * top);
+            }
+            path[top] = item.key;
+            next[top] = operands(item.key);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the operands of the given node.
+     *
+     * @param node the node
+     * @return the operands of the node or {@code null} if it has none
+     */
+    static @Nullable ListItem<ArithmeticExpressionNode> operands(ArithmeticExpressionNode node) {
+        return node instanceof OperationExpressionNode operation ? operation.operands() : null;
+    }
+
+    /**
+     * Returns the slots of the identifiers of this expression.
+     *
+     * @return the slots of the identifiers of this expression
+     */
+    public SlotBinding getBinding() {
+        return binding;
+    }
+
+    /**
+     * Returns the number of nodes of this expression.
+     *
+     * @return the number of nodes of this expression
+     */
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * Evaluates this expression.
+     *
+     * @param identifiers a map of identifiers and their values
+     * @return the result of this expression
+     * @throws IllegalIdentifierExceptions  if the map assigns a different value to a predefined
+     *                                      identifier
+     * @throws UndefinedIdentifierException if an identifier is not defined for use in the map
+     */
+    public MyNumber evaluate(Map<String, MyNumber> identifiers) {
+        return evaluate(binding.bind(identifiers), NumericContext.DEFAULT);
+    }
+
+    /**
+     * Evaluates this expression with real results rounded according to the given numeric context.
+     *
+     * @param identifiers a map of identifiers and their values
+     * @param context     the numeric context of real results
+     * @return the result of this expression
+     * @throws IllegalIdentifierExceptions  if the map assigns a different value to a predefined
+     *                                      identifier
+     * @throws UndefinedIdentifierException if an identifier is not defined for use in the map
+     */
+    public MyNumber evaluate(Map<String, MyNumber> identifiers, NumericContext context) {
+        return evaluate(binding.bind(identifiers), context);
+    }
+
+    @Override
+    public MyNumber evaluate(MyNumber[] slots, NumericContext context) {
+        MyNumber[] stack = new MyNumber[maxDepth];
+        int top = 0;
+        for (int i = 0; i < codes.length; i++) {
+            byte code = codes[i];
+            int argument = arguments[i];
+            if (code == LITERAL) {
+                stack[top++] = constants[argument];
+            } else if (code == IDENTIFIER) {
+                stack[top++] = slots[argument];
+            } else {
+                Operator operator = OPERATORS[code - OPERATION];
+                top -= argument;
+                stack[top] = apply(operator, stack, top, argument, context);
+                top++;
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * Evaluates this expression for a batch of rows with the values of the identifiers given as
+     * columns, i.e. the {@code i}-th element of a column is the value of its identifier in the
+     * {@code i}-th row. Instead of evaluating the whole expression row by row, every node is
+     * evaluated for all rows at once before the next node, and literals and predefined identifiers
+     * are never copied into columns. Predefined identifiers may be left out of the columns.
+     *
+     * <p>Example:
+     * <ul>
+     *     <li>Racket notation: (* x (+ y 2))</li>
+     * </ul>
+     *
+     * <pre>{@code
+     *    MyNumber[] results = new MyNumber[rows];
+     *    expression.evaluate(Map.of("x", Columns.of(xs), "y", Columns.of(ys)), results, context);
+     * }</pre>
+     *
+     * @param columns the columns of the identifiers by their name
+     * @param results the column to write the results to, its length is the number of rows
+     * @param context the numeric context of real results
+     * @throws IllegalArgumentException     if a column has not as many rows as the results
+     * @throws IllegalIdentifierExceptions  if a column assigns a different value to a predefined
+     *                                      identifier
+     * @throws UndefinedIdentifierException if an identifier has no column or a column has no value
+     *                                      in a row
+     */
+    public void evaluate(
+        Map<String, MyNumber[]> columns,
+        MyNumber[] results,
+        NumericContext context) {
+        int rows = results.length;
+        List<String> names = binding.getNames();
+        MyNumber[][] slotColumns = new MyNumber[names.size()][];
+        MyNumber[] slotValues = new MyNumber[names.size()];
+        for (int slot = 0; slot < slotColumns.length; slot++) {
+            String name = names.get(slot);
+            Identifier reserved = binding.reserved(slot);
+            MyNumber[] column = columns.get(name);
+            if (column != null && column.length != rows) {
+                throw new IllegalArgumentException(
+                    "Column " + name + " has " + column.length + " rows instead of " + rows);
+            }
+            if (reserved != null || column == null) {
+                // Constant for all rows
+                slotValues[slot] = SlotBinding.resolve(name, reserved, null);
+                if (column != null) {
+                    for (MyNumber value : column) {
+                        SlotBinding.resolve(name, reserved, value);
+                    }
+                }
+            } else {
+                for (MyNumber value : column) {
+                    SlotBinding.resolve(name, null, value);
+                }
+                slotColumns[slot] = column;
+            }
+        }
+
+        // An entry of the stack is either a column or a value for all rows
+        MyNumber[][] stackColumns = new MyNumber[maxDepth][];
+        MyNumber[] stackValues = new MyNumber[maxDepth];
+        MyNumber[][] scratch = new MyNumber[maxDepth][];
+        int top = 0;
+        for (int i = 0; i < codes.length; i++) {
+            byte code = codes[i];
+            int argument = arguments[i];
+            if (code == LITERAL) {
+                stackColumns[top] = null;
+                stackValues[top++] = constants[argument];
+            } else if (code == IDENTIFIER) {
+                stackColumns[top] = slotColumns[argument];
+                stackValues[top++] = slotValues[argument];
+            } else {
+                Operator operator = OPERATORS[code - OPERATION];
+                top -= argument;
+                boolean constant = true;
+                for (int j = top; j < top + argument; j++) {
+                    constant &= stackColumns[j] == null;
+                }
+                if (constant) {
+                    stackValues[top] = apply(operator, stackValues, top, argument, context);
+                } else {
+                    if (scratch[top] == null) {
+                        scratch[top] = new MyNumber[rows];
+                    }
+                    stackColumns[top] = apply(operator, stackColumns, stackValues, top, argument,
+                        scratch[top], context);
+                    stackValues[top] = null;
+                }
+                for (int j = top + 1; j < top + argument; j++) {
+                    stackColumns[j] = null;
+                    stackValues[j] = null;
+                }
+                top++;
+            }
+        }
+        if (stackColumns[0] == null) {
+            Arrays.fill(results, stackValues[0]);
+        } else {
+            System.arraycopy(stackColumns[0], 0, results, 0, rows);
+        }
+    }
+
+    /**
+     * Applies an operator to operands on the stack for all rows, folding more than two operands
+     * from left to right one operand at a time.
+     *
+     * @param operator the operator
+     * @param columns  the columns on the stack, {@code null} for values of all rows
+     * @param values   the values of all rows on the stack
+     * @param from     the position of the first operand on the stack
+     * @param count    the number of operands, at least one
+     * @param result   the column to write the result to, may be the column of the first operand
+     * @param context  the numeric context of real results
+     * @return the column of the result
+     */
+    private static MyNumber[] apply(
+        Operator operator,
+        MyNumber[][] columns,
+        MyNumber[] values,
+        int from,
+        int count,
+        MyNumber[] result,
+        NumericContext context) {
+        MyNumber[] first = columns[from];
+        if (first == null) {
+            Arrays.fill(result, values[from]);
+        } else if (first != result) {
+            System.arraycopy(first, 0, result, 0, result.length);
+        }
+        if (count == 1) {
+            for (int row = 0; row < result.length; row++) {
+                result[row] = operator.apply(result[row], context);
+            }
+            return result;
+        }
+        for (int i = from + 1; i < from + count; i++) {
+            MyNumber[] column = columns[i];
+            if (column == null) {
+                MyNumber value = values[i];
+                for (int row = 0; row < result.length; row++) {
+                    result[row] = operator.apply(result[row], value, context);
+                }
+            } else {
+                for (int row = 0; row < result.length; row++) {
+                    result[row] = operator.apply(result[row], column[row], context);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Applies an operator to operands on the stack, folding more than two operands from left to
+     * right.
+     *
+     * @param operator the operator
+     * @param stack    the stack
+     * @param from     the position of the first operand on the stack
+     * @param count    the number of operands
+     * @param context  the numeric context of real results
+     * @return the result of the operation
+     */
+    static MyNumber apply(
+        Operator operator,
+        MyNumber[] stack,
+        int from,
+        int count,
+        NumericContext context) {
+        if (count == 0) {
+            return operator.identity();
+        }
+        if (count == 1) {
+            return operator.apply(stack[from], context);
+        }
+        MyNumber result = stack[from];
+        for (int i = from + 1; i < from + count; i++) {
+            result = operator.apply(result, stack[i], context);
+            stack[i] = null;
+        }
+        return result;
+    }
+
+    /**
+     * Converts this expression back to an arithmetic expression tree.
+     *
+     * @return the root of the arithmetic expression tree
+     */
+    public ArithmeticExpressionNode toTree() {
+        ArithmeticExpressionNode[] stack = new ArithmeticExpressionNode[maxDepth];
+        List<String> names = binding.getNames();
+        int top = 0;
+        for (int i = 0; i < codes.length; i++) {
+            byte code = codes[i];
+            int argument = arguments[i];
+            if (code == LITERAL) {
+                stack[top++] = new LiteralExpressionNode(constants[argument]);
+            } else if (code == IDENTIFIER) {
+                stack[top++] = new IdentifierExpressionNode(names.get(argument));
+            } else {
+                top -= argument;
+                ListItem<ArithmeticExpressionNode> operands = null;
+                for (int j = top + argument - 1; j >= top; j--) {
+                    ListItem<ArithmeticExpressionNode> item = new ListItem<>();
+                    item.key = stack[j];
+                    item.next = operands;
+                    operands = item;
+                    stack[j] = null;
+                }
+                Operator operator = OPERATORS[code - OPERATION];
+                stack[top++] = new OperationExpressionNode(operator, operands, true);
+            }
+        }
+        return stack[0];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("FlatExpression[");
+        for (int i = 0; i < codes.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            if (codes[i] == LITERAL) {
+                sb.append(constants[arguments[i]]);
+            } else if (codes[i] == IDENTIFIER) {
+                sb.append(binding.getNames().get(arguments[i]));
+            } else {
+                sb.append(OPERATORS[codes[i] - OPERATION]).append('/').append(arguments[i]);
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Collects the nodes of a flat expression in post-order.
+     */
+    private static final class Builder {
+
+        /**
+         * The slots of the identifiers.
+         */
+        private final SlotBinding binding;
+
+        /**
+         * The indices of the literals in the constant pool. Literals are shared by identity since
+         * equal numbers of different scales must keep their representation.
+         */
+        private final Map<MyNumber, Integer> indices = new IdentityHashMap<>();
+
+        /**
+         * The literals of the expression.
+         */
+        private final List<MyNumber> constants = new ArrayList<>();
+
+        /**
+         * The opcodes of the nodes collected so far.
+         */
+        private byte[] codes = new byte[16];
+
+        /**
+         * The arguments of the nodes collected so far.
+         */
+        private int[] arguments = new int[16];
+
+        /**
+         * The number of nodes collected so far.
+         */
+        private int size;
+
+        /**
+         * The current number of entries on the stack.
+         */
+        private int depth;
+
+        /**
+         * The maximum number of entries on the stack.
+         */
+        private int maxDepth;
+
+        /**
+         * Constructs and initializes a builder.
+         *
+         * @param binding the slots of the identifiers
+         */
+        Builder(SlotBinding binding) {
+            this.binding = binding;
+        }
+
+        /**
+         * Appends a node whose operands have been appended already.
+         *
+         * @param node the node to append
+         * @throws UndefinedIdentifierException if an identifier has no slot
+         */
+        void node(ArithmeticExpressionNode node) {
+            if (node instanceof LiteralExpressionNode literal) {
+                Integer index = indices.get(literal.getValue());
+                if (index == null) {
+                    index = constants.size();
+                    indices.put(literal.getValue(), index);
+                    constants.add(literal.getValue());
+                }
+                append(LITERAL, index, 0);
+            } else if (node instanceof IdentifierExpressionNode identifier) {
+                append(IDENTIFIER, binding.slotOf(identifier.getValue()), 0);
+            } else if (node instanceof OperationExpressionNode operation) {
+                int count = 0;
+                for (ListItem<?> item = operation.operands(); item != null; item = item.next) {
+                    count++;
+                }
+                append((byte) (OPERATION + operation.getOperator().ordinal()), count, count);
+            } else {
+                throw new IllegalArgumentException("Unsupported node: " + node.getClass());
+            }
+        }
+
+        /**
+         * Appends a node.
+         *
+         * @param code     the opcode of the node
+         * @param argument the argument of the node
+         * @param operands the number of operands popped from the stack
+         */
+        private void append(byte code, int argument, int operands) {
+            if (size == codes.length) {
+                codes = Arrays.copyOf(codes, 2 * size);
+                arguments = Arrays.copyOf(arguments, 2 * size);
+            }
+            codes[size] = code;
+            arguments[size] = argument;
+            size++;
+            depth += 1 - operands;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        /**
+         * Returns the flat expression of the collected nodes.
+         *
+         * @return the flat expression of the collected nodes
+         */
+        FlatExpression build() {
+            return new FlatExpression(
+                Arrays.copyOf(codes, size),
+                Arrays.copyOf(arguments, size),
+                constants.toArray(new MyNumber[0]),
+                binding,
+                maxDepth);
+        }
+    }
+}
@@ -2,8 +2,11 @@ package h05.tree;
 
 import h05.math.MyNumber;
 import h05.math.MyReal;
+import org.jetbrains.annotations.Nullable;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Represents predefined identifiers (constants).
@@ -25,6 +28,17 @@ public enum Identifier {
      */
     PI("pi", new MyReal(BigDecimal.valueOf(Math.PI)));
 
+    /**
+     * The predefined identifiers by their names.
+     */
+    private static final Map<String, Identifier> BY_NAME = new HashMap<>();
+
+    static {
+        for (Identifier identifier : values()) {
+            BY_NAME.put(identifier.getName(), identifier);
+        }
+    }
+
     /**
      * The name of this identifier.
      */
@@ -46,6 +60,16 @@ public enum Identifier {
         this.value = value;
     }
 
+    /**
+     * Returns the predefined identifier with the given name.
+     *
+     * @param name the name of the identifier
+     * @return the predefined identifier with the given name or {@code null} if there is none
+     */
+    public static @Nullable Identifier fromName(String name) {
+        return BY_NAME.get(name);
+    }
+
     /**
      * Returns the name of this identifier.
      *
@@ -1,8 +1,9 @@
 package h05.tree;
 
 import h05.exception.IllegalIdentifierExceptions;
-import h05.exception.UndefinedIdentifierException;
 import h05.math.MyNumber;
+import h05.math.NumericContext;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Map;
 
@@ -28,6 +29,11 @@ public class IdentifierExpressionNode extends OperandExpressionNode {
      */
     private final String value;
 
+    /**
+     * The predefined identifier with the name of this identifier or {@code null} if there is none.
+     */
+    private final @Nullable Identifier reserved;
+
     /**
      * Constructs and initializes an identifier expression node with the given value.
      *
@@ -42,9 +48,10 @@ public class IdentifierExpressionNode extends OperandExpressionNode {
         if(value.length() == 0)
             throw new IllegalArgumentException("empty string");
 
-        if( !(value.matches("[a-zA-Z-]+")))
+        if(!ExpressionLexer.isIdentifier(value, 0, value.length()))
             throw new IllegalIdentifierExceptions(value);
         this.value = value;
+        this.reserved = Identifier.fromName(value);
     }
 
     /**
@@ -57,18 +64,14 @@ public class IdentifierExpressionNode extends OperandExpressionNode {
     }
 
     @Override
-    public MyNumber evaluate(Map<String, MyNumber> identifiers) {
-        boolean isInEnumDefined = false;
-        for(Identifier i:Identifier.values())
-            if(i.getValue().equals(identifiers.get(value)))
-                isInEnumDefined = true;
-
-        if(isInEnumDefined)
-            throw new IllegalIdentifierExceptions(value);
-        if(!(identifiers.containsKey(value) ))
-            throw new UndefinedIdentifierException(value);
+    public MyNumber evaluate(Map<String, MyNumber> identifiers, NumericContext context) {
+        return SlotBinding.resolve(value, reserved, identifiers.get(value));
+    }
 
-        return identifiers.get(value);
+    @Override
+    public CompiledExpression bind(SlotBinding binding) {
+        int slot = binding.slotOf(value);
+        return (environment, context) -> environment[slot];
     }
 
     @Override
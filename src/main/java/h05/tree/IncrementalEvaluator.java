@@ -0,0 +1,256 @@
+package h05.tree;
+
+import h05.exception.IllegalIdentifierExceptions;
+import h05.exception.UndefinedIdentifierException;
+import h05.math.MyNumber;
+import h05.math.NumericContext;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Evaluates many arithmetic expressions over a common set of identifiers incrementally. The
+ * results of operations are cached and only invalidated when the value of an identifier they depend
+ * on changes, so changing a single identifier only recomputes the operations depending on it.
+ *
+ * <p>Expressions are added to a {@link SharedNodeFactory}, so common subexpressions of all added
+ * expressions share their cached results. Every node knows its free identifiers, i.e. the
+ * identifiers occurring in it; the operations are indexed by their free identifiers to find the
+ * results to invalidate.
+ *
+ * <p>Example:
+ * <ul>
+ *     <li>Racket notation: (* (+ a b) c)</li>
+ *     <li>Changing c keeps the result of (+ a b)</li>
+ * </ul>
+ *
+ * <pre>{@code
+ *    IncrementalEvaluator evaluator = new IncrementalEvaluator();
+ *    ArithmeticExpressionNode formula = evaluator.add(root);
+ *    evaluator.set("a", new MyInteger(1));
+ *    MyNumber result = evaluator.evaluate(formula);
+ * }</pre>
+ *
+ * <p>An incremental evaluator is not thread-safe.
+ *
+ * @author Nhan Huynh
+ */
+public final class IncrementalEvaluator {
+
+    /**
+     * The numeric context of real results.
+     */
+    private final NumericContext context;
+
+    /**
+     * The factory of the nodes of the added expressions.
+     */
+    private final SharedNodeFactory factory = new SharedNodeFactory();
+
+    /**
+     * The values of the identifiers.
+     */
+    private final Map<String, MyNumber> identifiers = new HashMap<>();
+
+    /**
+     * The free identifiers of the added nodes.
+     */
+    private final Map<ArithmeticExpressionNode, Set<String>> freeIdentifiers =
+        new IdentityHashMap<>();
+
+    /**
+     * The distinct sets of free identifiers, so nodes with the same free identifiers share their
+     * set.
+     */
+    private final Map<Set<String>, Set<String>> identifierSets = new HashMap<>();
+
+    /**
+     * The operations depending on an identifier by its name.
+     */
+    private final Map<String, List<ArithmeticExpressionNode>> dependents = new HashMap<>();
+
+    /**
+     * The cached results of the operations.
+     */
+    private final Map<ArithmeticExpressionNode, MyNumber> results = new IdentityHashMap<>();
+
+    /**
+     * Constructs and initializes an incremental evaluator with the default numeric context.
+     */
+    public IncrementalEvaluator() {
+        this(NumericContext.DEFAULT);
+    }
+
+    /**
+     * Constructs and initializes an incremental evaluator with the given numeric context.
+     *
+     * @param context the numeric context of real results
+     * @throws NullPointerException if the context is {@code null}
+     */
+    public IncrementalEvaluator(NumericContext context) {
+        this.context = Objects.requireNonNull(context, "context null");
+    }
+
+    /**
+     * Adds an arithmetic expression to this evaluator.
+     *
+     * @param root the root node of the arithmetic expression
+     * @return the root node of the added expression to {@link #evaluate(ArithmeticExpressionNode)
+     *     evaluate}
+     * @throws NullPointerException if the root is {@code null}
+     */
+    public ArithmeticExpressionNode add(ArithmeticExpressionNode root) {
+        ArithmeticExpressionNode shared = factory.share(root);
+        Deque<ArithmeticExpressionNode> stack = new ArrayDeque<>();
+        stack.push(shared);
+        while (!stack.isEmpty()) {
+            ArithmeticExpressionNode node = stack.peek();
+            if (freeIdentifiers.containsKey(node)) {
+                stack.pop();
+                continue;
+            }
+            if (node instanceof IdentifierExpressionNode identifier) {
+                freeIdentifiers.put(node, canonical(Set.of(identifier.getValue())));
+                stack.pop();
+                continue;
+            }
+            if (!(node instanceof OperationExpressionNode operation)) {
+                freeIdentifiers.put(node, Set.of());
+                stack.pop();
+                continue;
+            }
+
+            // The free identifiers of an operation are the union of those of its operands
+            Set<String> free = new HashSet<>();
+            boolean complete = true;
+            for (ListItem<ArithmeticExpressionNode> item = operation.operands(); item != null;
+                 item = item.next) {
+                Set<String> operandFree = freeIdentifiers.get(item.key);
+                if (operandFree == null) {
+                    stack.push(item.key);
+                    complete = false;
+                } else if (complete) {
+                    free.addAll(operandFree);
+                }
+            }
+            if (complete) {
+                Set<String> canonical = canonical(free);
+                freeIdentifiers.put(node, canonical);
+                for (String name : canonical) {
+                    dependents.computeIfAbsent(name, key -> new ArrayList<>()).add(node);
+                }
+                stack.pop();
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Returns the shared instance of the given set of identifiers.
+     *
+     * @param names the set of identifiers
+     * @return the shared, unmodifiable instance of the given set
+     */
+    private Set<String> canonical(Set<String> names) {
+        Set<String> canonical = identifierSets.get(names);
+        if (canonical == null) {
+            canonical = Collections.unmodifiableSet(names);
+            identifierSets.put(canonical, canonical);
+        }
+        return canonical;
+    }
+
+    /**
+     * Returns the free identifiers of a node of an added expression.
+     *
+     * @param node the node of an added expression
+     * @return the names of the identifiers occurring in the node
+     * @throws IllegalArgumentException if the node is not part of an added expression
+     */
+    public Set<String> getFreeIdentifiers(ArithmeticExpressionNode node) {
+        Set<String> free = freeIdentifiers.get(node);
+        if (free == null) {
+            throw new IllegalArgumentException("Node not added: " + node);
+        }
+        return free;
+    }
+
+    /**
+     * Returns the values of the identifiers.
+     *
+     * @return an unmodifiable view of the values of the identifiers
+     */
+    public Map<String, MyNumber> getIdentifiers() {
+        return Collections.unmodifiableMap(identifiers);
+    }
+
+    /**
+     * Sets the value of an identifier. The cached results depending on the identifier are
+     * invalidated if the value changes.
+     *
+     * @param name  the identifier name
+     * @param value the new value of the identifier
+     * @throws NullPointerException if the name or the value is {@code null}
+     */
+    public void set(String name, MyNumber value) {
+        Objects.requireNonNull(name, "name null");
+        Objects.requireNonNull(value, "value null");
+        MyNumber old = identifiers.put(name, value);
+        // Numbers of different kinds may be equal, but evaluate differently
+        if (old == null || old.getClass() != value.getClass() || !old.equals(value)) {
+            invalidate(name);
+        }
+    }
+
+    /**
+     * Removes the value of an identifier. The cached results depending on the identifier are
+     * invalidated.
+     *
+     * @param name the identifier name
+     */
+    public void remove(String name) {
+        if (identifiers.remove(name) != null) {
+            invalidate(name);
+        }
+    }
+
+    /**
+     * Invalidates the cached results of the operations depending on the given identifier.
+     *
+     * @param name the identifier name
+     */
+    private void invalidate(String name) {
+        List<ArithmeticExpressionNode> nodes = dependents.get(name);
+        if (nodes != null) {
+            for (ArithmeticExpressionNode node : nodes) {
+                results.remove(node);
+            }
+        }
+    }
+
+    /**
+     * Evaluates an added arithmetic expression, recomputing only the operations whose results
+     * have been invalidated.
+     *
+     * @param root the root node returned by {@link #add(ArithmeticExpressionNode)}
+     * @return the result of the arithmetic expression
+     * @throws IllegalArgumentException     if the expression has not been added
+     * @throws IllegalIdentifierExceptions  if the identifier in the map is illegal to use
+     * @throws UndefinedIdentifierException if the identifier is not defined for use in the map
+     */
+    public MyNumber evaluate(ArithmeticExpressionNode root) {
+        if (!freeIdentifiers.containsKey(root)) {
+            throw new IllegalArgumentException("Expression not added: " + root);
+        }
+        return SharedNodeFactory.evaluate(root, identifiers, context, results);
+    }
+}
@@ -1,6 +1,7 @@
 package h05.tree;
 
 import h05.math.MyNumber;
+import h05.math.NumericContext;
 
 import java.util.Map;
 import java.util.Objects;
@@ -49,10 +50,15 @@ public class LiteralExpressionNode extends OperandExpressionNode {
     }
 
     @Override
-    public MyNumber evaluate(Map<String, MyNumber> identifiers) {
+    public MyNumber evaluate(Map<String, MyNumber> identifiers, NumericContext context) {
         return value;
     }
 
+    @Override
+    public CompiledExpression bind(SlotBinding binding) {
+        return (environment, context) -> value;
+    }
+
     @Override
     public ArithmeticExpressionNode clone() {
         return new LiteralExpressionNode(value);
@@ -2,9 +2,13 @@ package h05.tree;
 
 import h05.exception.WrongNumberOfOperandsException;
 import h05.math.MyNumber;
+import h05.math.NumericContext;
 import h05.math.MyReal;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -29,54 +33,94 @@ import java.util.Objects;
  *    OperationExpressionNode node = new OperationExpressionNode(Operator.ADD, operands);
  * }</pre>
  *
+ * <p>An operation expression node is immutable: the operands are copied when the node is
+ * constructed and when they are {@link #getOperands() returned}, so modifying the list items
+ * never modifies the node.
+ *
  * @author Nhan Huynh
  * @see Operator
  * @see ListItem
  */
 public class OperationExpressionNode implements ArithmeticExpressionNode {
 
+    /**
+     * The maximum depth of a tree which is bound to nested expressions, deeper trees are bound to
+     * a {@link FlatExpression} since nested expressions are evaluated recursively.
+     */
+    static final int MAX_BIND_DEPTH = 512;
+
     /**
      * The operator of this node.
      */
     private final Operator operator;
 
     /**
-     * The operands of this node.
+     * The operands of this node, which are never modified after construction.
      */
     private final @Nullable ListItem<ArithmeticExpressionNode> operands;
 
     /**
      * Contracts and initializes an operation expression node with the given operator and operands.
+     * The list items of the operands are copied.
      *
      * @param operator the operator of this node
      * @param operands the operands of this node
      * @throws NullPointerException if the operator is {@code null}
      */
     public OperationExpressionNode(Operator operator, @Nullable ListItem<ArithmeticExpressionNode> operands) {
-        Objects.requireNonNull(operator, "operator null");
-        int belowBorder = 0;
-        int upperBorder = 0;
-        if(operator.equals(Operator.SUB) ||operator.equals(Operator.ADD) ||operator.equals(Operator.MUL) ||operator.equals(Operator.DIV) )
-            upperBorder = Integer.MAX_VALUE;
-        if(operator.equals(Operator.SUB) ||operator.equals(Operator.DIV))
-            belowBorder = 1;
-        if(operator.equals(Operator.EXP) || operator.equals(Operator.LN) || operator.equals(Operator.SQRT))
-            belowBorder = upperBorder = 1;
-        if(operator.equals(Operator.EXPT) || operator.equals(Operator.LOG))
-            belowBorder = upperBorder = 2;
+        this(operator, operands, false);
+    }
 
+    /**
+     * Constructs and initializes an operation expression node with the given operator and operands.
+     * The builders of this package pass freshly built list items, which the node may own instead
+     * of copying them.
+     *
+     * @param operator the operator of this node
+     * @param operands the operands of this node
+     * @param owned    {@code true} if the node takes ownership of the list items, which must not be
+     *                 modified afterwards, {@code false} if they are copied
+     * @throws NullPointerException if the operator is {@code null}
+     */
+    OperationExpressionNode(
+        Operator operator,
+        @Nullable ListItem<ArithmeticExpressionNode> operands,
+        boolean owned) {
+        Objects.requireNonNull(operator, "operator null");
+        ListItem<ArithmeticExpressionNode> items = owned ? operands : copy(operands);
         int len = 0;
-        ListItem<ArithmeticExpressionNode> workOperands = operands;
-        while(workOperands!= null){
+        for (ListItem<ArithmeticExpressionNode> node = items; node != null; node = node.next) {
             len++;
-            workOperands = workOperands.next;
         }
-       if(len < belowBorder || len > upperBorder)
-            throw new WrongNumberOfOperandsException(len,belowBorder,upperBorder);
-
-
+        if (len < operator.getMinOperands() || len > operator.getMaxOperands()) {
+            throw new WrongNumberOfOperandsException(
+                len, operator.getMinOperands(), operator.getMaxOperands());
+        }
         this.operator = operator;
-        this.operands = operands;
+        this.operands = items;
+    }
+
+    /**
+     * Returns a copy of the given list items. The keys are not copied.
+     *
+     * @param items the list items to copy
+     * @return a copy of the list items
+     */
+    private static @Nullable ListItem<ArithmeticExpressionNode> copy(
+        @Nullable ListItem<ArithmeticExpressionNode> items) {
+        ListItem<ArithmeticExpressionNode> head = null;
+        ListItem<ArithmeticExpressionNode> tail = null;
+        for (ListItem<ArithmeticExpressionNode> node = items; node != null; node = node.next) {
+            ListItem<ArithmeticExpressionNode> item = new ListItem<>();
+            item.key = node.key;
+            if (head == null) {
+                head = item;
+            } else {
+                tail.next = item;
+            }
+            tail = item;
+        }
+        return head;
     }
 
     /**
@@ -89,44 +133,123 @@ public class OperationExpressionNode implements ArithmeticExpressionNode {
     }
 
     /**
-     * Returns the operands of this node.
+     * Returns a copy of the operands of this node. Modifying the returned list items does not
+     * modify this node.
      *
-     * @return the operands of this node
+     * @return a copy of the operands of this node
      */
     public ListItem<ArithmeticExpressionNode> getOperands() {
+        return copy(operands);
+    }
+
+    /**
+     * Returns the operands of this node without copying them, for traversals which only read the
+     * operands. The returned list items must not be modified.
+     *
+     * @return the operands of this node
+     */
+    @Nullable ListItem<ArithmeticExpressionNode> operands() {
         return operands;
     }
 
     @Override
-    public MyNumber evaluate(Map<String, MyNumber> identifiers) {
-        ListItem<ArithmeticExpressionNode> workOperands = operands;
-        assert workOperands != null;
-        MyNumber num = workOperands.key.evaluate(identifiers);
-        workOperands = workOperands.next;
-        String opera = operator.getSymbol();
-
-        if(workOperands == null){
-            switch (opera){
-                case "-": num = num.minus();break;
-                case "/": num = num.divide();break;
-                case "exp": num = num.exp();break;
-                case "ln":  num = num.ln();break;
-                case "sqrt": num = num.sqrt();break;
-            }
+    public MyNumber evaluate(Map<String, MyNumber> identifiers, NumericContext context) {
+        // Deeply nested operations would overflow the call stack when evaluated recursively
+        return StackEvaluator.evaluate(this, identifiers, context);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Trees deeper than {@value #MAX_BIND_DEPTH} are bound to a {@link FlatExpression}, so
+     * neither binding nor evaluating them overflows the call stack.
+     */
+    @Override
+    public CompiledExpression bind(SlotBinding binding) {
+        if (exceedsDepth(MAX_BIND_DEPTH)) {
+            return FlatExpression.of(this, binding);
         }
-        while(workOperands!= null){
-            MyNumber n = workOperands.key.evaluate(identifiers);
-            switch (opera){
-                case "-": num = num.minus(n);break;
-                case "+":  num = num.plus(n);break;
-                case "*": num = num.times(n);break;
-                case "/": num = num.divide(n);break;
-                case "expt": num = num.expt(n);break;
-                case "log": num = num.log(n);break;
+        return bindNested(binding);
+    }
+
+    /**
+     * Returns {@code true} if the tree rooted at this node is deeper than the given depth. The
+     * tree is only traversed up to the given depth.
+     *
+     * @param limit the depth to compare with
+     * @return {@code true} if the tree is deeper than the given depth
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private boolean exceedsDepth(int limit) {
+        // The next operand of every operation on the path from this node, this node has depth 1
+        ListItem<ArithmeticExpressionNode>[] next = new ListItem[Math.min(limit, 16)];
+        int top = 0;
+        next[0] = operands;
+        while (top >= 0) {
+            ListItem<ArithmeticExpressionNode> item = next[top];
+            if (item == null) {
+                top--;
+                continue;
+            }
+            next[top] = item.next;
+            if (item.key instanceof OperationExpressionNode operation) {
+                if (++top == limit) {
+                    return true;
+                }
+                if (top == next.length) {
+                    next = Arrays.copyOf(next, Math.min(limit, 2 * top));
+                }
+                next[top] = operation.operands;
             }
-            workOperands = workOperands.next;
         }
-        return num;
+        return false;
+    }
+
+    /**
+     * Binds this node to nested expressions, each evaluating its operands. The depth of the tree
+     * must have been checked.
+     *
+     * @param binding the slots of the identifiers
+     * @return the bound arithmetic expression
+     */
+    private CompiledExpression bindNested(SlotBinding binding) {
+        if (operands == null) {
+            MyNumber identity = operator.identity();
+            return (environment, context) -> identity;
+        }
+        CompiledExpression first = bindOperand(operands.key, binding);
+        if (operands.next == null) {
+            return (environment, context) ->
+                operator.apply(first.evaluate(environment, context), context);
+        }
+        List<CompiledExpression> bound = new ArrayList<>();
+        ListItem<ArithmeticExpressionNode> node = operands.next;
+        for (; node != null; node = node.next) {
+            bound.add(bindOperand(node.key, binding));
+        }
+        CompiledExpression[] rest = bound.toArray(new CompiledExpression[0]);
+        return (environment, context) -> {
+            MyNumber result = first.evaluate(environment, context);
+            for (CompiledExpression operand : rest) {
+                result = operator.apply(result, operand.evaluate(environment, context), context);
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Binds an operand of a tree whose depth has been checked already.
+     *
+     * @param operand the operand to bind
+     * @param binding the slots of the identifiers
+     * @return the bound operand
+     */
+    private static CompiledExpression bindOperand(
+        ArithmeticExpressionNode operand,
+        SlotBinding binding) {
+        return operand instanceof OperationExpressionNode operation
+            ? operation.bindNested(binding)
+            : operand.bind(binding);
     }
 
     @Override
@@ -139,19 +262,15 @@ public class OperationExpressionNode implements ArithmeticExpressionNode {
         return true;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The node is immutable, so the clone shares the operands, and with them all subtrees, with
+     * this node instead of copying them.
+     */
     @Override
     public ArithmeticExpressionNode clone() {
-        ListItem<ArithmeticExpressionNode>workOperands = operands;
-        ListItem<ArithmeticExpressionNode> newOperands = new ListItem<>();
-        ListItem<ArithmeticExpressionNode> newOperandsResult = newOperands;
-
-        while(workOperands != null){
-            newOperands.key = workOperands.key;
-            newOperands.next = new ListItem<>();
-            newOperands = newOperands.next;
-            workOperands = workOperands.next;
-        }
-        return new OperationExpressionNode(operator,newOperandsResult);
+        return new OperationExpressionNode(operator, operands, true);
     }
 
     @Override
@@ -1,5 +1,12 @@
 package h05.tree;
 
+import h05.exception.UndefinedOperatorException;
+import h05.exception.WrongNumberOfOperandsException;
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.NumericContext;
+import org.jetbrains.annotations.Nullable;
+
 /**
  * Represents the available operators.
  *
@@ -10,39 +17,39 @@ public enum Operator {
     /**
      * The addition operator.
      */
-    ADD("+"),
+    ADD("+", 0, Integer.MAX_VALUE),
     /**
      * The subtraction operator.
      */
-    SUB("-"),
+    SUB("-", 1, Integer.MAX_VALUE),
     /**
      * The multiplication operator.
      */
-    MUL("*"),
+    MUL("*", 0, Integer.MAX_VALUE),
     /**
      * The division operator.
      */
-    DIV("/"),
+    DIV("/", 1, Integer.MAX_VALUE),
     /**
      * The exponential function operator.
      */
-    EXP("exp"),
+    EXP("exp", 1, 1),
     /**
      * The exponentiation operator.
      */
-    EXPT("expt"),
+    EXPT("expt", 2, 2),
     /**
      * The natural logarithm operator.
      */
-    LN("ln"),
+    LN("ln", 1, 1),
     /**
      * The logarithm operator.
      */
-    LOG("log"),
+    LOG("log", 2, 2),
     /**
      * The square root operator.
      */
-    SQRT("sqrt");
+    SQRT("sqrt", 1, 1);
 
     /**
      * The operator's symbol.
@@ -50,12 +57,76 @@ public enum Operator {
     private final String symbol;
 
     /**
-     * Constructs and initializes an operator with the given symbol.
+     * The minimum number of operands of this operator.
+     */
+    private final int minOperands;
+
+    /**
+     * The maximum number of operands of this operator.
+     */
+    private final int maxOperands;
+
+    /**
+     * Constructs and initializes an operator with the given symbol and arity.
      *
-     * @param symbol the operator's symbol.
+     * @param symbol      the operator's symbol.
+     * @param minOperands the minimum number of operands
+     * @param maxOperands the maximum number of operands
      */
-    Operator(String symbol) {
+    Operator(String symbol, int minOperands, int maxOperands) {
         this.symbol = symbol;
+        this.minOperands = minOperands;
+        this.maxOperands = maxOperands;
+    }
+
+    /**
+     * Returns the operator with the given symbol.
+     *
+     * @param symbol the operator's symbol
+     * @return the operator with the given symbol
+     * @throws UndefinedOperatorException if there is no operator with the given symbol
+     */
+    public static Operator fromSymbol(String symbol) {
+        Operator operator = lookup(symbol, 0, symbol.length());
+        if (operator == null) {
+            throw new UndefinedOperatorException(symbol);
+        }
+        return operator;
+    }
+
+    /**
+     * Returns the operator whose symbol is the given range of characters. The first character and
+     * the length select the only possible candidate, which is then compared character by character.
+     *
+     * @param chars the characters containing the symbol
+     * @param start the index of the first character of the symbol (inclusive)
+     * @param end   the index of the last character of the symbol (exclusive)
+     * @return the operator with the given symbol or {@code null} if there is none
+     */
+    static @Nullable Operator lookup(CharSequence chars, int start, int end) {
+        int length = end - start;
+        if (length <= 0) {
+            return null;
+        }
+        Operator candidate = switch (chars.charAt(start)) {
+            case '+' -> ADD;
+            case '-' -> SUB;
+            case '*' -> MUL;
+            case '/' -> DIV;
+            case 'e' -> length == 3 ? EXP : EXPT;
+            case 'l' -> length == 2 ? LN : LOG;
+            case 's' -> SQRT;
+            default -> null;
+        };
+        if (candidate == null || candidate.symbol.length() != length) {
+            return null;
+        }
+        for (int i = 1; i < length; i++) {
+            if (chars.charAt(start + i) != candidate.symbol.charAt(i)) {
+                return null;
+            }
+        }
+        return candidate;
     }
 
     /**
@@ -67,6 +138,94 @@ public enum Operator {
         return symbol;
     }
 
+    /**
+     * Returns the minimum number of operands of this operator.
+     *
+     * @return the minimum number of operands of this operator
+     */
+    public int getMinOperands() {
+        return minOperands;
+    }
+
+    /**
+     * Returns the maximum number of operands of this operator.
+     *
+     * @return the maximum number of operands of this operator
+     */
+    public int getMaxOperands() {
+        return maxOperands;
+    }
+
+    /**
+     * Returns the result of this operator applied to no operands, i.e. its identity element.
+     *
+     * <p>Example:
+     * <ul>
+     *     <li>(+) = 0</li>
+     *     <li>(*) = 1</li>
+     * </ul>
+     *
+     * @return the identity element of this operator
+     * @throws WrongNumberOfOperandsException if this operator requires at least one operand
+     */
+    public MyNumber identity() {
+        return switch (this) {
+            case ADD -> MyInteger.ZERO;
+            case MUL -> MyInteger.ONE;
+            default -> throw new WrongNumberOfOperandsException(0, minOperands, maxOperands);
+        };
+    }
+
+    /**
+     * Returns the result of this operator applied to a single operand.
+     *
+     * <p>Example:
+     * <ul>
+     *     <li>(- x) = -x</li>
+     *     <li>(/ x) = 1/x</li>
+     *     <li>(+ x) = x</li>
+     * </ul>
+     *
+     * @param operand the operand
+     * @param context the numeric context of real results
+     * @return the result of this operator applied to the operand
+     * @throws WrongNumberOfOperandsException if this operator requires two operands
+     */
+    public MyNumber apply(MyNumber operand, NumericContext context) {
+        return switch (this) {
+            case ADD, MUL -> operand;
+            case SUB -> operand.minus();
+            case DIV -> operand.divide(context);
+            case EXP -> operand.exp(context);
+            case LN -> operand.ln(context);
+            case SQRT -> operand.sqrt(context);
+            case EXPT, LOG -> throw new WrongNumberOfOperandsException(1, minOperands, maxOperands);
+        };
+    }
+
+    /**
+     * Returns the result of this operator applied to two operands. Operators with more than two
+     * operands are evaluated from left to right by applying this method repeatedly.
+     *
+     * @param left    the left operand
+     * @param right   the right operand
+     * @param context the numeric context of real results
+     * @return the result of this operator applied to the operands
+     * @throws WrongNumberOfOperandsException if this operator requires a single operand
+     */
+    public MyNumber apply(MyNumber left, MyNumber right, NumericContext context) {
+        return switch (this) {
+            case ADD -> left.plus(right, context);
+            case SUB -> left.minus(right, context);
+            case MUL -> left.times(right, context);
+            case DIV -> left.divide(right, context);
+            case EXPT -> left.expt(right, context);
+            case LOG -> left.log(right, context);
+            case EXP, LN, SQRT ->
+                throw new WrongNumberOfOperandsException(2, minOperands, maxOperands);
+        };
+    }
+
     @Override
     public String toString() {
         return symbol;
@@ -0,0 +1,540 @@
+package h05.tree;
+
+import h05.exception.IllegalIdentifierExceptions;
+import h05.exception.UndefinedIdentifierException;
+import h05.math.MyNumber;
+import h05.math.MyRational;
+import h05.math.MyReal;
+import h05.math.NumericContext;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Evaluates large arithmetic expression trees in parallel on a {@link ForkJoinPool}. Only subtrees
+ * with at least {@link #getThreshold() threshold} nodes are split: the operands of such an
+ * operation are evaluated as separate tasks, the operands of other subtrees are grouped into tasks
+ * of about threshold nodes, and everything below the threshold is evaluated sequentially by the
+ * {@link StackEvaluator}.
+ *
+ * <p>The operand values of {@code +} and {@code *} with at least threshold operands are combined
+ * pairwise in parallel as well, but only if the combination is exact and therefore associative:
+ * <ul>
+ *     <li>{@code +} if the operands are not both rationals and reals,</li>
+ *     <li>{@code *} if no operand is a real,</li>
+ * </ul>
+ * and if no real has a larger scale than the numeric context. Otherwise the values are combined
+ * from left to right, so the result is always the same as the result of a sequential evaluation.
+ *
+ * <p>Example:
+ * <ul>
+ *     <li>Racket notation: (+ (* a 1) (* a 2) ... (* a 100000))</li>
+ * </ul>
+ *
+ * <pre>{@code
+ *    ParallelEvaluator evaluator = new ParallelEvaluator(ForkJoinPool.commonPool(), 1024);
+ *    MyNumber result = evaluator.evaluate(root, identifiers, NumericContext.DEFAULT);
+ * }</pre>
+ *
+ * @author Nhan Huynh
+ */
+public final class ParallelEvaluator {
+
+    /**
+     * The default minimum number of nodes of a subtree to split it.
+     */
+    public static final int DEFAULT_THRESHOLD = 1 << 12;
+
+    /**
+     * The maximum number of nested tasks, deeper subtrees are evaluated sequentially to bound the
+     * call stack of the worker threads.
+     */
+    private static final int MAX_NESTING = 64;
+
+    /**
+     * The initial capacity of the stack.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The pool executing the tasks.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The minimum number of nodes of a subtree to split it.
+     */
+    private final int threshold;
+
+    /**
+     * The sizes of the subtrees of the last tree which was split. Trees are immutable, so repeated
+     * evaluations of the same tree, e.g. with other identifier values, reuse them.
+     */
+    private volatile @Nullable HeavySubtrees cache;
+
+    /**
+     * Constructs and initializes a parallel evaluator using the common pool and the {@link
+     * #DEFAULT_THRESHOLD default threshold}.
+     */
+    public ParallelEvaluator() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Constructs and initializes a parallel evaluator.
+     *
+     * @param pool      the pool executing the tasks
+     * @param threshold the minimum number of nodes of a subtree to split it
+     * @throws IllegalArgumentException if the threshold is less than 2
+     * @throws NullPointerException     if the pool is {@code null}
+     */
+    public ParallelEvaluator(ForkJoinPool pool, int threshold) {
+        if (threshold < 2) {
+            throw new IllegalArgumentException("threshold < 2: " + threshold);
+        }
+        this.pool = Objects.requireNonNull(pool, "pool null");
+        this.threshold = threshold;
+    }
+
+    /**
+     * Returns the minimum number of nodes of a subtree to split it.
+     *
+     * @return the minimum number of nodes of a subtree to split it
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Evaluates the given arithmetic expression tree.
+     *
+     * @param root        the root of the arithmetic expression tree
+     * @param identifiers a map of identifiers and their values, which must not be modified during
+     *                    the evaluation
+     * @param context     the numeric context of real results
+     * @return the result of the arithmetic expression
+     * @throws IllegalIdentifierExceptions  if the identifier in the map is illegal to use
+     * @throws UndefinedIdentifierException if the identifier is not defined for use in the map
+     */
+    public MyNumber evaluate(
+        ArithmeticExpressionNode root,
+        Map<String, MyNumber> identifiers,
+        NumericContext context) {
+        Objects.requireNonNull(root, "root null");
+        if (!(root instanceof OperationExpressionNode operation)) {
+            return StackEvaluator.evaluate(root, identifiers, context);
+        }
+        HeavySubtrees subtrees = cache;
+        if (subtrees == null || subtrees.root != operation) {
+            if (!isHeavy(operation)) {
+                return StackEvaluator.evaluate(root, identifiers, context);
+            }
+            subtrees = new HeavySubtrees(operation, heavySubtrees(operation));
+            cache = subtrees;
+        }
+        Evaluation evaluation = new Evaluation(identifiers, context, subtrees.sizes);
+        return pool.invoke(evaluation.new OperationTask(operation, 0));
+    }
+
+    /**
+     * Returns {@code true} if the given tree has at least threshold nodes. The nodes are only
+     * counted up to the threshold, so small trees are not walked completely.
+     *
+     * @param root the root of the arithmetic expression tree
+     * @return {@code true} if the tree has at least threshold nodes
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private boolean isHeavy(OperationExpressionNode root) {
+        ListItem<ArithmeticExpressionNode>[] next = new ListItem[INITIAL_CAPACITY];
+        int top = 0;
+        next[0] = root.operands();
+        int count = 1;
+        while (count < threshold) {
+            ListItem<ArithmeticExpressionNode> item = next[top];
+            if (item == null) {
+                if (--top < 0) {
+                    return false;
+                }
+                continue;
+            }
+            next[top] = item.next;
+            count++;
+            if (item.key instanceof OperationExpressionNode operation) {
+                if (++top == next.length) {
+                    next = Arrays.copyOf(next, 2 * next.length);
+                }
+                next[top] = operation.operands();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the sizes of the subtrees with at least threshold nodes and of the operations which
+     * are operands of such subtrees.
+     *
+     * @param root the root of the arithmetic expression tree
+     * @return the sizes of the subtrees by their root
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Map<ArithmeticExpressionNode, Integer> heavySubtrees(OperationExpressionNode root) {
+        Map<ArithmeticExpressionNode, Integer> sizes = new IdentityHashMap<>();
+        OperationExpressionNode[] operations = new OperationExpressionNode[INITIAL_CAPACITY];
+        ListItem<ArithmeticExpressionNode>[] next = new ListItem[INITIAL_CAPACITY];
+        long[] counts = new long[INITIAL_CAPACITY];
+        int[] firstChildren = new int[INITIAL_CAPACITY];
+        // The operations among the operands of the open operations and their sizes, the children
+        // of an open operation start at its first child index
+        OperationExpressionNode[] children = new OperationExpressionNode[INITIAL_CAPACITY];
+        int[] childSizes = new int[INITIAL_CAPACITY];
+        int childCount = 0;
+        int top = 0;
+        operations[0] = root;
+        next[0] = root.operands();
+        counts[0] = 1;
+        while (true) {
+            ListItem<ArithmeticExpressionNode> item = next[top];
+            if (item == null) {
+                OperationExpressionNode operation = operations[top];
+                int size = (int) Math.min(counts[top], Integer.MAX_VALUE);
+                int firstChild = firstChildren[top];
+                if (size >= threshold) {
+                    sizes.put(operation, size);
+                    for (int i = firstChild; i < childCount; i++) {
+                        sizes.putIfAbsent(children[i], childSizes[i]);
+                    }
+                }
+                Arrays.fill(children, firstChild, childCount, null);
+                childCount = firstChild;
+                operations[top] = null;
+                if (--top < 0) {
+                    return sizes;
+                }
+                counts[top] += size;
+                if (childCount == children.length) {
+                    children = Arrays.copyOf(children, 2 * children.length);
+                    childSizes = Arrays.copyOf(childSizes, 2 * childSizes.length);
+                }
+                children[childCount] = operation;
+                childSizes[childCount++] = size;
+            } else {
+                next[top] = item.next;
+                if (item.key instanceof OperationExpressionNode operation) {
+                    if (++top == operations.length) {
+                        int capacity = 2 * operations.length;
+                        operations = Arrays.copyOf(operations, capacity);
+                        next = Arrays.copyOf(next, capacity);
+                        counts = Arrays.copyOf(counts, capacity);
+                        firstChildren = Arrays.copyOf(firstChildren, capacity);
+                    }
+                    operations[top] = operation;
+                    next[top] = operation.operands();
+                    counts[top] = 1;
+                    firstChildren[top] = childCount;
+                } else {
+                    counts[top]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if the given operand values may be combined in any grouping without
+     * changing the result.
+     *
+     * @param operator the operator combining the values
+     * @param values   the operand values
+     * @param context  the numeric context of real results
+     * @return {@code true} if the operator is associative for the given values
+     */
+    private static boolean isAssociative(
+        Operator operator,
+        MyNumber[] values,
+        NumericContext context) {
+        if (operator != Operator.ADD && operator != Operator.MUL) {
+            return false;
+        }
+        boolean real = false;
+        boolean rational = false;
+        for (MyNumber value : values) {
+            if (value instanceof MyReal) {
+                // Reals with a larger scale would be rounded by the first addition
+                if (value.toReal().scale() > context.getScale()) {
+                    return false;
+                }
+                real = true;
+            } else if (value instanceof MyRational) {
+                rational = true;
+            }
+        }
+        return operator == Operator.ADD ? !(real && rational) : !real;
+    }
+
+    /**
+     * The sizes of the subtrees of a tree with at least threshold nodes.
+     */
+    private static final class HeavySubtrees {
+
+        /**
+         * The root of the tree.
+         */
+        private final OperationExpressionNode root;
+
+        /**
+         * The sizes of the subtrees with at least threshold nodes and of their operations.
+         */
+        private final Map<ArithmeticExpressionNode, Integer> sizes;
+
+        /**
+         * Constructs and initializes the sizes of the subtrees of a tree.
+         *
+         * @param root  the root of the tree
+         * @param sizes the sizes of the subtrees with at least threshold nodes and of their
+         *              operations
+         */
+        HeavySubtrees(OperationExpressionNode root, Map<ArithmeticExpressionNode, Integer> sizes) {
+            this.root = root;
+            this.sizes = sizes;
+        }
+    }
+
+    /**
+     * The state shared by the tasks of one evaluation.
+     */
+    private final class Evaluation {
+
+        /**
+         * The map of identifiers and their values.
+         */
+        private final Map<String, MyNumber> identifiers;
+
+        /**
+         * The numeric context of real results.
+         */
+        private final NumericContext context;
+
+        /**
+         * The sizes of the subtrees with at least threshold nodes and of their operations.
+         */
+        private final Map<ArithmeticExpressionNode, Integer> sizes;
+
+        /**
+         * Constructs and initializes the state of an evaluation.
+         *
+         * @param identifiers the map of identifiers and their values
+         * @param context     the numeric context of real results
+         * @param sizes       the sizes of the subtrees with at least threshold nodes and of their
+         *                    operations
+         */
+        Evaluation(
+            Map<String, MyNumber> identifiers,
+            NumericContext context,
+            Map<ArithmeticExpressionNode, Integer> sizes) {
+            this.identifiers = identifiers;
+            this.context = context;
+            this.sizes = sizes;
+        }
+
+        /**
+         * Evaluates an operation with at least threshold nodes.
+         */
+        private final class OperationTask extends RecursiveTask<MyNumber> {
+
+            /**
+             * The operation to evaluate.
+             */
+            private final OperationExpressionNode operation;
+
+            /**
+             * The number of tasks this task is nested in.
+             */
+            private final int nesting;
+
+            /**
+             * Constructs and initializes a task evaluating the given operation.
+             *
+             * @param operation the operation to evaluate
+             * @param nesting   the number of tasks this task is nested in
+             */
+            OperationTask(OperationExpressionNode operation, int nesting) {
+                this.operation = operation;
+                this.nesting = nesting;
+            }
+
+            @Override
+            protected MyNumber compute() {
+                if (nesting >= MAX_NESTING) {
+                    return StackEvaluator.evaluate(operation, identifiers, context);
+                }
+                List<ArithmeticExpressionNode> operands = new ArrayList<>();
+                for (ListItem<ArithmeticExpressionNode> item = operation.operands();
+                     item != null; item = item.next) {
+                    operands.add(item.key);
+                }
+                MyNumber[] values = new MyNumber[operands.size()];
+
+                // Heavy operands are tasks on their own, light operands are grouped
+                List<ForkJoinTask<?>> tasks = new ArrayList<>();
+                int from = 0;
+                long weight = 0;
+                for (int i = 0; i < operands.size(); i++) {
+                    Integer size = sizes.get(operands.get(i));
+                    if (size != null && size >= threshold) {
+                        if (from < i) {
+                            tasks.add(new OperandsTask(operands, values, from, i));
+                        }
+                        int index = i;
+                        OperationTask task = new OperationTask(
+                            (OperationExpressionNode) operands.get(i), nesting + 1);
+                        tasks.add(ForkJoinTask.adapt(() -> values[index] = task.compute()));
+                        from = i + 1;
+                        weight = 0;
+                    } else if ((weight += size == null ? 1 : size) >= threshold) {
+                        tasks.add(new OperandsTask(operands, values, from, i + 1));
+                        from = i + 1;
+                        weight = 0;
+                    }
+                }
+                if (from < operands.size()) {
+                    tasks.add(new OperandsTask(operands, values, from, operands.size()));
+                }
+                if (tasks.size() == 1) {
+                    tasks.get(0).invoke();
+                } else {
+                    ForkJoinTask.invokeAll(tasks);
+                }
+                return combine(operation.getOperator(), values);
+            }
+        }
+
+        /**
+         * Evaluates a range of light operands sequentially.
+         */
+        private final class OperandsTask extends RecursiveTask<Void> {
+
+            /**
+             * The operands of the operation.
+             */
+            private final List<ArithmeticExpressionNode> operands;
+
+            /**
+             * The values of the operands.
+             */
+            private final MyNumber[] values;
+
+            /**
+             * The index of the first operand to evaluate (inclusive).
+             */
+            private final int from;
+
+            /**
+             * The index of the last operand to evaluate (exclusive).
+             */
+            private final int to;
+
+            /**
+             * Constructs and initializes a task evaluating a range of operands.
+             *
+             * @param operands the operands of the operation
+             * @param values   the values of the operands
+             * @param from     the index of the first operand to evaluate (inclusive)
+             * @param to       the index of the last operand to evaluate (exclusive)
+             */
+            OperandsTask(List<ArithmeticExpressionNode> operands, MyNumber[] values, int from,
+                         int to) {
+                this.operands = operands;
+                this.values = values;
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected Void compute() {
+                for (int i = from; i < to; i++) {
+                    values[i] = StackEvaluator.evaluate(operands.get(i), identifiers, context);
+                }
+                return null;
+            }
+        }
+
+        /**
+         * Combines the values of the operands of an operation.
+         *
+         * @param operator the operator of the operation
+         * @param values   the values of the operands
+         * @return the result of the operation
+         */
+        private MyNumber combine(Operator operator, MyNumber[] values) {
+            if (values.length >= threshold && isAssociative(operator, values, context)) {
+                return new CombineTask(operator, values, 0, values.length).invoke();
+            }
+            return FlatExpression.apply(operator, values, 0, values.length, context);
+        }
+
+        /**
+         * Combines a range of operand values of an associative operation by splitting it in
+         * halves.
+         */
+        private final class CombineTask extends RecursiveTask<MyNumber> {
+
+            /**
+             * The associative operator.
+             */
+            private final Operator operator;
+
+            /**
+             * The values of the operands.
+             */
+            private final MyNumber[] values;
+
+            /**
+             * The index of the first value to combine (inclusive).
+             */
+            private final int from;
+
+            /**
+             * The index of the last value to combine (exclusive).
+             */
+            private final int to;
+
+            /**
+             * Constructs and initializes a task combining a range of at least two values.
+             *
+             * @param operator the associative operator
+             * @param values   the values of the operands
+             * @param from     the index of the first value to combine (inclusive)
+             * @param to       the index of the last value to combine (exclusive)
+             */
+            CombineTask(Operator operator, MyNumber[] values, int from, int to) {
+                this.operator = operator;
+                this.values = values;
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected MyNumber compute() {
+                if (to - from < threshold) {
+                    MyNumber result = values[from];
+                    for (int i = from + 1; i < to; i++) {
+                        result = operator.apply(result, values[i], context);
+                    }
+                    return result;
+                }
+                int middle = (from + to) >>> 1;
+                CombineTask left = new CombineTask(operator, values, from, middle);
+                left.fork();
+                MyNumber right = new CombineTask(operator, values, middle, to).compute();
+                return operator.apply(left.join(), right, context);
+            }
+        }
+    }
+}
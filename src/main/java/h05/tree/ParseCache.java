@@ -0,0 +1,304 @@
+package h05.tree;
+
+import h05.exception.BadOperationException;
+import h05.exception.IllegalIdentifierExceptions;
+import h05.exception.ParenthesesMismatchException;
+import h05.exception.UndefinedOperatorException;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the arithmetic expression trees of recently parsed expressions, so an expression which is
+ * parsed again and again is only parsed once. The cache is keyed by the text of the expression,
+ * which is found without lexing it again, and by the normalized expression, i.e. its tokens
+ * separated by single spaces as in {@link ArithmeticExpressionNode#toString()}, so expressions
+ * differing only in whitespace share their tree. An expression whose text is not normalized takes
+ * two entries of the capacity.
+ *
+ * <p>The cache is safe to use from many threads. It is split into independently locked segments,
+ * each evicting its least recently used entry when it is full, so threads only contend when they
+ * access the same segment. Expressions are parsed outside the locks; if two threads miss the same
+ * expression at once, both parse it and the first tree is kept. The returned trees are immutable
+ * and may be shared by all threads, e.g. to {@link ArithmeticExpressionNode#bind(SlotBinding)
+ * bind} or {@link ExpressionCompiler compile} them once.
+ *
+ * <p>Example:
+ * <ul>
+ *     <li>Input: (+ a (* b 2)) and ( + a ( * b 2 ) )</li>
+ *     <li>Normalized: (+ a (* b 2))</li>
+ * </ul>
+ *
+ * <pre>{@code
+ *    ParseCache cache = new ParseCache(1024);
+ *    ArithmeticExpressionNode root = cache.parse("( + a ( * b 2 ) )");
+ *    cache.parse("(+ a (* b 2))"); // Hit, returns root
+ * }</pre>
+ *
+ * @author Nhan Huynh
+ */
+public final class ParseCache {
+
+    /**
+     * The default maximum number of cached expressions.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The maximum number of segments.
+     */
+    private static final int MAX_SEGMENTS = 16;
+
+    /**
+     * The segments of this cache, their number is a power of two.
+     */
+    private final Segment[] segments;
+
+    /**
+     * The maximum number of cached expressions.
+     */
+    private final int capacity;
+
+    /**
+     * The number of lookups which found a cached tree.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * The number of lookups which had to parse the expression.
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * The number of evicted trees.
+     */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs and initializes a parse cache with the default capacity.
+     */
+    public ParseCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs and initializes a parse cache.
+     *
+     * @param capacity the maximum number of cached expressions
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public ParseCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int count = Math.min(MAX_SEGMENTS, Integer.highestOneBit(capacity));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // Distribute the capacity evenly, so the segments hold exactly the capacity together
+            segments[i] = new Segment(capacity / count + (i < capacity % count ? 1 : 0));
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the arithmetic expression tree of an expression, parsing it only if it is not cached.
+     * Expressions which cannot be parsed are not cached.
+     *
+     * @param expression the string representation of the arithmetic expression to parse
+     * @return the root node of the arithmetic expression tree
+     * @throws BadOperationException        if there is no expression or a token is not allowed at
+     *                                      its position
+     * @throws IllegalIdentifierExceptions  if a token is neither a number nor a valid identifier
+     * @throws NullPointerException         if the expression is {@code null}
+     * @throws ParenthesesMismatchException if the parentheses are mismatched
+     * @throws UndefinedOperatorException   if an operator is not defined
+     * @see ExpressionTreeHandler#parse(CharSequence)
+     */
+    public ArithmeticExpressionNode parse(CharSequence expression) {
+        // Expressions are usually parsed again with the same text, which is looked up as it is
+        String text = Objects.requireNonNull(expression, "expression null").toString();
+        ArithmeticExpressionNode root = get(text);
+        if (root != null) {
+            hits.increment();
+            return root;
+        }
+        String key = normalize(text);
+        boolean normalized = key.equals(text);
+        if (!normalized) {
+            root = get(key);
+            if (root != null) {
+                hits.increment();
+                return put(text, root);
+            }
+        }
+        misses.increment();
+        root = put(key, ExpressionTreeHandler.parse(key));
+        return normalized ? root : put(text, root);
+    }
+
+    /**
+     * Returns the cached tree of a key.
+     *
+     * @param key the text or the normalized expression
+     * @return the cached tree or {@code null} if the key is not cached
+     */
+    private @Nullable ArithmeticExpressionNode get(String key) {
+        Segment segment = segments[index(key)];
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    /**
+     * Caches the tree of a key unless another thread cached a tree for it first.
+     *
+     * @param key  the text or the normalized expression
+     * @param root the tree of the key
+     * @return the tree cached for the key
+     */
+    private ArithmeticExpressionNode put(String key, ArithmeticExpressionNode root) {
+        Segment segment = segments[index(key)];
+        ArithmeticExpressionNode cached;
+        synchronized (segment) {
+            cached = segment.putIfAbsent(key, root);
+        }
+        return cached == null ? root : cached;
+    }
+
+    /**
+     * Returns the normalized form of an expression, i.e. its tokens separated by single spaces
+     * except after opening and before closing parentheses.
+     *
+     * <p>Example:
+     * <ul>
+     *     <li>Input: {@code " (+ a(*  b 2) )"}</li>
+     *     <li>Normalized: {@code "(+ a (* b 2))"}</li>
+     * </ul>
+     *
+     * @param expression the string representation of the arithmetic expression
+     * @return the normalized expression
+     * @throws NullPointerException if the expression is {@code null}
+     */
+    public static String normalize(CharSequence expression) {
+        Objects.requireNonNull(expression, "expression null");
+        StringBuilder sb = new StringBuilder(expression.length());
+        ExpressionLexer lexer = new ExpressionLexer(expression);
+        while (lexer.next()) {
+            int start = lexer.start();
+            char first = expression.charAt(start);
+            if (!sb.isEmpty() && sb.charAt(sb.length() - 1) != '(' && first != ')') {
+                sb.append(' ');
+            }
+            sb.append(expression, start, lexer.end());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the index of the segment of a key.
+     *
+     * @param key the text or the normalized expression
+     * @return the index of the segment of the key
+     */
+    private int index(String key) {
+        int hash = key.hashCode();
+        // Spread the high bits, since only the low bits select the segment
+        return (hash ^ (hash >>> 16)) & (segments.length - 1);
+    }
+
+    /**
+     * Returns the maximum number of cached expressions.
+     *
+     * @return the maximum number of cached expressions
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of cached expressions.
+     *
+     * @return the number of cached expressions
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the number of lookups which found a cached tree.
+     *
+     * @return the number of lookups which found a cached tree
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups which had to parse the expression.
+     *
+     * @return the number of lookups which had to parse the expression
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of trees evicted to make room for other trees.
+     *
+     * @return the number of evicted trees
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Removes all cached expressions. The counters are not reset.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * A segment of the cache, which evicts its least recently used entry when it is full. A
+     * segment is guarded by its own lock.
+     */
+    private final class Segment extends LinkedHashMap<String, ArithmeticExpressionNode> {
+
+        /**
+         * The maximum number of entries of this segment.
+         */
+        private final int capacity;
+
+        /**
+         * Constructs and initializes an empty segment.
+         *
+         * @param capacity the maximum number of entries of the segment
+         */
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ArithmeticExpressionNode> eldest) {
+            if (size() <= capacity) {
+                return false;
+            }
+            evictions.increment();
+            return true;
+        }
+    }
+}
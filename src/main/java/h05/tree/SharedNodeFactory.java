@@ -0,0 +1,390 @@
+package h05.tree;
+
+import h05.exception.IllegalIdentifierExceptions;
+import h05.exception.UndefinedIdentifierException;
+import h05.exception.WrongNumberOfOperandsException;
+import h05.math.MyNumber;
+import h05.math.NumericContext;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Creates arithmetic expression nodes with hash-consing: structurally equal nodes created by the
+ * same factory are the same object. Arithmetic expression trees built with a factory are therefore
+ * directed acyclic graphs in which every common subexpression is stored once.
+ *
+ * <p>An operation is identified by its operator and the identities of its operands, which have
+ * been created by the factory as well. The structural hash of every node is computed once from the
+ * hashes of its operands when the node is created.
+ *
+ * <p>Shared nodes should be evaluated with {@link #evaluate(ArithmeticExpressionNode, Map,
+ * NumericContext)}, which evaluates every shared node once per evaluation.
+ *
+ * <p>Example:
+ * <ul>
+ *     <li>Racket notation: (+ (* a b) (* a b))</li>
+ *     <li>Shared: the operands of the addition are the same node</li>
+ * </ul>
+ *
+ * <pre>{@code
+ *    SharedNodeFactory factory = new SharedNodeFactory();
+ *    ArithmeticExpressionNode shared = factory.share(root);
+ *    MyNumber result = SharedNodeFactory.evaluate(shared, identifiers, NumericContext.DEFAULT);
+ * }</pre>
+ *
+ * <p>A factory is not thread-safe, the nodes it creates are.
+ *
+ * @author Nhan Huynh
+ */
+public final class SharedNodeFactory {
+
+    /**
+     * The initial capacity of the stacks.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The nodes created by this factory by their structure.
+     */
+    private final Map<Object, ArithmeticExpressionNode> nodes = new HashMap<>();
+
+    /**
+     * The structural hashes of the nodes created by this factory.
+     */
+    private final Map<ArithmeticExpressionNode, Integer> hashes = new IdentityHashMap<>();
+
+    /**
+     * Returns the number of distinct nodes created by this factory.
+     *
+     * @return the number of distinct nodes created by this factory
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Returns the shared literal node of the given number.
+     *
+     * @param value the literal operand
+     * @return the shared literal node of the given number
+     * @throws NullPointerException if the value is {@code null}
+     */
+    public ArithmeticExpressionNode literal(MyNumber value) {
+        Objects.requireNonNull(value, "value null");
+        LiteralKey key = new LiteralKey(value.getClass(), value);
+        return intern(key, () -> new LiteralExpressionNode(value));
+    }
+
+    /**
+     * Returns the shared identifier node of the given name.
+     *
+     * @param name the identifier name
+     * @return the shared identifier node of the given name
+     * @throws NullPointerException        if the name is {@code null}
+     * @throws IllegalIdentifierExceptions if the name is not a valid identifier
+     */
+    public ArithmeticExpressionNode identifier(String name) {
+        Objects.requireNonNull(name, "name null");
+        return intern(name, () -> new IdentifierExpressionNode(name));
+    }
+
+    /**
+     * Returns the shared operation node of the given operator and operands.
+     *
+     * @param operator the operator of the operation
+     * @param operands the operands of the operation, created by this factory
+     * @return the shared operation node of the given operator and operands
+     * @throws IllegalArgumentException       if an operand has not been created by this factory
+     * @throws NullPointerException           if the operator or an operand is {@code null}
+     * @throws WrongNumberOfOperandsException if the number of operands does not match the arity
+     *                                        of the operator
+     */
+    public ArithmeticExpressionNode operation(
+        Operator operator,
+        List<? extends ArithmeticExpressionNode> operands) {
+        Objects.requireNonNull(operator, "operator null");
+        ArithmeticExpressionNode[] children = operands.toArray(new ArithmeticExpressionNode[0]);
+        int hash = operator.ordinal();
+        for (ArithmeticExpressionNode child : children) {
+            Integer childHash = hashes.get(Objects.requireNonNull(child, "operand null"));
+            if (childHash == null) {
+                throw new IllegalArgumentException("Operand not created by this factory: " + child);
+            }
+            hash = 31 * hash + childHash;
+        }
+        return intern(new OperationKey(operator, children, hash), () -> {
+            ListItem<ArithmeticExpressionNode> head = null;
+            for (int i = children.length - 1; i >= 0; i--) {
+                ListItem<ArithmeticExpressionNode> item = new ListItem<>();
+                item.key = children[i];
+                item.next = head;
+                head = item;
+            }
+            return new OperationExpressionNode(operator, head, true);
+        });
+    }
+
+    /**
+     * Returns the node with the given structure, creating it if this factory has not created one
+     * yet.
+     *
+     * @param key     the structure of the node
+     * @param factory creates the node if necessary
+     * @return the node with the given structure
+     */
+    private ArithmeticExpressionNode intern(
+        Object key,
+        Supplier<ArithmeticExpressionNode> factory) {
+        ArithmeticExpressionNode node = nodes.get(key);
+        if (node == null) {
+            node = factory.get();
+            nodes.put(key, node);
+            hashes.put(node, key.hashCode());
+        }
+        return node;
+    }
+
+    /**
+     * Returns the arithmetic expression tree built from the shared nodes of this factory which is
+     * structurally equal to the given tree. The given tree is not modified.
+     *
+     * @param root the root node of the arithmetic expression tree
+     * @return the root node of the shared arithmetic expression tree
+     * @throws NullPointerException if the root is {@code null}
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ArithmeticExpressionNode share(ArithmeticExpressionNode root) {
+        Objects.requireNonNull(root, "root null");
+        if (!(root instanceof OperationExpressionNode rootOperation)) {
+            return shareOperand(root);
+        }
+
+        // Post-order traversal keeping the shared operands of the open operations on a stack
+        Operator[] operators = new Operator[INITIAL_CAPACITY];
+        ListItem<ArithmeticExpressionNode>[] next = new ListItem[INITIAL_CAPACITY];
+        List<ArithmeticExpressionNode>[] operands = new List[INITIAL_CAPACITY];
+        int top = 0;
+        operators[0] = rootOperation.getOperator();
+        next[0] = rootOperation.operands();
+        operands[0] = new ArrayList<>();
+
+        while (true) {
+            ListItem<ArithmeticExpressionNode> item = next[top];
+            ArithmeticExpressionNode node;
+            if (item == null) {
+                node = operation(operators[top], operands[top]);
+                operators[top] = null;
+                operands[top] = null;
+                if (--top < 0) {
+                    return node;
+                }
+            } else {
+                next[top] = item.next;
+                if (item.key instanceof OperationExpressionNode operation) {
+                    if (++top == operators.length) {
+                        int capacity = 2 * operators.length;
+                        operators = Arrays.copyOf(operators, capacity);
+                        next = Arrays.copyOf(next, capacity);
+                        operands = Arrays.copyOf(operands, capacity);
+                    }
+                    operators[top] = operation.getOperator();
+                    next[top] = operation.operands();
+                    operands[top] = new ArrayList<>();
+                    continue;
+                }
+                node = shareOperand(item.key);
+            }
+            operands[top].add(node);
+        }
+    }
+
+    /**
+     * Returns the shared node of the given operand node.
+     *
+     * @param node the literal or identifier node
+     * @return the shared node of the given operand node
+     */
+    private ArithmeticExpressionNode shareOperand(ArithmeticExpressionNode node) {
+        if (node instanceof IdentifierExpressionNode identifier) {
+            return identifier(identifier.getValue());
+        }
+        return literal(((LiteralExpressionNode) node).getValue());
+    }
+
+    /**
+     * Evaluates the given arithmetic expression, evaluating every node which is the operand of
+     * several operations once. The intermediate results are only kept for this evaluation.
+     *
+     * @param root        the root node of the arithmetic expression
+     * @param identifiers a map of identifiers and their values
+     * @param context     the numeric context of real results
+     * @return the result of the arithmetic expression
+     * @throws IllegalIdentifierExceptions  if the identifier in the map is illegal to use
+     * @throws UndefinedIdentifierException if the identifier is not defined for use in the map
+     */
+    public static MyNumber evaluate(
+        ArithmeticExpressionNode root,
+        Map<String, MyNumber> identifiers,
+        NumericContext context) {
+        return evaluate(root, identifiers, context, new IdentityHashMap<>());
+    }
+
+    /**
+     * Evaluates the given arithmetic expression, reusing the results of operations which have
+     * been evaluated already. The results of all evaluated operations are added to the given map.
+     *
+     * @param root        the root node of the arithmetic expression
+     * @param identifiers a map of identifiers and their values
+     * @param context     the numeric context of real results
+     * @param results     the results of the evaluated operations by identity
+     * @return the result of the arithmetic expression
+     * @throws IllegalIdentifierExceptions  if the identifier in the map is illegal to use
+     * @throws UndefinedIdentifierException if the identifier is not defined for use in the map
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static MyNumber evaluate(
+        ArithmeticExpressionNode root,
+        Map<String, MyNumber> identifiers,
+        NumericContext context,
+        Map<ArithmeticExpressionNode, MyNumber> results) {
+        Objects.requireNonNull(root, "root null");
+        if (!(root instanceof OperationExpressionNode rootOperation)) {
+            return root.evaluate(identifiers, context);
+        }
+        MyNumber result = results.get(root);
+        if (result != null) {
+            return result;
+        }
+
+        OperationExpressionNode[] operations = new OperationExpressionNode[INITIAL_CAPACITY];
+        ListItem<ArithmeticExpressionNode>[] next = new ListItem[INITIAL_CAPACITY];
+        MyNumber[] values = new MyNumber[INITIAL_CAPACITY];
+        int[] counts = new int[INITIAL_CAPACITY];
+        int top = 0;
+        operations[0] = rootOperation;
+        next[0] = rootOperation.operands();
+
+        while (true) {
+            ListItem<ArithmeticExpressionNode> item = next[top];
+            MyNumber value;
+            if (item == null) {
+                OperationExpressionNode operation = operations[top];
+                Operator operator = operation.getOperator();
+                value = switch (counts[top]) {
+                    case 0 -> operator.identity();
+                    case 1 -> operator.apply(values[top], context);
+                    default -> values[top];
+                };
+                results.put(operation, value);
+                operations[top] = null;
+                values[top] = null;
+                if (--top < 0) {
+                    return value;
+                }
+            } else {
+                next[top] = item.next;
+                value = results.get(item.key);
+                if (value == null) {
+                    if (item.key instanceof OperationExpressionNode operation) {
+                        if (++top == operations.length) {
+                            int capacity = 2 * operations.length;
+                            operations = Arrays.copyOf(operations, capacity);
+                            next = Arrays.copyOf(next, capacity);
+                            values = Arrays.copyOf(values, capacity);
+                            counts = Arrays.copyOf(counts, capacity);
+                        }
+                        operations[top] = operation;
+                        next[top] = operation.operands();
+                        values[top] = null;
+                        counts[top] = 0;
+                        continue;
+                    }
+                    value = item.key.evaluate(identifiers, context);
+                }
+            }
+
+            // Fold the value into the operation on top
+            if (counts[top]++ == 0) {
+                values[top] = value;
+            } else {
+                values[top] = operations[top].getOperator().apply(values[top], value, context);
+            }
+        }
+    }
+
+    /**
+     * The structure of a literal: its number and the kind of its number, since numbers of
+     * different kinds may be equal but are different literals.
+     *
+     * @param kind  the class of the number
+     * @param value the number
+     */
+    private record LiteralKey(Class<?> kind, MyNumber value) {
+    }
+
+    /**
+     * The structure of an operation: its operator and the identities of its operands.
+     */
+    private static final class OperationKey {
+
+        /**
+         * The operator of the operation.
+         */
+        private final Operator operator;
+
+        /**
+         * The operands of the operation.
+         */
+        private final ArithmeticExpressionNode[] operands;
+
+        /**
+         * The structural hash of the operation.
+         */
+        private final int hash;
+
+        /**
+         * Constructs and initializes the structure of an operation.
+         *
+         * @param operator the operator of the operation
+         * @param operands the operands of the operation
+         * @param hash     the structural hash of the operation
+         */
+        OperationKey(Operator operator, ArithmeticExpressionNode[] operands, int hash) {
+            this.operator = operator;
+            this.operands = operands;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof OperationKey key)
+                || hash != key.hash
+                || operator != key.operator
+                || operands.length != key.operands.length) {
+                return false;
+            }
+            for (int i = 0; i < operands.length; i++) {
+                if (operands[i] != key.operands[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package h05.tree;
+
+import h05.exception.IllegalIdentifierExceptions;
+import h05.exception.UndefinedIdentifierException;
+import h05.math.MyNumber;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Binds the identifiers of an arithmetic expression to slots, i.e. indices into a flat environment
+ * array. Names are resolved to slots once when an expression is {@link
+ * ArithmeticExpressionNode#bind(SlotBinding) bound}, so evaluating a bound expression only indexes
+ * the environment instead of looking up each identifier in a map.
+ *
+ * <p>The predefined identifiers ({@link Identifier}) may be left out of the map of identifiers and
+ * then evaluate to their constant value. A map assigning a different value to a predefined
+ * identifier is rejected when the environment is {@link #bind(Map) created}.
+ *
+ * <p>Example:
+ * <ul>
+ *     <li>Racket notation: (+ a (* b 2))</li>
+ * </ul>
+ *
+ * <pre>{@code
+ *    SlotBinding binding = SlotBinding.of(root); // a -> 0, b -> 1
+ *    CompiledExpression expression = root.bind(binding);
+ *    MyNumber result = expression.evaluate(binding.bind(identifiers));
+ * }</pre>
+ *
+ * @author Nhan Huynh
+ */
+public final class SlotBinding {
+
+    /**
+     * The names of the identifiers in slot order.
+     */
+    private final List<String> names;
+
+    /**
+     * The slots of the identifiers.
+     */
+    private final Map<String, Integer> slots;
+
+    /**
+     * The predefined identifiers in slot order, {@code null} for user defined identifiers.
+     */
+    private final @Nullable Identifier[] reserved;
+
+    /**
+     * Constructs and initializes a slot binding with the given names in slot order.
+     *
+     * @param names the names of the identifiers in slot order, without duplicates
+     */
+    private SlotBinding(List<String> names) {
+        this.names = names;
+        this.slots = new HashMap<>();
+        this.reserved = new Identifier[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            slots.put(names.get(i), i);
+            reserved[i] = Identifier.fromName(names.get(i));
+        }
+    }
+
+    /**
+     * Returns a slot binding for the given names. The identifier with the name {@code names.get(i)}
+     * is bound to the {@code i}-th slot, later duplicates are ignored.
+     *
+     * @param names the names of the identifiers in slot order
+     * @return the slot binding for the given names
+     * @throws NullPointerException if the names are {@code null}
+     */
+    public static SlotBinding of(List<String> names) {
+        return new SlotBinding(names.stream().distinct().toList());
+    }
+
+    /**
+     * Returns a slot binding for the identifiers of the given arithmetic expression tree. The slots
+     * are assigned in the order of the first occurrence of the identifiers from left to right.
+     *
+     * @param root the root of the arithmetic expression tree
+     * @return the slot binding for the identifiers of the tree
+     * @throws NullPointerException if the root is {@code null}
+     */
+    public static SlotBinding of(ArithmeticExpressionNode root) {
+        Objects.requireNonNull(root, "root null");
+        Map<String, Integer> seen = new HashMap<>();
+        Deque<ArithmeticExpressionNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            ArithmeticExpressionNode node = stack.pop();
+            if (node instanceof IdentifierExpressionNode identifier) {
+                seen.putIfAbsent(identifier.getValue(), seen.size());
+            } else if (node instanceof OperationExpressionNode operation) {
+                // Push the operands in reverse order to visit them from left to right
+                Deque<ArithmeticExpressionNode> operands = new ArrayDeque<>();
+                ListItem<ArithmeticExpressionNode> item = operation.operands();
+                for (; item != null; item = item.next) {
+                    operands.push(item.key);
+                }
+                while (!operands.isEmpty()) {
+                    stack.push(operands.pop());
+                }
+            }
+        }
+        String[] names = new String[seen.size()];
+        seen.forEach((name, slot) -> names[slot] = name);
+        return new SlotBinding(List.of(names));
+    }
+
+    /**
+     * Returns the names of the identifiers in slot order.
+     *
+     * @return the names of the identifiers in slot order
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Returns the number of slots.
+     *
+     * @return the number of slots
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Returns the slot of the given identifier.
+     *
+     * @param name the name of the identifier
+     * @return the slot of the identifier
+     * @throws UndefinedIdentifierException if the identifier has no slot
+     */
+    public int slotOf(String name) {
+        Integer slot = slots.get(name);
+        if (slot == null) {
+            throw new UndefinedIdentifierException(name);
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the predefined identifier bound to the given slot.
+     *
+     * @param slot the slot
+     * @return the predefined identifier bound to the slot or {@code null} if the identifier of the
+     *     slot is user defined
+     */
+    @Nullable Identifier reserved(int slot) {
+        return reserved[slot];
+    }
+
+    /**
+     * Creates the environment of a bound expression by looking up each identifier of this binding
+     * once.
+     *
+     * @param identifiers a map of identifiers and their values
+     * @return the values of the identifiers in slot order
+     * @throws IllegalIdentifierExceptions  if the map assigns a different value to a predefined
+     *                                      identifier
+     * @throws UndefinedIdentifierException if an identifier is not defined for use in the map
+     */
+    public MyNumber[] bind(Map<String, MyNumber> identifiers) {
+        MyNumber[] environment = new MyNumber[names.size()];
+        for (int i = 0; i < environment.length; i++) {
+            environment[i] = resolve(names.get(i), reserved[i], identifiers.get(names.get(i)));
+        }
+        return environment;
+    }
+
+    /**
+     * Returns the value of an identifier.
+     *
+     * @param name     the name of the identifier
+     * @param reserved the predefined identifier with the name or {@code null} if there is none
+     * @param value    the value assigned to the identifier or {@code null} if there is none
+     * @return the value of the identifier
+     * @throws IllegalIdentifierExceptions  if a different value is assigned to the predefined
+     *                                      identifier
+     * @throws UndefinedIdentifierException if the identifier is neither predefined nor assigned
+     */
+    static MyNumber resolve(String name, @Nullable Identifier reserved, @Nullable MyNumber value) {
+        if (reserved != null) {
+            if (value != null && !value.equals(reserved.getValue())) {
+                throw new IllegalIdentifierExceptions(name);
+            }
+            return reserved.getValue();
+        }
+        if (value == null) {
+            throw new UndefinedIdentifierException(name);
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "SlotBinding" + names;
+    }
+}
@@ -0,0 +1,126 @@
+package h05.tree;
+
+import h05.exception.IllegalIdentifierExceptions;
+import h05.exception.UndefinedIdentifierException;
+import h05.math.MyNumber;
+import h05.math.NumericContext;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Evaluates arithmetic expression trees with an explicit stack instead of recursion, so the depth
+ * of a tree is only limited by the available memory.
+ *
+ * <p>The stack consists of parallel arrays, one entry per operation on the path from the root to
+ * the current node: the operation, its next operand to evaluate, the result of its operands
+ * evaluated so far and their number. Operands are folded into the result as soon as they have been
+ * evaluated, hence no frame objects are allocated and the memory used is proportional to the depth
+ * of the tree.
+ *
+ * <p>The evaluation stops with a {@link CancellationException} as soon as the current thread is
+ * interrupted, so a large tree whose result is no longer awaited is not evaluated to the end.
+ *
+ * <p>Example:
+ * <ul>
+ *     <li>Racket notation: (+ 1 (+ 1 (+ 1 ... (+ 1 0))))</li>
+ * </ul>
+ *
+ * <pre>{@code
+ *    MyNumber result = StackEvaluator.evaluate(root, identifiers, NumericContext.DEFAULT);
+ * }</pre>
+ *
+ * @author Nhan Huynh
+ */
+public final class StackEvaluator {
+
+    /**
+     * The initial capacity of the stack.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private StackEvaluator() {
+    }
+
+    /**
+     * Evaluates the given arithmetic expression tree.
+     *
+     * @param root        the root of the arithmetic expression tree
+     * @param identifiers a map of identifiers and their values
+     * @param context     the numeric context of real results
+     * @return the result of the arithmetic expression
+     * @throws IllegalIdentifierExceptions  if the identifier in the map is illegal to use
+     * @throws UndefinedIdentifierException if the identifier is not defined for use in the map
+     * @throws CancellationException        if the current thread is interrupted
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static MyNumber evaluate(
+        ArithmeticExpressionNode root,
+        Map<String, MyNumber> identifiers,
+        NumericContext context) {
+        Objects.requireNonNull(root, "root null");
+        if (!(root instanceof OperationExpressionNode rootOperation)) {
+            return root.evaluate(identifiers, context);
+        }
+
+        Operator[] operators = new Operator[INITIAL_CAPACITY];
+        ListItem<ArithmeticExpressionNode>[] next = new ListItem[INITIAL_CAPACITY];
+        MyNumber[] results = new MyNumber[INITIAL_CAPACITY];
+        int[] counts = new int[INITIAL_CAPACITY];
+        int top = 0;
+        operators[0] = rootOperation.getOperator();
+        next[0] = rootOperation.operands();
+
+        Thread thread = Thread.currentThread();
+        while (true) {
+            if (thread.isInterrupted()) {
+                throw new CancellationException("Evaluation interrupted");
+            }
+            ListItem<ArithmeticExpressionNode> item = next[top];
+            MyNumber value;
+            if (item == null) {
+                // All operands of the operation on top have been evaluated
+                Operator operator = operators[top];
+                value = switch (counts[top]) {
+                    case 0 -> operator.identity();
+                    case 1 -> operator.apply(results[top], context);
+                    default -> results[top];
+                };
+                operators[top] = null;
+                results[top] = null;
+                if (--top < 0) {
+                    return value;
+                }
+            } else {
+                next[top] = item.next;
+                if (item.key instanceof OperationExpressionNode operation) {
+                    if (++top == operators.length) {
+                        int capacity = 2 * operators.length;
+                        operators = Arrays.copyOf(operators, capacity);
+                        next = Arrays.copyOf(next, capacity);
+                        results = Arrays.copyOf(results, capacity);
+                        counts = Arrays.copyOf(counts, capacity);
+                    }
+                    operators[top] = operation.getOperator();
+                    next[top] = operation.operands();
+                    results[top] = null;
+                    counts[top] = 0;
+                    continue;
+                }
+                value = item.key.evaluate(identifiers, context);
+            }
+
+            // Fold the value into the operation on top
+            if (counts[top]++ == 0) {
+                results[top] = value;
+            } else {
+                results[top] = operators[top].apply(results[top], value, context);
+            }
+        }
+    }
+}
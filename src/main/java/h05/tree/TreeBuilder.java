@@ -0,0 +1,245 @@
+package h05.tree;
+
+import h05.exception.BadOperationException;
+import h05.exception.IllegalIdentifierExceptions;
+import h05.exception.ParenthesesMismatchException;
+import h05.exception.UndefinedOperatorException;
+import h05.math.MyNumber;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Builds arithmetic expression trees from a sequence of tokens without recursion. The operations
+ * which have been opened but not closed yet are kept on a stack of parallel arrays, so the depth of
+ * an expression is only limited by the available memory.
+ *
+ * <p>Example:
+ * <ul>
+ *     <li>Tokens: (, +, 1, (, *, 2, 3, ), )</li>
+ * </ul>
+ *
+ * <pre>{@code
+ *    TreeBuilder builder = new TreeBuilder();
+ *    for (String token : tokens) {
+ *        builder.token(token, 0, token.length());
+ *    }
+ *    ArithmeticExpressionNode root = builder.finish();
+ * }</pre>
+ *
+ * @author Nhan Huynh
+ */
+final class TreeBuilder {
+
+    /**
+     * The initial capacity of the stack.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The operators of the open operations.
+     */
+    private Operator[] operators = new Operator[INITIAL_CAPACITY];
+
+    /**
+     * The first operands of the open operations.
+     */
+    private ListItem<ArithmeticExpressionNode>[] heads = newListItems(INITIAL_CAPACITY);
+
+    /**
+     * The last operands of the open operations.
+     */
+    private ListItem<ArithmeticExpressionNode>[] tails = newListItems(INITIAL_CAPACITY);
+
+    /**
+     * The index of the innermost open operation, -1 if there is none.
+     */
+    private int top = -1;
+
+    /**
+     * {@code true} if the previous token was a left parenthesis, i.e. the next token must be an
+     * operator.
+     */
+    private boolean expectOperator;
+
+    /**
+     * The completed expression or {@code null} if there is none.
+     */
+    private @Nullable ArithmeticExpressionNode result;
+
+    /**
+     * Creates an array of list items.
+     *
+     * @param length the length of the array
+     * @return the array of list items
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ListItem<ArithmeticExpressionNode>[] newListItems(int length) {
+        return new ListItem[length];
+    }
+
+    /**
+     * Accepts a token.
+     *
+     * @param chars the characters containing the token
+     * @param start the index of the first character of the token (inclusive)
+     * @param end   the index of the last character of the token (exclusive)
+     * @throws BadOperationException        if the token is not allowed at this position
+     * @throws IllegalIdentifierExceptions  if the token is neither a number nor a valid identifier
+     * @throws ParenthesesMismatchException if the token is a right parenthesis without a matching
+     *                                      left parenthesis
+     * @throws UndefinedOperatorException   if the token after a left parenthesis is not an operator
+     */
+    void token(CharSequence chars, int start, int end) {
+        if (end - start == 1 && ExpressionLexer.isParenthesis(chars.charAt(start))) {
+            if (chars.charAt(start) == '(') {
+                left();
+            } else {
+                right();
+            }
+        } else if (expectOperator) {
+            Operator operator = Operator.lookup(chars, start, end);
+            if (operator == null) {
+                String symbol = chars.subSequence(start, end).toString();
+                if (ExpressionLexer.parseNumber(chars, start, end) != null) {
+                    throw new BadOperationException("Operator expected: " + symbol);
+                }
+                throw new UndefinedOperatorException(symbol);
+            }
+            open(operator);
+        } else {
+            MyNumber number = ExpressionLexer.parseNumber(chars, start, end);
+            if (number != null) {
+                operand(new LiteralExpressionNode(number));
+            } else {
+                String name = chars.subSequence(start, end).toString();
+                if (!ExpressionLexer.isIdentifier(chars, start, end)) {
+                    throw new IllegalIdentifierExceptions(name);
+                }
+                operand(new IdentifierExpressionNode(name));
+            }
+        }
+    }
+
+    /**
+     * Accepts a left parenthesis.
+     *
+     * @throws BadOperationException if an operator is expected
+     */
+    private void left() {
+        if (expectOperator) {
+            throw new BadOperationException("Operator expected: (");
+        }
+        checkNotComplete();
+        expectOperator = true;
+    }
+
+    /**
+     * Accepts a right parenthesis and completes the innermost open operation.
+     *
+     * @throws BadOperationException        if an operator is expected
+     * @throws ParenthesesMismatchException if there is no open operation
+     */
+    private void right() {
+        if (expectOperator) {
+            throw new BadOperationException("Operator expected: )");
+        }
+        if (top < 0) {
+            throw new ParenthesesMismatchException();
+        }
+        OperationExpressionNode operation =
+            new OperationExpressionNode(operators[top], heads[top], true);
+        operators[top] = null;
+        heads[top] = null;
+        tails[top] = null;
+        top--;
+        operand(operation);
+    }
+
+    /**
+     * Opens an operation.
+     *
+     * @param operator the operator of the operation
+     */
+    private void open(Operator operator) {
+        expectOperator = false;
+        if (++top == operators.length) {
+            int capacity = 2 * operators.length;
+            operators = Arrays.copyOf(operators, capacity);
+            heads = Arrays.copyOf(heads, capacity);
+            tails = Arrays.copyOf(tails, capacity);
+        }
+        operators[top] = operator;
+    }
+
+    /**
+     * Appends an operand to the innermost open operation or completes the expression if there is no
+     * open operation.
+     *
+     * @param node the operand
+     * @throws BadOperationException if the expression is complete already
+     */
+    private void operand(ArithmeticExpressionNode node) {
+        if (top < 0) {
+            checkNotComplete();
+            result = node;
+            return;
+        }
+        ListItem<ArithmeticExpressionNode> item = new ListItem<>();
+        item.key = node;
+        if (heads[top] == null) {
+            heads[top] = item;
+        } else {
+            tails[top].next = item;
+        }
+        tails[top] = item;
+    }
+
+    /**
+     * Checks that the expression is not complete yet.
+     *
+     * @throws BadOperationException if the expression is complete already
+     */
+    private void checkNotComplete() {
+        if (result != null) {
+            throw new BadOperationException("Unexpected token after expression " + result);
+        }
+    }
+
+    /**
+     * Returns {@code true} if an expression has been completed.
+     *
+     * @return {@code true} if an expression has been completed
+     */
+    boolean isComplete() {
+        return result != null;
+    }
+
+    /**
+     * Returns {@code true} if no token has been accepted since the last expression was completed.
+     *
+     * @return {@code true} if no token has been accepted since the last expression was completed
+     */
+    boolean isEmpty() {
+        return result == null && top < 0 && !expectOperator;
+    }
+
+    /**
+     * Returns the completed expression and resets this builder for the next expression.
+     *
+     * @return the completed expression
+     * @throws BadOperationException        if no token has been accepted
+     * @throws ParenthesesMismatchException if there are open operations
+     */
+    ArithmeticExpressionNode finish() {
+        if (top >= 0 || expectOperator) {
+            throw new ParenthesesMismatchException();
+        }
+        ArithmeticExpressionNode root = result;
+        if (root == null) {
+            throw new BadOperationException("No expression");
+        }
+        result = null;
+        return root;
+    }
+}
@@ -0,0 +1,97 @@
+package h05;
+
+import h05.exception.BadOperationException;
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.NumericContext;
+import h05.tree.ArithmeticExpressionNode;
+import h05.tree.ExpressionTreeHandler;
+import h05.tree.StackEvaluator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static h05.TestExpressions.randomTree;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that {@link ExpressionTreeHandler#buildIteratively(Iterator)} builds the same trees as the
+ * recursive builder and handles expressions nested far deeper than the call stack allows.
+ */
+public class BuildIterativelyTest {
+
+    @Test
+    public void testSameTreesAsRecursion() {
+        Random random = new Random(13);
+        for (int i = 0; i < 500; i++) {
+            List<String> tokens = ExpressionTreeHandler.reconstruct(randomTree(random, 4, 4));
+            assertEquals(ExpressionTreeHandler.buildRecursively(tokens.iterator()).toString(),
+                ExpressionTreeHandler.buildIteratively(tokens.iterator()).toString());
+        }
+    }
+
+    @Test
+    public void testSameErrorsAsRecursion() {
+        String[] malformed = {
+            "", "(", ")", "( )", "( + 1", "( + 1 ) )", "1 2", "( 1 2 )", "( % 1 )", "( + 1a )",
+            "( + ( ) )", "( + 1 ) 2", "( ( + 1 ) )",
+        };
+        for (String expression : malformed) {
+            List<String> tokens = tokens(expression);
+            Class<? extends Throwable> expected = assertThrows(RuntimeException.class,
+                () -> ExpressionTreeHandler.buildRecursively(tokens.iterator())).getClass();
+            assertThrows(expected, () -> ExpressionTreeHandler.buildIteratively(tokens.iterator()),
+                expression);
+        }
+        assertThrows(BadOperationException.class,
+            () -> ExpressionTreeHandler.buildIteratively(List.<String>of().iterator()));
+    }
+
+    @Test
+    public void testDeepExpression() {
+        // ( + 1 ( + 1 ( + 1 ... ( + 1 x ) ... ) ) ), the tokens are generated on the fly
+        int depth = 500_000;
+        ArithmeticExpressionNode root = ExpressionTreeHandler.buildIteratively(nested(depth));
+        MyNumber result = StackEvaluator.evaluate(
+            root, Map.of("x", new MyInteger(5)), NumericContext.DEFAULT);
+        assertEquals(new MyInteger(depth + 5), result);
+    }
+
+    private static Iterator<String> nested(int depth) {
+        return new Iterator<>() {
+
+            private final int count = 3 * depth + 1 + depth;
+
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < count;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int i = index++;
+                if (i > 3 * depth) {
+                    return ")";
+                }
+                if (i == 3 * depth) {
+                    return "x";
+                }
+                return i % 3 == 0 ? "(" : i % 3 == 1 ? "+" : "1";
+            }
+        };
+    }
+
+    private static List<String> tokens(String expression) {
+        return Arrays.stream(expression.split(" ")).filter(s -> !s.isEmpty()).toList();
+    }
+}
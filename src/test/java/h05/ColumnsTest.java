@@ -0,0 +1,112 @@
+package h05;
+
+import h05.exception.IllegalIdentifierExceptions;
+import h05.exception.UndefinedIdentifierException;
+import h05.exception.WrongOperandException;
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.MyRational;
+import h05.math.MyReal;
+import h05.math.NumericContext;
+import h05.tree.Columns;
+import h05.tree.ExpressionTreeHandler;
+import h05.tree.FlatExpression;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the batch evaluation of a {@link FlatExpression} over columns built by {@link Columns}.
+ */
+public class ColumnsTest {
+
+    private static final NumericContext CONTEXT =
+        new NumericContext(20, RoundingMode.HALF_EVEN, true);
+
+    @Test
+    public void testColumns() {
+        assertArrayEquals(new MyNumber[]{new MyInteger(1), new MyInteger(-2),
+            new MyInteger(Long.MAX_VALUE)}, Columns.of(new long[]{1, -2, Long.MAX_VALUE}));
+        assertArrayEquals(new MyNumber[]{new MyReal(new BigDecimal("0.1")),
+            new MyReal(new BigDecimal("-2.5"))}, Columns.of(new double[]{0.1, -2.5}));
+        assertEquals(0, Columns.of(new long[0]).length);
+    }
+
+    @Test
+    public void testSameResultsAsRows() {
+        int rows = 21;
+        long[] xs = new long[rows];
+        double[] ys = new double[rows];
+        for (int row = 0; row < rows; row++) {
+            xs[row] = row - 10;
+            ys[row] = (row * 7 % 20 - 10) / 8.0;
+        }
+        MyNumber[] xColumn = Columns.of(xs);
+        MyNumber[] yColumn = Columns.of(ys);
+        MyNumber[] xCopy = xColumn.clone();
+        Map<String, MyNumber[]> columns = Map.of("x", xColumn, "y", yColumn);
+
+        String[] expressions = {
+            "(+ x (* 2 y))", "(- (/ x 3) y 2.5)", "(sqrt (* x x y y))", "(* pi (+ x y) 1/3)", "(+)",
+        };
+        for (String expression : expressions) {
+            FlatExpression flat = FlatExpression.of(ExpressionTreeHandler.parse(expression));
+            MyNumber[] results = new MyNumber[rows];
+            flat.evaluate(columns, results, CONTEXT);
+            for (int row = 0; row < rows; row++) {
+                Map<String, MyNumber> identifiers = Map.of("x", xColumn[row], "y", yColumn[row]);
+                assertEquals(flat.evaluate(identifiers, CONTEXT), results[row],
+                    expression + " row " + row);
+            }
+        }
+        assertArrayEquals(xCopy, xColumn);
+    }
+
+    @Test
+    public void testFailingRow() {
+        // x is 0 in the last row, which fails the whole batch
+        FlatExpression flat = FlatExpression.of(ExpressionTreeHandler.parse("(/ 12 x)"));
+        MyNumber[] results = new MyNumber[3];
+        Map<String, MyNumber[]> columns = Map.of("x", Columns.of(new long[]{3, -4, 0}));
+        assertThrows(WrongOperandException.class, () -> flat.evaluate(columns, results, CONTEXT));
+        flat.evaluate(Map.of("x", Columns.of(new long[]{3, -4, 5})), results, CONTEXT);
+        assertArrayEquals(new MyNumber[]{new MyInteger(4), new MyInteger(-3),
+            MyRational.valueOf(12, 5)}, results);
+    }
+
+    @Test
+    public void testConstantColumns() {
+        FlatExpression flat = FlatExpression.of(ExpressionTreeHandler.parse("(* 2 (+ pi 1))"));
+        MyNumber[] results = new MyNumber[3];
+        flat.evaluate(Map.of(), results, CONTEXT);
+        MyNumber expected = flat.evaluate(Map.of(), CONTEXT);
+        assertArrayEquals(new MyNumber[]{expected, expected, expected}, results);
+
+        FlatExpression identity = FlatExpression.of(ExpressionTreeHandler.parse("x"));
+        MyNumber[] xs = Columns.of(new long[]{4, 5});
+        MyNumber[] copy = new MyNumber[2];
+        identity.evaluate(Map.of("x", xs), copy, CONTEXT);
+        assertArrayEquals(xs, copy);
+    }
+
+    @Test
+    public void testInvalidColumns() {
+        FlatExpression flat = FlatExpression.of(ExpressionTreeHandler.parse("(+ x pi)"));
+        MyNumber[] results = new MyNumber[2];
+        assertThrows(IllegalArgumentException.class,
+            () -> flat.evaluate(Map.of("x", Columns.of(new long[]{1, 2, 3})), results, CONTEXT));
+        assertThrows(UndefinedIdentifierException.class,
+            () -> flat.evaluate(Map.of(), results, CONTEXT));
+        assertThrows(UndefinedIdentifierException.class,
+            () -> flat.evaluate(Map.of("x", new MyNumber[]{MyInteger.ONE, null}), results,
+                CONTEXT));
+        Map<String, MyNumber[]> wrongPi =
+            Map.of("x", Columns.of(new long[]{1, 2}), "pi", Columns.of(new long[]{3, 3}));
+        assertThrows(IllegalIdentifierExceptions.class,
+            () -> flat.evaluate(wrongPi, results, CONTEXT));
+    }
+}
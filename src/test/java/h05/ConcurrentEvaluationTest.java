@@ -0,0 +1,98 @@
+package h05;
+
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.tree.ArithmeticExpressionNode;
+import h05.tree.CompiledExpression;
+import h05.tree.ExpressionCompiler;
+import h05.tree.ExpressionTreeHandler;
+import h05.tree.ListItem;
+import h05.tree.LiteralExpressionNode;
+import h05.tree.OperationExpressionNode;
+import h05.tree.SlotBinding;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Evaluates a single shared arithmetic expression tree from many threads concurrently.
+ */
+public class ConcurrentEvaluationTest {
+
+    private static final int THREADS = 64;
+
+    private static final int ITERATIONS = 200;
+
+    @Test
+    public void testSharedTreeFromManyThreads() throws Exception {
+        ArithmeticExpressionNode root =
+            ExpressionTreeHandler.parse("(+ a (* b 2) (- c 1) (/ 6 3))");
+        String expected = root.toString();
+        SlotBinding binding = SlotBinding.of(root);
+        CompiledExpression bound = root.bind(binding);
+        CompiledExpression compiled = ExpressionCompiler.compile(root, binding);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        long a = thread;
+                        long b = i;
+                        long c = thread * i;
+                        Map<String, MyNumber> identifiers = Map.of(
+                            "a", new MyInteger(a),
+                            "b", new MyInteger(b),
+                            "c", new MyInteger(c));
+                        MyNumber result = new MyInteger(a + 2 * b + c - 1 + 2);
+                        assertEquals(result, root.evaluate(identifiers));
+                        assertEquals(result, bound.evaluate(binding.bind(identifiers)));
+                        assertEquals(result, compiled.evaluate(binding.bind(identifiers)));
+
+                        // Modifying the returned operands must not modify the shared tree
+                        ListItem<ArithmeticExpressionNode> operands =
+                            ((OperationExpressionNode) root).getOperands();
+                        operands.key = new LiteralExpressionNode(new MyInteger(thread));
+                        operands.next = null;
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(expected, root.toString());
+    }
+
+    @Test
+    public void testBuiltNodesDoNotShareOperands() {
+        OperationExpressionNode parsed =
+            (OperationExpressionNode) ExpressionTreeHandler.parse("(+ a (* b 2) 3)");
+        OperationExpressionNode cloned = (OperationExpressionNode) parsed.clone();
+        for (OperationExpressionNode node : List.of(parsed, cloned)) {
+            String expected = node.toString();
+            ListItem<ArithmeticExpressionNode> operands = node.getOperands();
+            operands.key = new LiteralExpressionNode(new MyInteger(0));
+            operands.next.next = null;
+            assertEquals(expected, node.toString());
+        }
+        assertEquals("(+ a (* b 2) 3)", parsed.toString());
+    }
+}
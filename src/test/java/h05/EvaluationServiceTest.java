@@ -0,0 +1,118 @@
+package h05;
+
+import h05.exception.UndefinedIdentifierException;
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.NumericContext;
+import h05.service.EvaluationService;
+import org.junit.jupiter.api.Test;
+
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the admission, deadlines and results of the {@link EvaluationService}.
+ */
+public class EvaluationServiceTest {
+
+    /**
+     * A numeric context so precise that a logarithm takes far longer than any deadline.
+     */
+    private static final NumericContext SLOW =
+        new NumericContext(100_000, RoundingMode.HALF_UP, true);
+
+    private static final String SLOW_EXPRESSION = "(ln 3)";
+
+    @Test
+    public void testResults() throws Exception {
+        try (EvaluationService service = new EvaluationService()) {
+            Map<String, MyNumber> identifiers =
+                Map.of("a", new MyInteger(3), "b", new MyInteger(4));
+            assertEquals(new MyInteger(11), service.submit("(+ a (* b 2))", identifiers)
+                .get(10, TimeUnit.SECONDS));
+            ExecutionException e = assertThrows(ExecutionException.class,
+                () -> service.submit("(+ c 1)", identifiers).get(10, TimeUnit.SECONDS));
+            assertInstanceOf(UndefinedIdentifierException.class, e.getCause());
+            service.submit("( + a (* b 2 ))", identifiers).get(10, TimeUnit.SECONDS);
+            assertEquals(2, service.getParseCache().getMisses());
+            assertEquals(1, service.getParseCache().getHits());
+        }
+    }
+
+    @Test
+    public void testAdmission() throws Exception {
+        try (EvaluationService service = new EvaluationService(1, Duration.ofSeconds(2), SLOW)) {
+            CompletableFuture<MyNumber> slow = service.submit(SLOW_EXPRESSION, Map.of());
+            ExecutionException e = assertThrows(ExecutionException.class,
+                () -> service.submit("(+ 1 2)", Map.of()).get(10, TimeUnit.SECONDS));
+            assertInstanceOf(RejectedExecutionException.class, e.getCause());
+            slow.cancel(true);
+            awaitPermits(service, 1);
+            assertEquals(new MyInteger(3), service.submit("(+ 1 2)", Map.of())
+                .get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testDeadlineStopsEvaluation() throws Exception {
+        try (EvaluationService service = new EvaluationService(2, Duration.ofSeconds(10), SLOW)) {
+            CompletableFuture<MyNumber> slow =
+                service.submit(SLOW_EXPRESSION, Map.of(), Duration.ofMillis(100));
+            ExecutionException e = assertThrows(ExecutionException.class,
+                () -> slow.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+            // The abandoned evaluation ends and returns its permit
+            awaitPermits(service, 2);
+        }
+    }
+
+    @Test
+    public void testErrorPropagates() throws Exception {
+        try (EvaluationService service = new EvaluationService(1, Duration.ofSeconds(10), SLOW)) {
+            Map<String, MyNumber> failing = new HashMap<>() {
+                @Override
+                public MyNumber get(Object key) {
+                    throw new AssertionError("identifier " + key);
+                }
+            };
+            CompletableFuture<MyNumber> error =
+                service.submit("(+ a 1)", failing, Duration.ofMillis(100));
+            // The error is not turned into the result, the deadline completes the future instead
+            ExecutionException e = assertThrows(ExecutionException.class,
+                () -> error.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+            awaitPermits(service, 1);
+        }
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new EvaluationService(0, Duration.ofSeconds(1), NumericContext.DEFAULT));
+        assertThrows(IllegalArgumentException.class,
+            () -> new EvaluationService(1, Duration.ZERO, NumericContext.DEFAULT));
+        try (EvaluationService service = new EvaluationService()) {
+            assertThrows(IllegalArgumentException.class,
+                () -> service.submit("1", Map.of(), Duration.ofSeconds(-1)));
+            assertThrows(NullPointerException.class, () -> service.submit(null, Map.of()));
+        }
+    }
+
+    private static void awaitPermits(EvaluationService service, int permits)
+        throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (service.getAvailablePermits() < permits) {
+            assertTrue(System.nanoTime() < deadline, "evaluation was not stopped");
+            Thread.sleep(10);
+        }
+    }
+}
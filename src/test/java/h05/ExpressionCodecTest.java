@@ -0,0 +1,137 @@
+package h05;
+
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.MyReal;
+import h05.math.NumericContext;
+import h05.tree.ArithmeticExpressionNode;
+import h05.tree.ExpressionCodec;
+import h05.tree.ExpressionTreeHandler;
+import h05.tree.IdentifierExpressionNode;
+import h05.tree.ListItem;
+import h05.tree.LiteralExpressionNode;
+import h05.tree.OperationExpressionNode;
+import h05.tree.Operator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the {@link ExpressionCodec} decodes encoded trees unchanged and rejects malformed
+ * input with its documented exceptions.
+ */
+public class ExpressionCodecTest {
+
+    private static final String[] EXPRESSIONS = {
+        "42",
+        "-7",
+        "abc",
+        "(+ a (* a 2) (- b 1/3))",
+        "(/ 123456789012345678901234567890 -98765432109876543210/3)",
+        "(* 1.5 -0.000000000000001 123456789012345678901.25)",
+        "(sqrt (expt x 2))",
+        "(+)",
+    };
+
+    @Test
+    public void testRoundTrip() {
+        for (String expression : EXPRESSIONS) {
+            ArithmeticExpressionNode root = ExpressionTreeHandler.parse(expression);
+            ArithmeticExpressionNode decoded =
+                ExpressionCodec.decode(ByteBuffer.wrap(ExpressionCodec.encode(root)));
+            assertEquals(root.toString(), decoded.toString());
+        }
+    }
+
+    @Test
+    public void testRoundTripKeepsScale() {
+        NumericContext context = new NumericContext(40, RoundingMode.HALF_UP, false);
+        MyNumber value = new MyReal(new BigDecimal(2).sqrt(context.getMathContext()), context);
+        ArithmeticExpressionNode root = new LiteralExpressionNode(value);
+        ArithmeticExpressionNode decoded =
+            ExpressionCodec.decode(ByteBuffer.wrap(ExpressionCodec.encode(root)));
+        assertEquals(value.toReal(), decoded.evaluate(Map.of()).toReal());
+    }
+
+    @Test
+    public void testConsecutiveTrees() {
+        byte[] first = ExpressionCodec.encode(ExpressionTreeHandler.parse("(+ a 1)"));
+        byte[] second = ExpressionCodec.encode(ExpressionTreeHandler.parse("(* b 2)"));
+        ByteBuffer buffer = ByteBuffer.allocate(first.length + second.length);
+        buffer.put(first).put(second).flip();
+        assertEquals("(+ a 1)", ExpressionCodec.decode(buffer).toString());
+        assertEquals("(* b 2)", ExpressionCodec.decode(buffer).toString());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testDeepTree() {
+        ArithmeticExpressionNode root = new IdentifierExpressionNode("x");
+        for (int i = 0; i < 10_000; i++) {
+            root = new OperationExpressionNode(Operator.ADD, item(root));
+        }
+        ArithmeticExpressionNode decoded =
+            ExpressionCodec.decode(ByteBuffer.wrap(ExpressionCodec.encode(root)));
+        assertEquals(new MyInteger(5), decoded.evaluate(Map.of("x", new MyInteger(5))));
+    }
+
+    @Test
+    public void testTruncatedInput() {
+        byte[] bytes = ExpressionCodec.encode(ExpressionTreeHandler.parse(EXPRESSIONS[4]));
+        for (int length = 0; length < bytes.length; length++) {
+            ByteBuffer buffer = ByteBuffer.wrap(Arrays.copyOf(bytes, length));
+            assertThrows(BufferUnderflowException.class, () -> ExpressionCodec.decode(buffer));
+        }
+    }
+
+    @Test
+    public void testCorruptedLengths() {
+        // Name count of 2^31 - 1 without any names
+        assertThrows(BufferUnderflowException.class,
+            () -> decode(0x48, 0x35, 0x01, 0xFF, 0xFF, 0xFF, 0xFF, 0x07));
+        // Big integer of 2^31 - 1 bytes followed by a single byte
+        assertThrows(BufferUnderflowException.class,
+            () -> decode(0x48, 0x35, 0x01, 0x00, 0x01, 0xFF, 0xFF, 0xFF, 0xFF, 0x07, 0x01));
+        // Name of 100 characters followed by a single byte
+        assertThrows(BufferUnderflowException.class,
+            () -> decode(0x48, 0x35, 0x01, 0x01, 0x64, 0x61));
+    }
+
+    @Test
+    public void testMalformedInput() {
+        assertThrows(IllegalArgumentException.class, () -> decode(0x48, 0x36, 0x01, 0x00, 0x00));
+        assertThrows(IllegalArgumentException.class, () -> decode(0x48, 0x35, 0x02, 0x00, 0x00));
+        // Empty big integer
+        assertThrows(IllegalArgumentException.class,
+            () -> decode(0x48, 0x35, 0x01, 0x00, 0x01, 0x00));
+        // Rational with a zero denominator
+        assertThrows(IllegalArgumentException.class,
+            () -> decode(0x48, 0x35, 0x01, 0x00, 0x02, 0x02, 0x00));
+        // Identifier without a name
+        assertThrows(IllegalArgumentException.class,
+            () -> decode(0x48, 0x35, 0x01, 0x00, 0x06, 0x00));
+        // Unknown tag
+        assertThrows(IllegalArgumentException.class, () -> decode(0x48, 0x35, 0x01, 0x00, 0x7F));
+    }
+
+    private static ArithmeticExpressionNode decode(int... bytes) {
+        byte[] array = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            array[i] = (byte) bytes[i];
+        }
+        return ExpressionCodec.decode(ByteBuffer.wrap(array));
+    }
+
+    private static ListItem<ArithmeticExpressionNode> item(ArithmeticExpressionNode node) {
+        ListItem<ArithmeticExpressionNode> item = new ListItem<>();
+        item.key = node;
+        return item;
+    }
+}
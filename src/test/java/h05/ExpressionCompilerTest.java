@@ -0,0 +1,113 @@
+package h05;
+
+import h05.exception.UndefinedIdentifierException;
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.MyRational;
+import h05.math.NumericContext;
+import h05.tree.ArithmeticExpressionNode;
+import h05.tree.CompiledExpression;
+import h05.tree.ExpressionCompiler;
+import h05.tree.ExpressionTreeHandler;
+import h05.tree.IdentifierExpressionNode;
+import h05.tree.LiteralExpressionNode;
+import h05.tree.Operator;
+import h05.tree.SlotBinding;
+import org.junit.jupiter.api.Test;
+
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Random;
+
+import static h05.TestExpressions.IDENTIFIERS;
+import static h05.TestExpressions.operation;
+import static h05.TestExpressions.randomTree;
+import static h05.TestExpressions.result;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that expressions compiled by the {@link ExpressionCompiler} evaluate like their trees.
+ */
+public class ExpressionCompilerTest {
+
+    @Test
+    public void testSameResultsAsTree() {
+        Random random = new Random(7);
+        NumericContext context = new NumericContext(20, RoundingMode.HALF_EVEN, true);
+        for (int i = 0; i < 300; i++) {
+            ArithmeticExpressionNode root = randomTree(random, 3, 4);
+            SlotBinding binding = SlotBinding.of(root);
+            CompiledExpression compiled = ExpressionCompiler.compile(root, binding);
+            assertEquals(result(() -> root.evaluate(IDENTIFIERS, context)),
+                result(() -> compiled.evaluate(binding.bind(IDENTIFIERS), context)),
+                root.toString());
+        }
+    }
+
+    @Test
+    public void testSlots() {
+        ArithmeticExpressionNode root = ExpressionTreeHandler.parse("(- a (* b 2))");
+        CompiledExpression compiled = ExpressionCompiler.compile(root, List.of("b", "a"));
+        MyNumber[] slots = {new MyInteger(5), new MyInteger(3)};
+        assertEquals(new MyInteger(-7), compiled.evaluate(slots));
+        assertThrows(UndefinedIdentifierException.class,
+            () -> ExpressionCompiler.compile(root, List.of("a")));
+    }
+
+    @Test
+    public void testOperandCounts() {
+        assertEquals(new MyInteger(0), compile("(+)").evaluate(new MyNumber[0]));
+        assertEquals(new MyInteger(1), compile("(*)").evaluate(new MyNumber[0]));
+        assertEquals(new MyInteger(-4), compile("(- 4)").evaluate(new MyNumber[0]));
+        assertEquals(MyRational.valueOf(1, 4), compile("(/ 4)").evaluate(new MyNumber[0]));
+        assertEquals(new MyInteger(10), compile("(+ 1 2 3 4)").evaluate(new MyNumber[0]));
+        assertEquals(new MyInteger(1), compile("(exp 0)").evaluate(new MyNumber[0]));
+    }
+
+    @Test
+    public void testWideTree() {
+        // Too much code for a single method, the tree is bound instead
+        StringBuilder sb = new StringBuilder("(+");
+        for (int i = 0; i < 20_000; i++) {
+            sb.append(" x");
+        }
+        ArithmeticExpressionNode root = ExpressionTreeHandler.parse(sb.append(')'));
+        SlotBinding binding = SlotBinding.of(root);
+        CompiledExpression compiled = ExpressionCompiler.compile(root, binding);
+        assertEquals(new MyInteger(60_000), compiled.evaluate(binding.bind(IDENTIFIERS)));
+    }
+
+    @Test
+    public void testHugeMethod() {
+        // Every further operand of the sum takes 7 bytes of code, 1150 of them exceed the 8000
+        // bytes the JIT compiler still compiles
+        for (int operands : new int[]{1_100, 1_150}) {
+            ArithmeticExpressionNode root = ExpressionTreeHandler.parse(
+                "(+" + " x".repeat(operands) + ")");
+            SlotBinding binding = SlotBinding.of(root);
+            CompiledExpression compiled = ExpressionCompiler.compile(root, binding);
+            // The bound tree is a lambda, so it is a hidden class as well
+            boolean generated = compiled.getClass() != root.bind(binding).getClass();
+            assertEquals(operands == 1_100, generated, "operands " + operands);
+            assertEquals(new MyInteger(3 * operands),
+                compiled.evaluate(binding.bind(IDENTIFIERS)));
+        }
+    }
+
+    @Test
+    public void testDeepTree() {
+        // (+ 1 (+ 1 (+ 1 ... (+ 1 x))))
+        ArithmeticExpressionNode root = new IdentifierExpressionNode("x");
+        int depth = 100_000;
+        for (int i = 0; i < depth; i++) {
+            root = operation(Operator.ADD, new LiteralExpressionNode(new MyInteger(1)), root);
+        }
+        SlotBinding binding = SlotBinding.of(root);
+        CompiledExpression compiled = ExpressionCompiler.compile(root, binding);
+        assertEquals(new MyInteger(depth + 3), compiled.evaluate(binding.bind(IDENTIFIERS)));
+    }
+
+    private static CompiledExpression compile(String expression) {
+        return ExpressionCompiler.compile(ExpressionTreeHandler.parse(expression), List.of());
+    }
+}
@@ -0,0 +1,64 @@
+package h05;
+
+import h05.math.NumericContext;
+import h05.tree.ArithmeticExpressionNode;
+import h05.tree.ExpressionOptimizer;
+import h05.tree.ExpressionTreeHandler;
+import org.junit.jupiter.api.Test;
+
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static h05.TestExpressions.IDENTIFIERS;
+import static h05.TestExpressions.randomTree;
+import static h05.TestExpressions.result;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the {@link ExpressionOptimizer} simplifies expressions without changing their results.
+ */
+public class ExpressionOptimizerTest {
+
+    @Test
+    public void testFolding() {
+        assertEquals("(* 14 x)", optimize("(* 2 (+ 3 4) x)"));
+        assertEquals("(+ 3 x)", optimize("(+ 1 2 x)"));
+        assertEquals("x", optimize("(+ x)"));
+        assertEquals("(+ x y z)", optimize("(+ (+ x y) z)"));
+        assertEquals("(/ x 0)", optimize("(/ x 0)"));
+    }
+
+    @Test
+    public void testIdentityOperands() {
+        assertEquals("(+ 2 x)", optimize("(+ 2 0 x)"));
+        assertEquals("(+ x y)", optimize("(+ x y 0)"));
+        assertEquals("(* x 2 y)", optimize("(* x 2 1 y)"));
+        // The identity is applied to an unnormalized first operand
+        assertEquals("(+ x 0 y)", optimize("(+ x 0 y)"));
+        assertEquals("7/3", optimize("(+ 2.0 0 1/3)"));
+        assertEquals("2/3", optimize("(* 2.0 1 1/3)"));
+        assertEquals("(+ 2 y)", optimize("(+ 2.0 0 y)"));
+    }
+
+    @Test
+    public void testSameResultsAsUnoptimized() {
+        Random random = new Random(42);
+        NumericContext context = new NumericContext(20, RoundingMode.HALF_EVEN, true);
+        for (int i = 0; i < 2000; i++) {
+            ArithmeticExpressionNode root = randomTree(random, 3, 4);
+            assertSameResult(root, NumericContext.DEFAULT);
+            assertSameResult(root, context);
+        }
+    }
+
+    private static void assertSameResult(ArithmeticExpressionNode root, NumericContext context) {
+        ArithmeticExpressionNode optimized = ExpressionOptimizer.optimize(root, context);
+        assertEquals(result(() -> root.evaluate(IDENTIFIERS, context)),
+            result(() -> optimized.evaluate(IDENTIFIERS, context)),
+            root + " optimized to " + optimized);
+    }
+
+    private static String optimize(String expression) {
+        return ExpressionOptimizer.optimize(ExpressionTreeHandler.parse(expression)).toString();
+    }
+}
@@ -0,0 +1,153 @@
+package h05;
+
+import h05.exception.ParenthesesMismatchException;
+import h05.math.MyInteger;
+import h05.tree.ArithmeticExpressionNode;
+import h05.tree.ExpressionReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the {@link ExpressionReader} reads the same expressions from channels and buffers
+ * however the input is split into reads.
+ */
+public class ExpressionReaderTest {
+
+    private static final String INPUT = " (+ 1 2)(* a\n3) 42 -1/2\t(- 0.25 (sqrt 16) xyz)  ";
+
+    private static final List<String> EXPRESSIONS =
+        List.of("(+ 1 2)", "(* a 3)", "42", "-1/2", "(- 0.25 (sqrt 16) xyz)");
+
+    @Test
+    public void testBuffer() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(INPUT.getBytes(StandardCharsets.US_ASCII));
+        try (ExpressionReader reader = new ExpressionReader(buffer)) {
+            assertEquals(EXPRESSIONS, readAll(reader));
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    public void testChunkedChannel() throws IOException {
+        for (int chunk = 1; chunk <= 7; chunk++) {
+            try (ExpressionReader reader = new ExpressionReader(channel(INPUT, chunk))) {
+                assertEquals(EXPRESSIONS, readAll(reader), "chunk " + chunk);
+            }
+        }
+    }
+
+    @Test
+    public void testTokenLargerThanBuffer() throws IOException {
+        String digits = "9".repeat(100_000);
+        String input = "(+ 1 " + digits + ") 7";
+        try (ExpressionReader reader = new ExpressionReader(channel(input, 4096))) {
+            ArithmeticExpressionNode root = reader.read();
+            assertNotNull(root);
+            assertEquals(new MyInteger(new BigInteger(digits).add(BigInteger.ONE)),
+                root.evaluate(Map.of()));
+            assertEquals("7", String.valueOf(reader.read()));
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    public void testMappedFile() throws IOException {
+        Path file = Files.createTempFile("expressions", ".txt");
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 10_000; i++) {
+                sb.append("(+ ").append(i).append(" 1)\n");
+            }
+            Files.writeString(file, sb, StandardCharsets.US_ASCII);
+            try (FileChannel channel = FileChannel.open(file)) {
+                MappedByteBuffer buffer =
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                assertSums(new ExpressionReader(buffer));
+            }
+            assertSums(new ExpressionReader(FileChannel.open(file)));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testIncompleteExpression() throws IOException {
+        try (ExpressionReader reader = new ExpressionReader(channel("(+ 1 2) (* 3", 2))) {
+            assertEquals("(+ 1 2)", String.valueOf(reader.read()));
+            assertThrows(ParenthesesMismatchException.class, reader::read);
+        }
+        try (ExpressionReader reader = new ExpressionReader(channel("   \n ", 2))) {
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    public void testCloseClosesChannel() throws IOException {
+        ReadableByteChannel channel = channel("1", 1);
+        new ExpressionReader(channel).close();
+        assertFalse(channel.isOpen());
+    }
+
+    private static void assertSums(ExpressionReader reader) throws IOException {
+        try (reader) {
+            int count = 0;
+            for (ArithmeticExpressionNode root; (root = reader.read()) != null; count++) {
+                assertEquals(new MyInteger(count + 1), root.evaluate(Map.of()));
+            }
+            assertEquals(10_000, count);
+        }
+    }
+
+    private static List<String> readAll(ExpressionReader reader) throws IOException {
+        List<String> expressions = new ArrayList<>();
+        for (ArithmeticExpressionNode root; (root = reader.read()) != null; ) {
+            expressions.add(root.toString());
+        }
+        return expressions;
+    }
+
+    private static ReadableByteChannel channel(String input, int chunk) {
+        ByteBuffer source = ByteBuffer.wrap(input.getBytes(StandardCharsets.US_ASCII));
+        return new ReadableByteChannel() {
+
+            private boolean open = true;
+
+            @Override
+            public int read(ByteBuffer destination) {
+                if (!source.hasRemaining()) {
+                    return -1;
+                }
+                int length = Math.min(chunk, Math.min(source.remaining(), destination.remaining()));
+                ByteBuffer slice = source.slice();
+                slice.limit(length);
+                destination.put(slice);
+                source.position(source.position() + length);
+                return length;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return open;
+            }
+
+            @Override
+            public void close() {
+                open = false;
+            }
+        };
+    }
+}
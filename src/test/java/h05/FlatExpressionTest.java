@@ -0,0 +1,79 @@
+package h05;
+
+import h05.exception.UndefinedIdentifierException;
+import h05.math.MyInteger;
+import h05.math.NumericContext;
+import h05.tree.ArithmeticExpressionNode;
+import h05.tree.FlatExpression;
+import h05.tree.IdentifierExpressionNode;
+import h05.tree.LiteralExpressionNode;
+import h05.tree.Operator;
+import org.junit.jupiter.api.Test;
+
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static h05.TestExpressions.IDENTIFIERS;
+import static h05.TestExpressions.operation;
+import static h05.TestExpressions.randomTree;
+import static h05.TestExpressions.result;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the {@link FlatExpression} of a tree evaluates like the tree and converts back to it.
+ */
+public class FlatExpressionTest {
+
+    @Test
+    public void testSameResultsAsTree() {
+        Random random = new Random(9);
+        NumericContext context = new NumericContext(20, RoundingMode.HALF_EVEN, true);
+        for (int i = 0; i < 300; i++) {
+            ArithmeticExpressionNode root = randomTree(random, 3, 4);
+            FlatExpression flat = FlatExpression.of(root);
+            assertEquals(result(() -> root.evaluate(IDENTIFIERS, context)),
+                result(() -> flat.evaluate(IDENTIFIERS, context)), root.toString());
+        }
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Random random = new Random(10);
+        for (int i = 0; i < 300; i++) {
+            ArithmeticExpressionNode root = randomTree(random, 4, 4);
+            assertEquals(root.toString(), FlatExpression.of(root).toTree().toString());
+        }
+    }
+
+    @Test
+    public void testLayout() {
+        // (+ x (* 2 y) (*))
+        FlatExpression flat = FlatExpression.of(operation(Operator.ADD,
+            new IdentifierExpressionNode("x"),
+            operation(Operator.MUL, new LiteralExpressionNode(new MyInteger(2)),
+                new IdentifierExpressionNode("y")),
+            operation(Operator.MUL)));
+        assertEquals(6, flat.size());
+        assertEquals(List.of("x", "y"), flat.getBinding().getNames());
+        assertEquals("FlatExpression[x, 2, y, */2, */0, +/3]", flat.toString());
+        assertEquals(1, FlatExpression.of(new LiteralExpressionNode(new MyInteger(5))).size());
+        assertThrows(UndefinedIdentifierException.class, () -> flat.evaluate(Map.of()));
+    }
+
+    @Test
+    public void testDeepTree() {
+        // (+ 1 (+ 1 (+ 1 ... (+ 1 x))))
+        ArithmeticExpressionNode root = new IdentifierExpressionNode("x");
+        int depth = 100_000;
+        for (int i = 0; i < depth; i++) {
+            root = operation(Operator.ADD, new LiteralExpressionNode(new MyInteger(1)), root);
+        }
+        FlatExpression flat = FlatExpression.of(root);
+        assertEquals(2 * depth + 1, flat.size());
+        assertEquals(new MyInteger(depth + 3), flat.evaluate(IDENTIFIERS));
+        FlatExpression copy = FlatExpression.of(flat.toTree());
+        assertEquals(new MyInteger(depth + 3), copy.evaluate(IDENTIFIERS));
+    }
+}
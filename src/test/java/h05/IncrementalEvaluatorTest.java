@@ -0,0 +1,135 @@
+package h05;
+
+import h05.exception.UndefinedIdentifierException;
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.MyRational;
+import h05.math.MyReal;
+import h05.math.NumericContext;
+import h05.tree.ArithmeticExpressionNode;
+import h05.tree.ExpressionTreeHandler;
+import h05.tree.IncrementalEvaluator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the {@link IncrementalEvaluator} caches results and only recomputes the operations
+ * depending on a changed identifier.
+ */
+public class IncrementalEvaluatorTest {
+
+    @Test
+    public void testFreeIdentifiers() {
+        IncrementalEvaluator evaluator = new IncrementalEvaluator();
+        ArithmeticExpressionNode root =
+            evaluator.add(ExpressionTreeHandler.parse("(* (+ a b) c 2)"));
+        ArithmeticExpressionNode sum = evaluator.add(ExpressionTreeHandler.parse("(+ a b)"));
+        ArithmeticExpressionNode constant = evaluator.add(ExpressionTreeHandler.parse("(+ 1 2)"));
+        assertEquals(Set.of("a", "b", "c"), evaluator.getFreeIdentifiers(root));
+        assertEquals(Set.of("a", "b"), evaluator.getFreeIdentifiers(sum));
+        assertEquals(Set.of(), evaluator.getFreeIdentifiers(constant));
+        assertThrows(IllegalArgumentException.class,
+            () -> evaluator.getFreeIdentifiers(ExpressionTreeHandler.parse("(+ a b)")));
+        assertThrows(IllegalArgumentException.class,
+            () -> evaluator.evaluate(ExpressionTreeHandler.parse("(+ a b)")));
+    }
+
+    @Test
+    public void testOnlyDependentResultsRecomputed() {
+        IncrementalEvaluator evaluator =
+            new IncrementalEvaluator(new NumericContext(15, RoundingMode.HALF_UP, false));
+        ArithmeticExpressionNode product =
+            evaluator.add(ExpressionTreeHandler.parse("(* (+ a b) c)"));
+        ArithmeticExpressionNode sum = evaluator.add(ExpressionTreeHandler.parse("(+ a b)"));
+        evaluator.set("a", real("1.5"));
+        evaluator.set("b", real("2.5"));
+        evaluator.set("c", real("3"));
+        assertEquals(real("12"), evaluator.evaluate(product));
+
+        // The real results are new objects whenever they are recomputed
+        MyNumber cachedSum = evaluator.evaluate(sum);
+        MyNumber cachedProduct = evaluator.evaluate(product);
+        assertSame(cachedProduct, evaluator.evaluate(product));
+
+        evaluator.set("c", real("10"));
+        assertEquals(real("40"), evaluator.evaluate(product));
+        assertSame(cachedSum, evaluator.evaluate(sum));
+
+        // An equal value of the same kind keeps the results
+        cachedProduct = evaluator.evaluate(product);
+        evaluator.set("c", real("10.0"));
+        assertSame(cachedProduct, evaluator.evaluate(product));
+
+        evaluator.set("a", real("0.5"));
+        MyNumber newSum = evaluator.evaluate(sum);
+        assertEquals(real("3"), newSum);
+        assertNotSame(cachedSum, newSum);
+        assertEquals(real("30"), evaluator.evaluate(product));
+    }
+
+    @Test
+    public void testKindChangeInvalidates() {
+        IncrementalEvaluator evaluator = new IncrementalEvaluator();
+        ArithmeticExpressionNode half = evaluator.add(ExpressionTreeHandler.parse("(/ a 2)"));
+        evaluator.set("a", new MyInteger(3));
+        assertEquals(MyRational.valueOf(3, 2), evaluator.evaluate(half));
+        evaluator.set("a", real("3"));
+        assertInstanceOf(MyReal.class, evaluator.evaluate(half));
+        assertEquals(real("1.5"), evaluator.evaluate(half));
+    }
+
+    @Test
+    public void testRemove() {
+        IncrementalEvaluator evaluator = new IncrementalEvaluator();
+        ArithmeticExpressionNode root = evaluator.add(ExpressionTreeHandler.parse("(- a 1)"));
+        evaluator.set("a", new MyInteger(5));
+        assertEquals(new MyInteger(4), evaluator.evaluate(root));
+        evaluator.remove("a");
+        assertEquals(Map.of(), evaluator.getIdentifiers());
+        assertThrows(UndefinedIdentifierException.class, () -> evaluator.evaluate(root));
+        evaluator.set("a", new MyInteger(7));
+        assertEquals(new MyInteger(6), evaluator.evaluate(root));
+    }
+
+    @Test
+    public void testSameResultsAsTree() {
+        // Many formulas over few identifiers, changed one at a time
+        String[] names = {"a", "b", "c", "d"};
+        Random random = new Random(18);
+        IncrementalEvaluator evaluator = new IncrementalEvaluator();
+        Map<String, MyNumber> identifiers = new HashMap<>();
+        for (String name : names) {
+            identifiers.put(name, new MyInteger(1));
+            evaluator.set(name, new MyInteger(1));
+        }
+        ArithmeticExpressionNode[] trees = new ArithmeticExpressionNode[500];
+        ArithmeticExpressionNode[] added = new ArithmeticExpressionNode[trees.length];
+        for (int i = 0; i < trees.length; i++) {
+            String expression = "(+ (* " + names[random.nextInt(4)] + " " + i + ") (- "
+                + names[random.nextInt(4)] + " " + names[random.nextInt(4)] + "))";
+            trees[i] = ExpressionTreeHandler.parse(expression);
+            added[i] = evaluator.add(trees[i]);
+        }
+        for (int round = 0; round < 20; round++) {
+            String name = names[random.nextInt(names.length)];
+            MyInteger value = new MyInteger(random.nextInt(100) - 50);
+            identifiers.put(name, value);
+            evaluator.set(name, value);
+            for (int i = 0; i < trees.length; i++) {
+                assertEquals(trees[i].evaluate(identifiers), evaluator.evaluate(added[i]));
+            }
+        }
+    }
+
+    private static MyNumber real(String value) {
+        return new MyReal(new BigDecimal(value));
+    }
+}
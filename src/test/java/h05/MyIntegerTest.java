@@ -0,0 +1,98 @@
+package h05;
+
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.MyRational;
+import h05.math.Rational;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that integers backed by a {@code long} compute the same results as integers backed by a
+ * {@link BigInteger}, in particular on overflow.
+ */
+public class MyIntegerTest {
+
+    private static final long[] EDGES = {
+        0, 1, -1, 2, -2, 3037000499L, -3037000499L, 3037000500L, Integer.MAX_VALUE,
+        Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1,
+    };
+
+    private static final BigInteger TWO_64 = BigInteger.ONE.shiftLeft(64);
+
+    @Test
+    public void testArithmeticMatchesBigInteger() {
+        Random random = new Random(1);
+        for (int i = 0; i < 2000; i++) {
+            BigInteger a = randomValue(random);
+            BigInteger b = randomValue(random);
+            MyNumber x = new MyInteger(a);
+            MyNumber y = new MyInteger(b);
+            assertEquals(new MyInteger(a.add(b)), x.plus(y), a + " + " + b);
+            assertEquals(new MyInteger(a.subtract(b)), x.minus(y), a + " - " + b);
+            assertEquals(new MyInteger(a.multiply(b)), x.times(y), a + " * " + b);
+            assertEquals(new MyInteger(a.negate()), x.negate(), "- " + a);
+            if (b.signum() != 0) {
+                MyNumber quotient = x.divide(y);
+                assertEquals(new Rational(a, b), quotient.toRational(), a + " / " + b);
+            }
+        }
+    }
+
+    @Test
+    public void testOverflow() {
+        MyNumber max = new MyInteger(Long.MAX_VALUE);
+        MyNumber min = new MyInteger(Long.MIN_VALUE);
+        BigInteger bigMin = BigInteger.valueOf(Long.MIN_VALUE);
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE),
+            max.plus(MyInteger.ONE).toInteger());
+        assertEquals(bigMin.subtract(BigInteger.ONE), min.minus(MyInteger.ONE).toInteger());
+        assertEquals(bigMin.negate(), min.negate().toInteger());
+        assertEquals(bigMin.negate(), min.minus().toInteger());
+        assertEquals(bigMin.negate(), min.times(new MyInteger(-1)).toInteger());
+        assertEquals(bigMin.negate(), min.divide(new MyInteger(-1)).toInteger());
+        assertEquals(bigMin.multiply(bigMin), min.times(min).toInteger());
+    }
+
+    @Test
+    public void testRepresentationsAreEqual() {
+        for (long value : EDGES) {
+            MyInteger small = new MyInteger(value);
+            MyInteger big = new MyInteger(BigInteger.valueOf(value));
+            assertEquals(small, big);
+            assertEquals(small.hashCode(), big.hashCode());
+            assertEquals(small.toString(), big.toString());
+            assertEquals(BigInteger.valueOf(value), small.toInteger());
+        }
+        // A big result back in the range of a long equals the small value
+        MyNumber big = new MyInteger(TWO_64).minus(new MyInteger(TWO_64.subtract(BigInteger.TEN)));
+        assertEquals(new MyInteger(10), big);
+        assertEquals(new MyInteger(10).hashCode(), big.hashCode());
+    }
+
+    @Test
+    public void testResultTypes() {
+        assertInstanceOf(MyInteger.class, new MyInteger(6).divide(new MyInteger(3)));
+        assertInstanceOf(MyRational.class, new MyInteger(6).divide(new MyInteger(4)));
+        BigInteger seven = BigInteger.valueOf(7);
+        assertEquals(new MyRational(new Rational(BigInteger.ONE, seven)),
+            new MyInteger(7).divide());
+        assertEquals(new MyRational(new Rational(BigInteger.ONE.negate(), seven)),
+            new MyInteger(-7).divide());
+        assertTrue(new MyInteger(0).isZero());
+        assertFalse(new MyInteger(Long.MIN_VALUE).isZero());
+    }
+
+    private static BigInteger randomValue(Random random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> BigInteger.valueOf(EDGES[random.nextInt(EDGES.length)]);
+            case 1 -> BigInteger.valueOf(random.nextInt(2001) - 1000);
+            case 2 -> BigInteger.valueOf(random.nextLong());
+            default -> new BigInteger(96, random).subtract(BigInteger.ONE.shiftLeft(95));
+        };
+    }
+}
@@ -0,0 +1,84 @@
+package h05;
+
+import h05.exception.UndefinedIdentifierException;
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.tree.ArithmeticExpressionEvaluator;
+import h05.tree.ExpressionTreeHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the step-wise evaluation of {@link ArithmeticExpressionEvaluator#nextStep()}.
+ */
+public class NextStepTest {
+
+    private static final Map<String, MyNumber> IDENTIFIERS =
+        Map.of("a", new MyInteger(2), "b", new MyInteger(3));
+
+    @Test
+    public void testSteps() {
+        ArithmeticExpressionEvaluator evaluator = evaluator("(* (+ a 1) (- b (/ 4 2)) 5)");
+        assertEquals(List.of("(", "*", "3", "(", "-", "3", "2", ")", "5", ")"),
+            List.copyOf(evaluator.nextStep()));
+        assertEquals(List.of("(", "*", "3", "1", "5", ")"), List.copyOf(evaluator.nextStep()));
+        assertEquals(List.of("15"), List.copyOf(evaluator.nextStep()));
+        assertEquals(new MyInteger(15), evaluator.getRoot().evaluate(Map.of()));
+    }
+
+    @Test
+    public void testOperandsAndIdentifiers() {
+        assertEquals(List.of("3"), List.copyOf(evaluator("b").nextStep()));
+        assertEquals(List.of("7"), List.copyOf(evaluator("7").nextStep()));
+        assertEquals(List.of("0"), List.copyOf(evaluator("(+)").nextStep()));
+    }
+
+    @Test
+    public void testViewIsOnlyValidUntilNextStep() {
+        ArithmeticExpressionEvaluator evaluator = evaluator("(+ (* a 2) (* b 2))");
+        List<String> first = evaluator.nextStep();
+        List<String> copy = new ArrayList<>(first);
+        Iterator<String> iterator = first.iterator();
+        iterator.next();
+        assertThrows(UnsupportedOperationException.class, () -> first.add("x"));
+        assertThrows(UnsupportedOperationException.class, () -> first.set(0, "x"));
+
+        List<String> second = evaluator.nextStep();
+        assertEquals(List.of("(", "+", "4", "6", ")"), copy);
+        assertEquals(List.of("10"), second);
+        assertThrows(ConcurrentModificationException.class, first::size);
+        assertThrows(ConcurrentModificationException.class, () -> first.get(0));
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+    }
+
+    @Test
+    public void testFailedStepKeepsState() {
+        ArithmeticExpressionEvaluator evaluator = evaluator("(+ (* a 2) c)");
+        assertThrows(UndefinedIdentifierException.class, evaluator::nextStep);
+        assertEquals("(+ (* a 2) c)", evaluator.getRoot().toString());
+    }
+
+    @Test
+    public void testWideExpression() {
+        // Every step only touches the replaced operations
+        StringBuilder sb = new StringBuilder("(+");
+        for (int i = 0; i < 20_000; i++) {
+            sb.append(" (* a 2)");
+        }
+        ArithmeticExpressionEvaluator evaluator = evaluator(sb.append(')').toString());
+        assertEquals(1 + 1 + 20_000 + 1, evaluator.nextStep().size());
+        assertEquals(List.of("80000"), evaluator.nextStep());
+    }
+
+    private static ArithmeticExpressionEvaluator evaluator(String expression) {
+        return new ArithmeticExpressionEvaluator(
+            ExpressionTreeHandler.parse(expression), IDENTIFIERS);
+    }
+}
@@ -0,0 +1,74 @@
+package h05;
+
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.MyReal;
+import h05.math.NumericContext;
+import h05.tree.ExpressionTreeHandler;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that real results are rounded according to the {@link NumericContext} of the evaluation.
+ */
+public class NumericContextTest {
+
+    private static final NumericContext PRECISE =
+        new NumericContext(40, RoundingMode.HALF_EVEN, true);
+
+    @Test
+    public void testScale() {
+        BigDecimal sqrt2 = new BigDecimal(2).sqrt(new MathContext(60))
+            .setScale(40, RoundingMode.HALF_EVEN);
+        assertEquals(sqrt2, evaluate("(sqrt 2)", PRECISE).toReal());
+        assertEquals(15, evaluate("(sqrt 2)", NumericContext.DEFAULT).toReal().scale());
+        assertEquals(new BigDecimal("0.3333333333333333333333333333333333333333"),
+            evaluate("(/ 1.0 3)", PRECISE).toReal());
+    }
+
+    @Test
+    public void testNegationKeepsScale() {
+        BigDecimal sqrt2 = evaluate("(sqrt 2)", PRECISE).toReal();
+        assertEquals(sqrt2.negate(), evaluate("(- (sqrt 2))", PRECISE).toReal());
+        assertEquals(sqrt2.negate(), evaluate("(sqrt 2)", PRECISE).negate().toReal());
+        assertEquals(sqrt2.negate(), evaluate("(sqrt 2)", PRECISE).minus().toReal());
+        assertEquals(40, evaluate("(- (sqrt 2))", PRECISE).toReal().scale());
+    }
+
+    @Test
+    public void testRoundingMode() {
+        NumericContext down = new NumericContext(2, RoundingMode.DOWN, true);
+        NumericContext up = new NumericContext(2, RoundingMode.UP, true);
+        assertEquals(new BigDecimal("0.66"), evaluate("(/ 2.0 3)", down).toReal());
+        assertEquals(new BigDecimal("0.67"), evaluate("(/ 2.0 3)", up).toReal());
+    }
+
+    @Test
+    public void testCollapseToInteger() {
+        NumericContext keep = new NumericContext(15, RoundingMode.HALF_UP, false);
+        assertEquals(new MyInteger(3), evaluate("(sqrt 9.0)", NumericContext.DEFAULT));
+        assertInstanceOf(MyReal.class, evaluate("(sqrt 9.0)", keep));
+    }
+
+    @Test
+    public void testValidation() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new NumericContext(-1, RoundingMode.HALF_UP, true));
+        assertThrows(NullPointerException.class, () -> new NumericContext(15, null, true));
+        assertEquals(NumericContext.DEFAULT,
+            new NumericContext(MyReal.SCALE, MyReal.ROUNDING_MODE, true));
+        assertEquals(NumericContext.DEFAULT.hashCode(),
+            new NumericContext(MyReal.SCALE, MyReal.ROUNDING_MODE, true).hashCode());
+        assertNotEquals(NumericContext.DEFAULT, PRECISE);
+    }
+
+    private static MyNumber evaluate(String expression, NumericContext context) {
+        return ExpressionTreeHandler.parse(expression).evaluate(Map.of(), context);
+    }
+}
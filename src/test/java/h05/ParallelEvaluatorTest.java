@@ -0,0 +1,166 @@
+package h05;
+
+import h05.exception.UndefinedIdentifierException;
+import h05.exception.WrongOperandException;
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.MyRational;
+import h05.math.NumericContext;
+import h05.tree.ArithmeticExpressionNode;
+import h05.tree.ExpressionTreeHandler;
+import h05.tree.IdentifierExpressionNode;
+import h05.tree.LiteralExpressionNode;
+import h05.tree.Operator;
+import h05.tree.ParallelEvaluator;
+import h05.tree.StackEvaluator;
+import org.junit.jupiter.api.Test;
+
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static h05.TestExpressions.IDENTIFIERS;
+import static h05.TestExpressions.operation;
+import static h05.TestExpressions.result;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the {@link ParallelEvaluator} computes the same results as a sequential evaluation,
+ * whichever subtrees it splits.
+ */
+public class ParallelEvaluatorTest {
+
+    private static final NumericContext CONTEXT =
+        new NumericContext(20, RoundingMode.HALF_EVEN, true);
+
+    @Test
+    public void testHeavySubtrees() {
+        // (+ (* 1/2 (+ 1 2 ... 100) y) (* 1/3 (+ 1 2 ... 100) y) ... (* 1/9 (+ 1 2 ... 100) y)),
+        // the lower the threshold the more of the operations are evaluated by tasks of their own
+        ArithmeticExpressionNode[] sum = new ArithmeticExpressionNode[100];
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] = new LiteralExpressionNode(new MyInteger(i + 1));
+        }
+        ArithmeticExpressionNode[] products = new ArithmeticExpressionNode[8];
+        for (int i = 0; i < products.length; i++) {
+            products[i] = operation(Operator.MUL,
+                new LiteralExpressionNode(MyRational.valueOf(1, i + 2)),
+                operation(Operator.ADD, sum), new IdentifierExpressionNode("y"));
+        }
+        ArithmeticExpressionNode root = operation(Operator.ADD, products);
+        MyNumber expected = StackEvaluator.evaluate(root, IDENTIFIERS, CONTEXT);
+        assertInstanceOf(MyRational.class, expected);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int threshold : new int[]{2, 16, 64, 1_000}) {
+                ParallelEvaluator evaluator = new ParallelEvaluator(pool, threshold);
+                assertEquals(expected, evaluator.evaluate(root, IDENTIFIERS, CONTEXT),
+                    "threshold " + threshold);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testRepeatedEvaluations() {
+        // The sizes of the subtrees are reused for the same tree only
+        ArithmeticExpressionNode x = ExpressionTreeHandler.parse(
+            "(+" + " (* 2 x)".repeat(50) + ")");
+        ArithmeticExpressionNode y = ExpressionTreeHandler.parse(
+            "(+" + " (* 3 (+ y 1))".repeat(40) + ")");
+        ArithmeticExpressionNode small = ExpressionTreeHandler.parse("(* 5 x)");
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            ParallelEvaluator evaluator = new ParallelEvaluator(pool, 16);
+            for (int i = 1; i <= 3; i++) {
+                Map<String, MyNumber> identifiers =
+                    Map.of("x", new MyInteger(i), "y", new MyInteger(-i));
+                assertEquals(new MyInteger(100 * i), evaluator.evaluate(x, identifiers, CONTEXT));
+                assertEquals(new MyInteger(120 * (1 - i)),
+                    evaluator.evaluate(y, identifiers, CONTEXT));
+                assertEquals(new MyInteger(5 * i),
+                    evaluator.evaluate(small, identifiers, CONTEXT));
+                assertEquals(new MyInteger(100 * i), evaluator.evaluate(x, identifiers, CONTEXT));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testWideOperations() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelEvaluator evaluator = new ParallelEvaluator(pool, 64);
+            Random random = new Random(21);
+            for (String operator : new String[]{"+", "*", "-", "/"}) {
+                for (int mix = 0; mix < 3; mix++) {
+                    StringBuilder sb = new StringBuilder("(").append(operator);
+                    for (int i = 0; i < 5_000; i++) {
+                        sb.append(' ').append(wideOperand(random, mix));
+                    }
+                    ArithmeticExpressionNode root =
+                        ExpressionTreeHandler.parse(sb.append(')'));
+                    assertEquals(
+                        result(() -> StackEvaluator.evaluate(root, IDENTIFIERS, CONTEXT)),
+                        result(() -> evaluator.evaluate(root, IDENTIFIERS, CONTEXT)),
+                        operator + " " + mix);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testDeepTree() {
+        // Deeper than the maximum nesting of tasks
+        ArithmeticExpressionNode root = new IdentifierExpressionNode("x");
+        int depth = 100_000;
+        for (int i = 0; i < depth; i++) {
+            root = operation(Operator.ADD, new LiteralExpressionNode(new MyInteger(1)), root);
+        }
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            ParallelEvaluator evaluator = new ParallelEvaluator(pool, 16);
+            assertEquals(new MyInteger(depth + 3), evaluator.evaluate(root, IDENTIFIERS, CONTEXT));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testErrors() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            ParallelEvaluator evaluator = new ParallelEvaluator(pool, 4);
+            StringBuilder sb = new StringBuilder("(+");
+            for (int i = 0; i < 100; i++) {
+                sb.append(i == 70 ? " (* 2 z)" : " (* 2 x)");
+            }
+            ArithmeticExpressionNode undefined = ExpressionTreeHandler.parse(sb.append(')'));
+            assertThrows(UndefinedIdentifierException.class,
+                () -> evaluator.evaluate(undefined, IDENTIFIERS, CONTEXT));
+            ArithmeticExpressionNode zero =
+                ExpressionTreeHandler.parse("(+ (* 1 2 3) (/ 1 (- 2 2)) (* 4 5 6) (* 7 8 9))");
+            assertThrows(WrongOperandException.class,
+                () -> evaluator.evaluate(zero, IDENTIFIERS, CONTEXT));
+        } finally {
+            pool.shutdown();
+        }
+        assertThrows(IllegalArgumentException.class,
+            () -> new ParallelEvaluator(ForkJoinPool.commonPool(), 1));
+        assertEquals(ParallelEvaluator.DEFAULT_THRESHOLD, new ParallelEvaluator().getThreshold());
+    }
+
+    private static String wideOperand(Random random, int mix) {
+        int value = 1 + random.nextInt(9);
+        return switch (mix == 0 ? 0 : random.nextInt(mix + 1)) {
+            case 0 -> Integer.toString(value);
+            case 1 -> value + "/" + (value + 1);
+            default -> "1.0" + value;
+        };
+    }
+}
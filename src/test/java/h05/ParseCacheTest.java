@@ -0,0 +1,144 @@
+package h05;
+
+import h05.exception.BadOperationException;
+import h05.exception.ParenthesesMismatchException;
+import h05.tree.ArithmeticExpressionNode;
+import h05.tree.ParseCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the {@link ParseCache} returns the same tree for equal normalized expressions, stays
+ * within its capacity and counts its hits, misses and evictions.
+ */
+public class ParseCacheTest {
+
+    @Test
+    public void testNormalize() {
+        assertEquals("(+ a (* b 2))", ParseCache.normalize(" (+ a(*  b 2) )"));
+        assertEquals("(+ a (* b 2))", ParseCache.normalize("( + a ( * b 2 ) )"));
+        assertEquals("(+)", ParseCache.normalize("(\t+\n)"));
+        assertEquals("42", ParseCache.normalize("  42  "));
+        assertEquals("", ParseCache.normalize(" "));
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        ParseCache cache = new ParseCache();
+        ArithmeticExpressionNode root = cache.parse("( + a ( * b 2 ) )");
+        assertSame(root, cache.parse("(+ a (* b 2))"));
+        assertSame(root, cache.parse(new StringBuilder("(+ a\n(* b 2))")));
+        assertNotSame(root, cache.parse("(+ a (* b 3))"));
+        assertEquals("(+ a (* b 2))", root.toString());
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        // Both texts which are not normalized are cached next to the normalized expressions
+        assertEquals(4, cache.size());
+        assertEquals(0, cache.getEvictions());
+    }
+
+    @Test
+    public void testTextCachedAsItIs() {
+        ParseCache cache = new ParseCache();
+        String text = " ( * x  3 )";
+        ArithmeticExpressionNode root = cache.parse(text);
+        assertEquals(2, cache.size());
+        assertSame(root, cache.parse(text));
+        assertSame(root, cache.parse(new StringBuilder(text)));
+        assertSame(root, cache.parse("(* x 3)"));
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertThrows(NullPointerException.class, () -> cache.parse(null));
+    }
+
+    @Test
+    public void testErrorsNotCached() {
+        ParseCache cache = new ParseCache(8);
+        assertThrows(ParenthesesMismatchException.class, () -> cache.parse("(+ 1 2"));
+        assertThrows(ParenthesesMismatchException.class, () -> cache.parse("(+ 1 2"));
+        assertThrows(BadOperationException.class, () -> cache.parse(""));
+        assertEquals(0, cache.size());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        ParseCache cache = new ParseCache(1);
+        ArithmeticExpressionNode first = cache.parse("(+ 1 2)");
+        assertSame(first, cache.parse("(+ 1 2)"));
+        cache.parse("(+ 3 4)");
+        assertEquals(1, cache.getEvictions());
+        assertNotSame(first, cache.parse("(+ 1 2)"));
+        assertEquals(2, cache.getEvictions());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testCapacity() {
+        for (int capacity : new int[]{2, 3, 17, 100}) {
+            ParseCache cache = new ParseCache(capacity);
+            assertEquals(capacity, cache.getCapacity());
+            for (int i = 0; i < 1000; i++) {
+                cache.parse("(+ x " + i + ")");
+                assertTrue(cache.size() <= capacity, capacity + " " + cache.size());
+            }
+            assertEquals(1000, cache.getMisses());
+            assertEquals(1000 - cache.size(), cache.getEvictions());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ParseCache(0));
+        assertEquals(ParseCache.DEFAULT_CAPACITY, new ParseCache().getCapacity());
+    }
+
+    @Test
+    public void testClear() {
+        ParseCache cache = new ParseCache();
+        ArithmeticExpressionNode root = cache.parse("(* 2 y)");
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNotSame(root, cache.parse("(* 2 y)"));
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testConcurrentParsing() throws Exception {
+        ParseCache cache = new ParseCache();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<ArithmeticExpressionNode>>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    List<ArithmeticExpressionNode> roots = new ArrayList<>();
+                    for (int round = 0; round < 50; round++) {
+                        for (int i = 0; i < 32; i++) {
+                            roots.add(cache.parse("(- y " + i + ")"));
+                        }
+                    }
+                    return roots;
+                }));
+            }
+            List<ArithmeticExpressionNode> first = futures.get(0).get();
+            for (Future<List<ArithmeticExpressionNode>> future : futures) {
+                List<ArithmeticExpressionNode> roots = future.get();
+                for (int i = 0; i < roots.size(); i++) {
+                    assertEquals(first.get(i).toString(), roots.get(i).toString());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // Every expression fits, so only concurrent first lookups can miss
+        assertEquals(4 * 50 * 32, cache.getHits() + cache.getMisses());
+        assertTrue(cache.getMisses() <= 4 * 32, "misses " + cache.getMisses());
+        assertEquals(32, cache.size());
+        assertEquals(0, cache.getEvictions());
+    }
+}
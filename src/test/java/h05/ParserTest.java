@@ -0,0 +1,112 @@
+package h05;
+
+import h05.exception.BadOperationException;
+import h05.exception.IllegalIdentifierExceptions;
+import h05.exception.ParenthesesMismatchException;
+import h05.exception.UndefinedOperatorException;
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.MyRational;
+import h05.math.MyReal;
+import h05.math.Rational;
+import h05.tree.ArithmeticExpressionNode;
+import h05.tree.ExpressionTreeHandler;
+import h05.tree.IdentifierExpressionNode;
+import h05.tree.LiteralExpressionNode;
+import h05.tree.OperationExpressionNode;
+import h05.tree.Operator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the single-pass parser of {@link ExpressionTreeHandler#parse(CharSequence)}.
+ */
+public class ParserTest {
+
+    @Test
+    public void testNumbers() {
+        assertLiteral(new MyInteger(12), "12");
+        assertLiteral(new MyInteger(-12), "-12");
+        assertLiteral(new MyInteger(12), "+12");
+        assertLiteral(new MyInteger(999_999_999_999_999_999L), "999999999999999999");
+        assertLiteral(new MyInteger(Long.MAX_VALUE), "9223372036854775807");
+        assertLiteral(new MyInteger(Long.MIN_VALUE), "-9223372036854775808");
+        assertLiteral(new MyInteger(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE)),
+            "9223372036854775808");
+        assertLiteral(new MyReal(new BigDecimal("1.25")), "1.25");
+        assertLiteral(new MyReal(new BigDecimal("-0.5")), "-0.5");
+        assertLiteral(new MyReal(new BigDecimal("-1.05")), "-1.05");
+        assertLiteral(new MyReal(new BigDecimal("12345678901234567890.123")),
+            "12345678901234567890.123");
+        assertLiteral(MyRational.valueOf(3, 4), "3/4");
+        assertLiteral(MyRational.valueOf(1, 2), "-7/-14");
+        assertLiteral(MyRational.valueOf(-1, 3), "1/-3");
+        assertLiteral(new MyRational(new Rational(BigInteger.ONE, BigInteger.TEN.pow(30))),
+            "1/1000000000000000000000000000000");
+        assertThrows(ArithmeticException.class, () -> ExpressionTreeHandler.parse("1/0"));
+    }
+
+    @Test
+    public void testIdentifiers() {
+        assertInstanceOf(IdentifierExpressionNode.class, ExpressionTreeHandler.parse("a-b"));
+        assertInstanceOf(IdentifierExpressionNode.class, ExpressionTreeHandler.parse("Xyz"));
+        assertThrows(IllegalIdentifierExceptions.class, () -> ExpressionTreeHandler.parse("a1"));
+        assertThrows(IllegalIdentifierExceptions.class, () -> ExpressionTreeHandler.parse("1."));
+        assertThrows(IllegalIdentifierExceptions.class, () -> ExpressionTreeHandler.parse(".5"));
+        assertThrows(IllegalIdentifierExceptions.class, () -> ExpressionTreeHandler.parse("1/"));
+        assertThrows(IllegalIdentifierExceptions.class, () -> ExpressionTreeHandler.parse("1.2.3"));
+    }
+
+    @Test
+    public void testOperators() {
+        for (Operator operator : Operator.values()) {
+            String operands = operator.getMaxOperands() == 1 ? " 4" : " 4 2";
+            ArithmeticExpressionNode node =
+                ExpressionTreeHandler.parse("(" + operator.getSymbol() + operands + ")");
+            assertSame(operator, ((OperationExpressionNode) node).getOperator());
+        }
+        assertThrows(UndefinedOperatorException.class, () -> ExpressionTreeHandler.parse("(% 1)"));
+        assertThrows(UndefinedOperatorException.class, () -> ExpressionTreeHandler.parse("(ex 1)"));
+        assertThrows(UndefinedOperatorException.class, () -> ExpressionTreeHandler.parse("(++ 1)"));
+        assertThrows(BadOperationException.class, () -> ExpressionTreeHandler.parse("(1 2)"));
+    }
+
+    @Test
+    public void testWhitespace() {
+        ArithmeticExpressionNode root = ExpressionTreeHandler.parse(" (+\t1\n(*  2 3)(- 4 a))\r\n");
+        assertEquals("(+ 1 (* 2 3) (- 4 a))", root.toString());
+        assertEquals(new MyInteger(9), root.evaluate(Map.of("a", new MyInteger(2))));
+        StringBuilder chars = new StringBuilder("(* 2 x)");
+        assertEquals("(* 2 x)", ExpressionTreeHandler.parse(chars).toString());
+        assertThrows(UndefinedOperatorException.class, () -> ExpressionTreeHandler.parse("(*2 x)"));
+    }
+
+    @Test
+    public void testMalformed() {
+        assertThrows(BadOperationException.class, () -> ExpressionTreeHandler.parse(""));
+        assertThrows(BadOperationException.class, () -> ExpressionTreeHandler.parse("  "));
+        assertThrows(BadOperationException.class, () -> ExpressionTreeHandler.parse("1 2"));
+        assertThrows(BadOperationException.class, () -> ExpressionTreeHandler.parse("(+ 1) 2"));
+        assertThrows(BadOperationException.class, () -> ExpressionTreeHandler.parse("(()"));
+        assertThrows(BadOperationException.class, () -> ExpressionTreeHandler.parse("()"));
+        assertThrows(ParenthesesMismatchException.class,
+            () -> ExpressionTreeHandler.parse("(+ 1 2"));
+        assertThrows(ParenthesesMismatchException.class, () -> ExpressionTreeHandler.parse("("));
+        assertThrows(ParenthesesMismatchException.class, () -> ExpressionTreeHandler.parse("1)"));
+        assertThrows(ParenthesesMismatchException.class,
+            () -> ExpressionTreeHandler.parse("(+ 1 2))"));
+    }
+
+    private static void assertLiteral(MyNumber expected, String literal) {
+        ArithmeticExpressionNode node = ExpressionTreeHandler.parse(literal);
+        assertInstanceOf(LiteralExpressionNode.class, node, literal);
+        MyNumber actual = node.evaluate(Map.of());
+        assertEquals(expected, actual, literal);
+        assertEquals(expected.getClass(), actual.getClass(), literal);
+    }
+}
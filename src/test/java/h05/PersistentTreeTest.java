@@ -0,0 +1,100 @@
+package h05;
+
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.tree.ArithmeticExpressionEvaluator;
+import h05.tree.ArithmeticExpressionNode;
+import h05.tree.ExpressionTreeHandler;
+import h05.tree.ListItem;
+import h05.tree.OperationExpressionNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the versions of the tree returned by the {@link ArithmeticExpressionEvaluator} are
+ * persistent, i.e. never modified by later steps and share their unchanged subtrees.
+ */
+public class PersistentTreeTest {
+
+    private static final Map<String, MyNumber> IDENTIFIERS =
+        Map.of("a", new MyInteger(2), "b", new MyInteger(10));
+
+    @Test
+    public void testOldVersionsUnchanged() {
+        String expression = "(+ (* (+ a 1) 3) (- b (* (+ 4 5) 6)) 7)";
+        ArithmeticExpressionNode root = ExpressionTreeHandler.parse(expression);
+        ArithmeticExpressionEvaluator evaluator =
+            new ArithmeticExpressionEvaluator(root, IDENTIFIERS);
+        assertSame(root, evaluator.getRoot());
+
+        List<ArithmeticExpressionNode> versions = new ArrayList<>();
+        List<String> rendered = new ArrayList<>();
+        List<String> steps = new ArrayList<>();
+        while (evaluator.getRoot().isOperation()) {
+            steps.add(String.join(" ", evaluator.nextStep()));
+            ArithmeticExpressionNode version = evaluator.getRoot();
+            versions.add(version);
+            rendered.add(version.toString());
+        }
+
+        assertEquals(expression, root.toString());
+        assertEquals(List.of(
+            "( + ( * 3 3 ) ( - 10 ( * 9 6 ) ) 7 )",
+            "( + 9 ( - 10 54 ) 7 )",
+            "( + 9 -44 7 )",
+            "-28"), steps);
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(rendered.get(i), versions.get(i).toString());
+        }
+    }
+
+    @Test
+    public void testUnchangedSubtreesShared() {
+        ArithmeticExpressionNode root =
+            ExpressionTreeHandler.parse("(+ (* (+ 1 2) 3) (- 8 (/ 4 2)))");
+        ArithmeticExpressionEvaluator evaluator =
+            new ArithmeticExpressionEvaluator(root, IDENTIFIERS);
+        evaluator.nextStep();
+        ArithmeticExpressionNode version = evaluator.getRoot();
+        assertEquals("(+ (* 3 3) (- 8 2))", version.toString());
+
+        // The literal 3 of (* (+ 1 2) 3) is shared, the operations on the paths are copies
+        OperationExpressionNode oldProduct = operand(root, 0);
+        OperationExpressionNode newProduct = operand(version, 0);
+        assertNotSame(oldProduct, newProduct);
+        assertSame(oldProduct.getOperands().next.key, newProduct.getOperands().next.key);
+        assertSame(operand(root, 1).getOperands().key, operand(version, 1).getOperands().key);
+
+        // Building the same version again returns the same tree
+        assertSame(version, evaluator.getRoot());
+    }
+
+    @Test
+    public void testCloneSharesSubtrees() {
+        OperationExpressionNode root =
+            (OperationExpressionNode) ExpressionTreeHandler.parse("(+ (* a 3) (- 8 b) 1)");
+        OperationExpressionNode clone = (OperationExpressionNode) root.clone();
+        assertNotSame(root, clone);
+        assertEquals(root.toString(), clone.toString());
+        ListItem<ArithmeticExpressionNode> original = root.getOperands();
+        ListItem<ArithmeticExpressionNode> copy = clone.getOperands();
+        for (; original != null; original = original.next, copy = copy.next) {
+            assertSame(original.key, copy.key);
+        }
+        assertNull(copy);
+        assertEquals(root.evaluate(IDENTIFIERS), clone.evaluate(IDENTIFIERS));
+    }
+
+    private static OperationExpressionNode operand(ArithmeticExpressionNode node, int index) {
+        ListItem<ArithmeticExpressionNode> item = ((OperationExpressionNode) node).getOperands();
+        for (int i = 0; i < index; i++) {
+            item = item.next;
+        }
+        return (OperationExpressionNode) item.key;
+    }
+}
@@ -0,0 +1,92 @@
+package h05;
+
+import h05.exception.WrongOperandException;
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.MyReal;
+import h05.math.NumericContext;
+import h05.tree.ExpressionTreeHandler;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the powers and transcendental functions of numbers and the digit budget bounding powers.
+ */
+public class PowerTest {
+
+    private static final double DELTA = 1e-12;
+
+    @Test
+    public void testExactPowers() {
+        assertEquals(new MyInteger(1024), evaluate("(expt 2 10)", NumericContext.DEFAULT));
+        assertEquals(new MyInteger(-27), evaluate("(expt -3 3)", NumericContext.DEFAULT));
+        assertEquals(new MyInteger(1), evaluate("(expt 7 0)", NumericContext.DEFAULT));
+        MyNumber large = evaluate("(expt 2 30000)", NumericContext.DEFAULT);
+        assertEquals(BigInteger.TWO.pow(30000), large.toInteger());
+    }
+
+    @Test
+    public void testTranscendentalFunctions() {
+        NumericContext context = NumericContext.DEFAULT;
+        assertEquals(Math.sqrt(2), evaluate("(sqrt 2)", context).toReal().doubleValue(), DELTA);
+        assertEquals(Math.exp(1.5), evaluate("(exp 1.5)", context).toReal().doubleValue(), DELTA);
+        assertEquals(Math.log(10), evaluate("(ln 10)", context).toReal().doubleValue(), DELTA);
+        assertEquals(3, evaluate("(log 8 2)", context).toReal().doubleValue(), DELTA);
+        assertEquals(Math.pow(10, 2.5),
+            evaluate("(expt 10 2.5)", context).toReal().doubleValue(), 1e-9);
+        assertEquals(Math.pow(1.5, 0.5),
+            evaluate("(expt 1.5 0.5)", context).toReal().doubleValue(), DELTA);
+    }
+
+    @Test
+    public void testPowersExceedingBudget() {
+        NumericContext context = NumericContext.DEFAULT;
+        assertThrows(WrongOperandException.class, () -> evaluate("(expt 1.5 1000000000)", context));
+        assertThrows(WrongOperandException.class, () -> evaluate("(expt 2 1000000000)", context));
+        assertThrows(WrongOperandException.class,
+            () -> evaluate("(expt 1.000000000001 100000000000000000000000000000)", context));
+
+        NumericContext small = new NumericContext(15, RoundingMode.HALF_UP, true, 10);
+        assertEquals(new MyInteger(1_000_000_000), evaluate("(expt 10 9)", small));
+        assertThrows(WrongOperandException.class, () -> evaluate("(expt 10 11)", small));
+        assertThrows(WrongOperandException.class, () -> evaluate("(expt 10.5 11)", small));
+    }
+
+    @Test
+    public void testBaseCloseToOne() {
+        // The distance of the base to 1 is far below the precision of a plain estimate
+        NumericContext context = new NumericContext(60, RoundingMode.HALF_EVEN, true);
+        MyNumber base = new MyReal(new BigDecimal("1E-40").add(BigDecimal.ONE), context);
+        MyNumber exponent = new MyInteger(BigInteger.TEN.pow(60));
+        assertThrows(WrongOperandException.class, () -> base.expt(exponent, context));
+    }
+
+    @Test
+    public void testTinyPowers() {
+        assertEquals(new MyInteger(0), evaluate("(expt 0.5 1000000000)", NumericContext.DEFAULT));
+        NumericContext up = new NumericContext(15, RoundingMode.UP, true);
+        MyNumber tiny = new MyReal(new BigDecimal("1E-15"));
+        assertEquals(tiny, evaluate("(expt 0.5 1000000001)", up));
+        assertEquals(tiny.negate(), evaluate("(expt -0.5 1000000001)", up));
+    }
+
+    @Test
+    public void testContextValidation() {
+        assertEquals(NumericContext.DEFAULT_MAX_DIGITS, NumericContext.DEFAULT.getMaxDigits());
+        assertEquals(5, new NumericContext(15, RoundingMode.HALF_UP, true, 5).getMaxDigits());
+        assertThrows(IllegalArgumentException.class,
+            () -> new NumericContext(15, RoundingMode.HALF_UP, true, 0));
+        assertNotEquals(NumericContext.DEFAULT,
+            new NumericContext(15, RoundingMode.HALF_UP, true, 5));
+    }
+
+    private static MyNumber evaluate(String expression, NumericContext context) {
+        return ExpressionTreeHandler.parse(expression).evaluate(Map.of(), context);
+    }
+}
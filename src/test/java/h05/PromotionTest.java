@@ -0,0 +1,120 @@
+package h05;
+
+import h05.exception.WrongOperandException;
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.MyRational;
+import h05.math.MyReal;
+import h05.math.NumericContext;
+import h05.math.Rational;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the promotion of mixed operands by the binary operations of {@link MyNumber}: integers and
+ * rational numbers stay exact, any real operand makes the result real.
+ */
+public class PromotionTest {
+
+    private static final NumericContext KEEP = new NumericContext(20, RoundingMode.HALF_UP, false);
+
+    private static final NumericContext COLLAPSE =
+        new NumericContext(20, RoundingMode.HALF_UP, true);
+
+    @Test
+    public void testExactPairsMatchReference() {
+        Random random = new Random(5);
+        for (int i = 0; i < 2000; i++) {
+            MyNumber a = randomExact(random);
+            MyNumber b = randomExact(random);
+            Rational x = a.toRational();
+            Rational y = b.toRational();
+            String message = a + " " + b;
+            assertExact(x.plus(y), a.plus(b), message);
+            assertExact(x.plus(y.negate()), a.minus(b), message);
+            assertExact(x.times(y), a.times(b), message);
+            if (!b.isZero()) {
+                assertExact(x.times(y.reciprocal()), a.divide(b), message);
+            }
+        }
+    }
+
+    @Test
+    public void testRealOperandMakesResultReal() {
+        MyNumber third = rational(1, 3);
+        MyNumber half = new MyReal(new BigDecimal("0.5"), KEEP);
+        MyNumber two = new MyInteger(2);
+        assertReal("0.83333333333333333333", third.plus(half, KEEP));
+        assertReal("0.83333333333333333333", half.plus(third, KEEP));
+        assertReal("-0.16666666666666666667", third.minus(half, KEEP));
+        assertReal("1.5", two.minus(half, KEEP));
+        // Rational operands are rounded to the scale of the context first
+        assertReal("0.66666666666666666666", third.divide(half, KEEP));
+        assertReal("4", two.divide(half, KEEP));
+        assertReal("1", half.times(two, KEEP));
+
+        // Integers are converted exactly, whatever their size
+        MyNumber big = new MyInteger(BigInteger.TEN.pow(30));
+        assertReal("1000000000000000000000000000000.5", big.plus(half, KEEP));
+    }
+
+    @Test
+    public void testCollapseToInteger() {
+        MyNumber half = new MyReal(new BigDecimal("0.5"), COLLAPSE);
+        assertEquals(new MyInteger(3), new MyReal(new BigDecimal("2.5")).plus(half, COLLAPSE));
+        assertInstanceOf(MyInteger.class, rational(1, 2).plus(half, COLLAPSE));
+        assertInstanceOf(MyReal.class, rational(1, 2).plus(half, KEEP));
+        assertInstanceOf(MyInteger.class, rational(1, 2).plus(rational(1, 2)));
+        assertInstanceOf(MyInteger.class, new MyInteger(6).divide(rational(3, 2)));
+    }
+
+    @Test
+    public void testDivisionByZero() {
+        MyNumber[] zeros = {MyInteger.ZERO, MyRational.ZERO, MyReal.ZERO};
+        MyNumber[] operands = {MyInteger.ONE, rational(1, 2), MyReal.ONE};
+        for (MyNumber zero : zeros) {
+            for (MyNumber operand : operands) {
+                assertThrows(WrongOperandException.class, () -> operand.divide(zero));
+            }
+        }
+    }
+
+    private static MyNumber rational(long numerator, long denominator) {
+        return new MyRational(
+            new Rational(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator)));
+    }
+
+    private static void assertExact(Rational expected, MyNumber actual, String message) {
+        assertEquals(expected, actual.toRational(), message);
+        if (expected.isInteger()) {
+            assertInstanceOf(MyInteger.class, actual, message);
+        } else {
+            assertInstanceOf(MyRational.class, actual, message);
+        }
+    }
+
+    private static void assertReal(String expected, MyNumber actual) {
+        assertInstanceOf(MyReal.class, actual);
+        assertEquals(0, new BigDecimal(expected).compareTo(actual.toReal()), actual.toString());
+        assertEquals(KEEP.getScale(), actual.toReal().scale());
+    }
+
+    private static MyNumber randomExact(Random random) {
+        BigInteger numerator = switch (random.nextInt(3)) {
+            case 0 -> BigInteger.valueOf(random.nextInt(41) - 20);
+            case 1 -> BigInteger.valueOf(random.nextLong());
+            default -> new BigInteger(80, random).subtract(BigInteger.ONE.shiftLeft(79));
+        };
+        if (random.nextBoolean()) {
+            return new MyInteger(numerator);
+        }
+        BigInteger denominator = BigInteger.valueOf(2 + random.nextInt(30));
+        return new MyRational(new Rational(numerator, denominator));
+    }
+}
@@ -0,0 +1,109 @@
+package h05;
+
+import h05.math.Rational;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that rational numbers compute exact results in lowest terms, whether they are stored as
+ * {@code long}s or as {@link BigInteger}s and whether they are normalized yet or not.
+ */
+public class RationalTest {
+
+    private static final long[] EDGES = {
+        0, 1, -1, 2, 6, -9, 3037000499L, Integer.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE,
+    };
+
+    @Test
+    public void testLowestTerms() {
+        Rational half = rational(-4, -8);
+        assertEquals(BigInteger.ONE, half.getNumerator());
+        assertEquals(BigInteger.TWO, half.getDenominator());
+        assertEquals(rational(1, 2), half);
+        assertEquals(rational(1, 2).hashCode(), half.hashCode());
+        assertEquals("1/2", half.toString());
+        assertEquals("-1/3", rational(2, -6).toString());
+        assertEquals("5/1", rational(10, 2).toString());
+        assertTrue(rational(10, 2).isInteger());
+        assertFalse(half.isInteger());
+        assertEquals(-1, rational(2, -6).signum());
+    }
+
+    @Test
+    public void testBoundaries() {
+        BigInteger min = BigInteger.valueOf(Long.MIN_VALUE);
+        Rational minOverMinusOne = rational(Long.MIN_VALUE, -1);
+        assertEquals(min.negate(), minOverMinusOne.getNumerator());
+        assertEquals(BigInteger.ONE, minOverMinusOne.getDenominator());
+        assertEquals(new Rational(BigInteger.ONE, min.negate()).negate(),
+            rational(1, Long.MIN_VALUE));
+        assertEquals(new Rational(min.negate(), BigInteger.ONE),
+            rational(Long.MIN_VALUE, 1).negate());
+        assertEquals(rational(1, Long.MIN_VALUE).reciprocal(),
+            rational(Long.MIN_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> rational(1, 0));
+        assertThrows(ArithmeticException.class, () -> Rational.ZERO.reciprocal());
+    }
+
+    @Test
+    public void testArithmeticMatchesReference() {
+        Random random = new Random(2);
+        for (int i = 0; i < 2000; i++) {
+            BigInteger[] a = randomFraction(random);
+            BigInteger[] b = randomFraction(random);
+            Rational x = new Rational(a[0], a[1]);
+            Rational y = new Rational(b[0], b[1]);
+            assertEquals(new Rational(a[0].multiply(b[1]).add(b[0].multiply(a[1])),
+                a[1].multiply(b[1])), x.plus(y));
+            assertEquals(new Rational(a[0].multiply(b[0]), a[1].multiply(b[1])), x.times(y));
+            assertEquals(new Rational(a[0].add(b[0].multiply(a[1])), a[1]), x.plus(b[0]));
+            assertEquals(new Rational(a[0].multiply(b[0]), a[1]), x.times(b[0]));
+            assertLowestTerms(x.plus(y));
+        }
+    }
+
+    @Test
+    public void testLongChains() {
+        // Sums of many unreduced fractions are normalized lazily and must stay exact
+        Rational sum = Rational.ZERO;
+        Rational product = Rational.ONE;
+        for (int i = 1; i <= 600; i++) {
+            sum = sum.plus(rational(1, (long) i * (i + 1)));
+            product = product.times(rational(i + 1, i));
+        }
+        assertEquals(rational(600, 601), sum);
+        assertEquals(rational(601, 1), product);
+        assertLowestTerms(sum);
+    }
+
+    private static Rational rational(long numerator, long denominator) {
+        return new Rational(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator));
+    }
+
+    private static void assertLowestTerms(Rational value) {
+        assertEquals(BigInteger.ONE, value.getNumerator().gcd(value.getDenominator()));
+        assertEquals(1, value.getDenominator().signum());
+    }
+
+    private static BigInteger[] randomFraction(Random random) {
+        BigInteger numerator = randomValue(random);
+        BigInteger denominator = randomValue(random);
+        while (denominator.signum() == 0) {
+            denominator = randomValue(random);
+        }
+        return new BigInteger[]{numerator, denominator};
+    }
+
+    private static BigInteger randomValue(Random random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> BigInteger.valueOf(EDGES[random.nextInt(EDGES.length)]);
+            case 1 -> BigInteger.valueOf(random.nextInt(201) - 100);
+            case 2 -> BigInteger.valueOf(random.nextLong());
+            default -> new BigInteger(100, random).subtract(BigInteger.ONE.shiftLeft(99));
+        };
+    }
+}
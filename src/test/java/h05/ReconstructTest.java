@@ -0,0 +1,103 @@
+package h05;
+
+import h05.math.MyInteger;
+import h05.tree.ArithmeticExpressionNode;
+import h05.tree.ExpressionTreeHandler;
+import h05.tree.IdentifierExpressionNode;
+import h05.tree.LiteralExpressionNode;
+import h05.tree.Operator;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import static h05.TestExpressions.operation;
+import static h05.TestExpressions.randomTree;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that {@link ExpressionTreeHandler#reconstruct} writes the same tokens to lists, appendables
+ * and channels.
+ */
+public class ReconstructTest {
+
+    @Test
+    public void testTokens() {
+        ArithmeticExpressionNode root = ExpressionTreeHandler.parse("(+ a (* 1/2 (*) 3) (+))");
+        assertEquals(
+            List.of("(", "+", "a", "(", "*", "1/2", "(", "*", ")", "3", ")", "(", "+", ")", ")"),
+            ExpressionTreeHandler.reconstruct(root));
+        LiteralExpressionNode literal = new LiteralExpressionNode(new MyInteger(42));
+        assertEquals(List.of("42"), ExpressionTreeHandler.reconstruct(literal));
+    }
+
+    @Test
+    public void testSameOutputEverywhere() throws IOException {
+        Random random = new Random(14);
+        for (int i = 0; i < 300; i++) {
+            ArithmeticExpressionNode root = randomTree(random, 4, 4);
+            StringBuilder sb = new StringBuilder();
+            ExpressionTreeHandler.reconstruct(root, sb);
+            assertEquals(root.toString(), sb.toString());
+            assertEquals(root.toString(), write(root));
+            assertEquals(String.join("", ExpressionTreeHandler.reconstruct(root)),
+                sb.toString().replace(" ", ""));
+        }
+    }
+
+    @Test
+    public void testLargeTrees() throws IOException {
+        // A wide tree larger than the buffer of the channel and a deep one
+        StringBuilder wide = new StringBuilder("(+");
+        for (int i = 0; i < 30_000; i++) {
+            wide.append(" (* ").append(i).append(" x)");
+        }
+        String expression = wide.append(')').toString();
+        ArithmeticExpressionNode root = ExpressionTreeHandler.parse(expression);
+        assertEquals(expression, write(root));
+
+        int depth = 200_000;
+        ArithmeticExpressionNode deep = new IdentifierExpressionNode("x");
+        for (int i = 0; i < depth; i++) {
+            deep = operation(Operator.SQRT, deep);
+        }
+        StringBuilder sb = new StringBuilder();
+        ExpressionTreeHandler.reconstruct(deep, sb);
+        assertEquals("(sqrt ".repeat(depth) + "x" + ")".repeat(depth), sb.toString());
+        assertEquals(3 * depth + 1, ExpressionTreeHandler.reconstruct(deep).size());
+    }
+
+    @Test
+    public void testFailingAppendable() {
+        ArithmeticExpressionNode root = ExpressionTreeHandler.parse("(+ 1 2)");
+        Appendable failing = new Appendable() {
+
+            @Override
+            public Appendable append(CharSequence csq) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int start, int end) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public Appendable append(char c) throws IOException {
+                throw new IOException("disk full");
+            }
+        };
+        assertEquals("disk full", assertThrows(IOException.class,
+            () -> ExpressionTreeHandler.reconstruct(root, failing)).getMessage());
+    }
+
+    private static String write(ArithmeticExpressionNode root) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExpressionTreeHandler.reconstruct(root, Channels.newChannel(out));
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,119 @@
+package h05;
+
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.MyReal;
+import h05.math.NumericContext;
+import h05.tree.ArithmeticExpressionNode;
+import h05.tree.ExpressionTreeHandler;
+import h05.tree.IdentifierExpressionNode;
+import h05.tree.ListItem;
+import h05.tree.LiteralExpressionNode;
+import h05.tree.OperationExpressionNode;
+import h05.tree.Operator;
+import h05.tree.SharedNodeFactory;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the {@link SharedNodeFactory} stores every common subexpression once and evaluates it
+ * once.
+ */
+public class SharedNodeFactoryTest {
+
+    private static final Map<String, MyNumber> IDENTIFIERS =
+        Map.of("a", new MyInteger(3), "b", new MyInteger(4));
+
+    @Test
+    public void testCommonSubexpressionsShared() {
+        SharedNodeFactory factory = new SharedNodeFactory();
+        String expression = "(+ (* a b) (* a b) (- (* a b) a))";
+        ArithmeticExpressionNode root = ExpressionTreeHandler.parse(expression);
+        OperationExpressionNode shared = (OperationExpressionNode) factory.share(root);
+        ListItem<ArithmeticExpressionNode> operands = shared.getOperands();
+        assertSame(operands.key, operands.next.key);
+        OperationExpressionNode difference = (OperationExpressionNode) operands.next.next.key;
+        assertSame(operands.key, difference.getOperands().key);
+        // a, b, (* a b), (- (* a b) a) and the root
+        assertEquals(5, factory.size());
+        assertEquals(expression, shared.toString());
+        assertEquals(expression, root.toString());
+
+        // Equal trees share the same nodes
+        assertSame(shared, factory.share(ExpressionTreeHandler.parse(expression)));
+        assertSame(operands.key, factory.share(ExpressionTreeHandler.parse("(* a b)")));
+        assertEquals(5, factory.size());
+    }
+
+    @Test
+    public void testLiteralsOfDifferentKinds() {
+        SharedNodeFactory factory = new SharedNodeFactory();
+        ArithmeticExpressionNode integer = factory.literal(new MyInteger(2));
+        assertSame(integer, factory.literal(new MyInteger(BigInteger.TWO)));
+        assertNotSame(integer, factory.literal(new MyReal(new BigDecimal("2.0"))));
+        assertSame(factory.identifier("x"), factory.identifier("x"));
+        assertNotSame(factory.identifier("x"), factory.identifier("y"));
+    }
+
+    @Test
+    public void testForeignOperands() {
+        SharedNodeFactory factory = new SharedNodeFactory();
+        ArithmeticExpressionNode foreign = new SharedNodeFactory().identifier("a");
+        assertThrows(IllegalArgumentException.class,
+            () -> factory.operation(Operator.ADD, List.of(factory.identifier("a"), foreign)));
+        assertThrows(IllegalArgumentException.class,
+            () -> factory.operation(Operator.ADD, List.of(new IdentifierExpressionNode("a"))));
+    }
+
+    @Test
+    public void testSharedNodesEvaluatedOnce() {
+        // x_{i+1} = (+ x_i x_i), as a tree x_200 would have 2^201 - 1 nodes
+        SharedNodeFactory factory = new SharedNodeFactory();
+        ArithmeticExpressionNode node = factory.identifier("a");
+        for (int i = 0; i < 200; i++) {
+            node = factory.operation(Operator.ADD, List.of(node, node));
+        }
+        assertEquals(201, factory.size());
+        MyNumber result = SharedNodeFactory.evaluate(node, IDENTIFIERS, NumericContext.DEFAULT);
+        assertEquals(new MyInteger(BigInteger.TWO.pow(200).multiply(BigInteger.valueOf(3))),
+            result);
+    }
+
+    @Test
+    public void testSameResultsAsTree() {
+        String[] expressions = {
+            "(+ (* a b) (* a b))", "(/ (- a b) (- a b) (*))", "(sqrt (* (+ a b) (+ a b)))",
+            "7", "b",
+        };
+        for (String expression : expressions) {
+            ArithmeticExpressionNode root = ExpressionTreeHandler.parse(expression);
+            ArithmeticExpressionNode shared = new SharedNodeFactory().share(root);
+            MyNumber result =
+                SharedNodeFactory.evaluate(shared, IDENTIFIERS, NumericContext.DEFAULT);
+            assertEquals(root.evaluate(IDENTIFIERS), result, expression);
+        }
+    }
+
+    @Test
+    public void testDeepTree() {
+        ArithmeticExpressionNode root = new LiteralExpressionNode(new MyInteger(0));
+        for (int i = 0; i < 100_000; i++) {
+            ListItem<ArithmeticExpressionNode> operands = new ListItem<>();
+            operands.key = new IdentifierExpressionNode("a");
+            operands.next = new ListItem<>();
+            operands.next.key = root;
+            root = new OperationExpressionNode(Operator.ADD, operands);
+        }
+        SharedNodeFactory factory = new SharedNodeFactory();
+        ArithmeticExpressionNode shared = factory.share(root);
+        assertEquals(100_002, factory.size());
+        assertEquals(new MyInteger(300_000),
+            SharedNodeFactory.evaluate(shared, IDENTIFIERS, NumericContext.DEFAULT));
+    }
+}
@@ -0,0 +1,107 @@
+package h05;
+
+import h05.exception.IllegalIdentifierExceptions;
+import h05.exception.UndefinedIdentifierException;
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.MyReal;
+import h05.tree.ArithmeticExpressionNode;
+import h05.tree.CompiledExpression;
+import h05.tree.ExpressionTreeHandler;
+import h05.tree.Identifier;
+import h05.tree.IdentifierExpressionNode;
+import h05.tree.ListItem;
+import h05.tree.LiteralExpressionNode;
+import h05.tree.OperationExpressionNode;
+import h05.tree.Operator;
+import h05.tree.SlotBinding;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that expressions bound to a {@link SlotBinding} evaluate like their trees.
+ */
+public class SlotBindingTest {
+
+    private static final Map<String, MyNumber> IDENTIFIERS = Map.of(
+        "a", new MyInteger(3),
+        "b", new MyReal(new BigDecimal("0.5")),
+        "c", new MyInteger(-7));
+
+    @Test
+    public void testSlots() {
+        SlotBinding binding = SlotBinding.of(ExpressionTreeHandler.parse("(+ b (* a b) c a)"));
+        assertEquals(List.of("b", "a", "c"), binding.getNames());
+        assertEquals(3, binding.size());
+        assertEquals(1, binding.slotOf("a"));
+        assertThrows(UndefinedIdentifierException.class, () -> binding.slotOf("d"));
+        assertArrayEquals(new MyNumber[]{IDENTIFIERS.get("b"), IDENTIFIERS.get("a"),
+            IDENTIFIERS.get("c")}, binding.bind(IDENTIFIERS));
+
+        SlotBinding explicit = SlotBinding.of(List.of("c", "a", "c"));
+        assertEquals(List.of("c", "a"), explicit.getNames());
+    }
+
+    @Test
+    public void testSameResultsAsTree() {
+        String[] expressions = {
+            "(+ a (* b 2) (- c 1) (/ 6 3))",
+            "(- a)",
+            "(/ b)",
+            "(*)",
+            "(expt a 3)",
+            "(+ a pi)",
+            "c",
+            "42",
+        };
+        for (String expression : expressions) {
+            ArithmeticExpressionNode root = ExpressionTreeHandler.parse(expression);
+            SlotBinding binding = SlotBinding.of(root);
+            CompiledExpression bound = root.bind(binding);
+            assertEquals(root.evaluate(IDENTIFIERS), bound.evaluate(binding.bind(IDENTIFIERS)),
+                expression);
+        }
+    }
+
+    @Test
+    public void testUndefinedIdentifiers() {
+        ArithmeticExpressionNode root = ExpressionTreeHandler.parse("(+ a d)");
+        assertThrows(UndefinedIdentifierException.class,
+            () -> root.bind(SlotBinding.of(List.of("a"))));
+        SlotBinding binding = SlotBinding.of(root);
+        assertThrows(UndefinedIdentifierException.class, () -> binding.bind(IDENTIFIERS));
+        assertThrows(IllegalIdentifierExceptions.class,
+            () -> SlotBinding.of(List.of("pi")).bind(Map.of("pi", new MyInteger(3))));
+    }
+
+    @Test
+    public void testDeepTree() {
+        // (+ 1 (+ 1 (+ 1 ... (+ 1 a))))
+        ArithmeticExpressionNode root = new IdentifierExpressionNode("a");
+        int depth = 100_000;
+        for (int i = 0; i < depth; i++) {
+            ListItem<ArithmeticExpressionNode> operands = new ListItem<>();
+            operands.key = new LiteralExpressionNode(new MyInteger(1));
+            operands.next = new ListItem<>();
+            operands.next.key = root;
+            root = new OperationExpressionNode(Operator.ADD, operands);
+        }
+        SlotBinding binding = SlotBinding.of(root);
+        CompiledExpression bound = root.bind(binding);
+        assertEquals(new MyInteger(depth + 3), bound.evaluate(binding.bind(IDENTIFIERS)));
+    }
+
+    @Test
+    public void testPredefinedIdentifiers() {
+        for (Identifier identifier : Identifier.values()) {
+            assertSame(identifier, Identifier.fromName(identifier.getName()));
+        }
+        assertNull(Identifier.fromName("PI"));
+        assertNull(Identifier.fromName("x"));
+    }
+}
@@ -0,0 +1,125 @@
+package h05;
+
+import h05.exception.UndefinedIdentifierException;
+import h05.exception.WrongOperandException;
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.MyRational;
+import h05.math.MyReal;
+import h05.math.NumericContext;
+import h05.tree.ArithmeticExpressionNode;
+import h05.tree.IdentifierExpressionNode;
+import h05.tree.LiteralExpressionNode;
+import h05.tree.Operator;
+import h05.tree.StackEvaluator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static h05.TestExpressions.IDENTIFIERS;
+import static h05.TestExpressions.operation;
+import static h05.TestExpressions.result;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the {@link StackEvaluator} evaluates like the recursive evaluation of the tree and
+ * handles trees far deeper than the call stack allows.
+ */
+public class StackEvaluatorTest {
+
+    private static final NumericContext CONTEXT =
+        new NumericContext(20, RoundingMode.HALF_EVEN, true);
+
+    @Test
+    public void testSameResultsAsRecursion() {
+        ArithmeticExpressionNode x = new IdentifierExpressionNode("x");
+        ArithmeticExpressionNode y = new IdentifierExpressionNode("y");
+        List<ArithmeticExpressionNode> roots = List.of(
+            // (/ x y 2.5)
+            operation(Operator.DIV, x, y, real("2.5")),
+            // (sqrt (- x 1/3))
+            operation(Operator.SQRT, operation(Operator.SUB, x, rational(1, 3))),
+            // (exp (* 1/3 y e))
+            operation(Operator.EXP,
+                operation(Operator.MUL, rational(1, 3), y, new IdentifierExpressionNode("e"))),
+            // (+ (* 2 (- 7)) (/ 1 (- 2 2)))
+            operation(Operator.ADD, operation(Operator.MUL, integer(2),
+                    operation(Operator.SUB, integer(7))),
+                operation(Operator.DIV, integer(1), operation(Operator.SUB, integer(2),
+                    integer(2)))),
+            // (ln (- 1 x))
+            operation(Operator.LN, operation(Operator.SUB, integer(1), x)));
+        for (ArithmeticExpressionNode root : roots) {
+            assertEquals(result(() -> root.evaluate(IDENTIFIERS, CONTEXT)),
+                result(() -> StackEvaluator.evaluate(root, IDENTIFIERS, CONTEXT)),
+                root.toString());
+        }
+    }
+
+    @Test
+    public void testOperandCounts() {
+        assertEquals(new MyInteger(0), evaluate(operation(Operator.ADD)));
+        assertEquals(new MyInteger(1), evaluate(operation(Operator.MUL)));
+        assertEquals(new MyInteger(-4), evaluate(operation(Operator.SUB, integer(4))));
+        assertEquals(MyRational.valueOf(1, 4), evaluate(operation(Operator.DIV, integer(4))));
+        assertEquals(new MyInteger(3),
+            evaluate(operation(Operator.SUB, integer(10), integer(4), integer(3))));
+        assertEquals(new MyInteger(7), evaluate(integer(7)));
+        assertEquals(IDENTIFIERS.get("y"), evaluate(new IdentifierExpressionNode("y")));
+        assertThrows(UndefinedIdentifierException.class, () -> evaluate(operation(Operator.ADD,
+            integer(1), operation(Operator.MUL, integer(2), new IdentifierExpressionNode("z")))));
+        assertThrows(WrongOperandException.class,
+            () -> evaluate(operation(Operator.DIV, integer(1), integer(0))));
+    }
+
+    @Test
+    public void testDeepTrees() {
+        // (+ 1 (+ 1 (+ 1 ... (+ 1 x)))) and (- ... (- (- x 1) 1) ... 1)
+        int depth = 1_000_000;
+        ArithmeticExpressionNode right = new IdentifierExpressionNode("x");
+        ArithmeticExpressionNode left = new IdentifierExpressionNode("x");
+        LiteralExpressionNode one = integer(1);
+        for (int i = 0; i < depth; i++) {
+            right = operation(Operator.ADD, one, right);
+            left = operation(Operator.SUB, left, one);
+        }
+        assertEquals(new MyInteger(depth + 3),
+            StackEvaluator.evaluate(right, IDENTIFIERS, CONTEXT));
+        assertEquals(new MyInteger(3 - depth),
+            StackEvaluator.evaluate(left, IDENTIFIERS, CONTEXT));
+    }
+
+    @Test
+    public void testInterrupted() {
+        // (+ 1 (* 2 3))
+        ArithmeticExpressionNode root =
+            operation(Operator.ADD, integer(1), operation(Operator.MUL, integer(2), integer(3)));
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(CancellationException.class,
+                () -> StackEvaluator.evaluate(root, IDENTIFIERS, CONTEXT));
+        } finally {
+            Thread.interrupted();
+        }
+        assertEquals(new MyInteger(7), StackEvaluator.evaluate(root, IDENTIFIERS, CONTEXT));
+    }
+
+    private static MyNumber evaluate(ArithmeticExpressionNode root) {
+        return StackEvaluator.evaluate(root, IDENTIFIERS, CONTEXT);
+    }
+
+    private static LiteralExpressionNode integer(long value) {
+        return new LiteralExpressionNode(new MyInteger(value));
+    }
+
+    private static LiteralExpressionNode real(String value) {
+        return new LiteralExpressionNode(new MyReal(new BigDecimal(value)));
+    }
+
+    private static LiteralExpressionNode rational(long numerator, long denominator) {
+        return new LiteralExpressionNode(MyRational.valueOf(numerator, denominator));
+    }
+}
@@ -0,0 +1,120 @@
+package h05;
+
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.MyRational;
+import h05.math.MyReal;
+import h05.math.Rational;
+import h05.tree.ArithmeticExpressionNode;
+import h05.tree.IdentifierExpressionNode;
+import h05.tree.ListItem;
+import h05.tree.LiteralExpressionNode;
+import h05.tree.OperationExpressionNode;
+import h05.tree.Operator;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Builds expression trees and compares evaluation results for the tests of the different
+ * evaluators.
+ */
+final class TestExpressions {
+
+    /**
+     * The values of the identifiers {@code x} and {@code y} of the random trees.
+     */
+    static final Map<String, MyNumber> IDENTIFIERS = Map.of(
+        "x", new MyReal(new BigDecimal("3.0")),
+        "y", new MyRational(new Rational(BigInteger.ONE, BigInteger.valueOf(7))));
+
+    /**
+     * The literals of the random trees.
+     */
+    private static final MyNumber[] LITERALS = {
+        new MyInteger(0), new MyInteger(1), new MyInteger(2), new MyInteger(-2),
+        new MyReal(new BigDecimal("2.0")), new MyReal(new BigDecimal("2.5")),
+        new MyRational(new Rational(BigInteger.ONE, BigInteger.valueOf(3))),
+    };
+
+    /**
+     * The identifiers of the random trees.
+     */
+    private static final String[] NAMES = {"x", "y", "pi"};
+
+    /**
+     * The operators of the random trees.
+     */
+    private static final Operator[] OPERATORS = {
+        Operator.ADD, Operator.SUB, Operator.MUL, Operator.DIV, Operator.SQRT, Operator.LN,
+    };
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private TestExpressions() {
+    }
+
+    /**
+     * Returns a random tree of literals, the identifiers {@code x}, {@code y} and {@code pi} and
+     * the operators {@code + - * / sqrt ln}.
+     *
+     * @param random the source of randomness
+     * @param depth  the maximum depth of the tree
+     * @param width  the maximum number of operands of an operation with a variable arity
+     * @return the random tree
+     */
+    static ArithmeticExpressionNode randomTree(Random random, int depth, int width) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            int choice = random.nextInt(LITERALS.length + NAMES.length);
+            return choice < LITERALS.length
+                ? new LiteralExpressionNode(LITERALS[choice])
+                : new IdentifierExpressionNode(NAMES[choice - LITERALS.length]);
+        }
+        Operator operator = OPERATORS[random.nextInt(OPERATORS.length)];
+        int count = operator.getMaxOperands() == 1 ? 1 : 1 + random.nextInt(width);
+        ArithmeticExpressionNode[] operands = new ArithmeticExpressionNode[count];
+        for (int i = 0; i < count; i++) {
+            operands[i] = randomTree(random, depth - 1, width);
+        }
+        return operation(operator, operands);
+    }
+
+    /**
+     * Returns an operation node applying the operator to the operands.
+     *
+     * @param operator the operator
+     * @param operands the operands
+     * @return the operation node
+     */
+    static OperationExpressionNode operation(Operator operator,
+                                             ArithmeticExpressionNode... operands) {
+        ListItem<ArithmeticExpressionNode> head = null;
+        for (int i = operands.length - 1; i >= 0; i--) {
+            ListItem<ArithmeticExpressionNode> item = new ListItem<>();
+            item.key = operands[i];
+            item.next = head;
+            head = item;
+        }
+        return new OperationExpressionNode(operator, head);
+    }
+
+    /**
+     * Returns the type and value of the result of an evaluation, or the simple name of the
+     * exception it throws, so that evaluators can be compared on failing expressions too.
+     *
+     * @param evaluation the evaluation
+     * @return the description of the result
+     */
+    static String result(Supplier<MyNumber> evaluation) {
+        try {
+            MyNumber result = evaluation.get();
+            return result.getClass().getSimpleName() + " " + result;
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName();
+        }
+    }
+}
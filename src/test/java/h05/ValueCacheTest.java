@@ -0,0 +1,108 @@
+package h05;
+
+import h05.math.MyInteger;
+import h05.math.MyNumber;
+import h05.math.MyRational;
+import h05.math.MyReal;
+import h05.math.Rational;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that common integers and fractions are served from the caches of {@link MyInteger} and
+ * {@link MyRational} and that cached and uncached values are interchangeable.
+ */
+public class ValueCacheTest {
+
+    @Test
+    public void testSmallIntegersAreCached() {
+        for (long value = -128; value <= 1024; value++) {
+            MyInteger cached = MyInteger.valueOf(value);
+            assertSame(cached, MyInteger.valueOf(value));
+            assertSame(cached, MyInteger.valueOf(BigInteger.valueOf(value)));
+            assertEquals(BigInteger.valueOf(value), cached.toInteger());
+        }
+        assertSame(MyInteger.ZERO, MyInteger.valueOf(0));
+        assertSame(MyInteger.ONE, MyInteger.valueOf(1));
+    }
+
+    @Test
+    public void testOtherIntegersAreEqual() {
+        long[] values = {-129, 1025, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long value : values) {
+            assertEquals(new MyInteger(value), MyInteger.valueOf(value));
+            assertEquals(new MyInteger(value).hashCode(), MyInteger.valueOf(value).hashCode());
+        }
+        BigInteger big = BigInteger.TEN.pow(40);
+        assertEquals(new MyInteger(big), MyInteger.valueOf(big));
+    }
+
+    @Test
+    public void testCommonFractionsAreCached() {
+        for (long q = 2; q <= 12; q++) {
+            for (long p = -16; p <= 16; p++) {
+                if (BigInteger.valueOf(p).gcd(BigInteger.valueOf(q)).equals(BigInteger.ONE)) {
+                    MyRational cached = MyRational.valueOf(p, q);
+                    assertSame(cached, MyRational.valueOf(p, q));
+                    assertSame(cached, MyRational.valueOf(3 * p, 3 * q));
+                    assertSame(cached, MyRational.valueOf(-p, -q));
+                    assertEquals(Rational.valueOf(p, q), cached.toRational());
+                }
+            }
+        }
+        assertEquals(new MyRational(Rational.valueOf(17, 2)), MyRational.valueOf(17, 2));
+        assertEquals(new MyRational(Rational.valueOf(1, 13)), MyRational.valueOf(1, 13));
+    }
+
+    @Test
+    public void testResultsAreCached() {
+        assertSame(MyInteger.valueOf(5), MyInteger.valueOf(2).plus(MyInteger.valueOf(3)));
+        assertSame(MyInteger.valueOf(-6), MyInteger.valueOf(2).times(MyInteger.valueOf(-3)));
+        assertSame(MyInteger.ONE, MyRational.valueOf(1, 2).plus(MyRational.valueOf(1, 2)));
+        assertSame(MyInteger.valueOf(4), MyInteger.valueOf(6).divide(MyRational.valueOf(3, 2)));
+        assertSame(MyRational.valueOf(2, 3), MyInteger.valueOf(4).divide(MyInteger.valueOf(6)));
+        assertSame(MyRational.valueOf(1, 6),
+            MyRational.valueOf(1, 2).minus(MyRational.valueOf(1, 3)));
+        assertSame(MyInteger.valueOf(3),
+            new MyReal(new BigDecimal("2.5")).plus(new MyReal(new BigDecimal("0.5"))));
+    }
+
+    @Test
+    public void testLongSumsStayUnreduced() {
+        // Fractions beyond the reach of the cache are wrapped without computing a GCD
+        Rational thousandth = Rational.valueOf(1, 1000);
+        Rational sum = Rational.ZERO;
+        MyNumber number = MyInteger.ZERO;
+        for (int i = 1; i < 1000; i++) {
+            sum = sum.plus(thousandth);
+            number = number.plus(MyRational.valueOf(thousandth));
+            assertSame(sum, MyRational.valueOf(sum).toRational());
+            assertEquals(new MyRational(sum), number);
+        }
+        MyNumber half = MyInteger.ZERO;
+        for (int i = 0; i < 500; i++) {
+            half = half.plus(MyRational.valueOf(thousandth));
+        }
+        assertEquals(MyRational.valueOf(1, 2), half);
+        assertNotSame(MyRational.valueOf(1, 2), half);
+        assertSame(MyInteger.ONE, number.plus(MyRational.valueOf(thousandth)));
+        // Unreduced fractions within a small multiple of the cache bounds are still looked up
+        assertSame(MyRational.valueOf(1, 2), MyRational.valueOf(Rational.valueOf(48, 96)));
+    }
+
+    @Test
+    public void testIsZero() {
+        assertTrue(MyInteger.valueOf(0).isZero());
+        assertTrue(new MyInteger(BigInteger.ZERO).isZero());
+        assertTrue(MyInteger.valueOf(7).minus(MyInteger.valueOf(7)).isZero());
+        assertFalse(MyInteger.valueOf(-1).isZero());
+        assertFalse(new MyInteger(BigInteger.TEN.pow(30)).isZero());
+        MyNumber zero = new MyInteger(BigInteger.TEN.pow(30)).minus(
+            new MyInteger(BigInteger.TEN.pow(30)));
+        assertSame(MyInteger.ZERO, zero);
+    }
+}